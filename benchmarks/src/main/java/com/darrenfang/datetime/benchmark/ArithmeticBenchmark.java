@@ -0,0 +1,79 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 日期的加减, 设置与截断
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+
+	private DateTime dateTime;
+
+	@Setup
+	public void setUp() {
+		dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+	}
+
+	@Benchmark
+	public DateTime addChain() {
+		return dateTime.addYears(1).addMonths(1).addDays(1).addHours(1)
+				.addMinutes(1).addSeconds(1).addMilliseconds(1);
+	}
+
+	@Benchmark
+	public DateTime addDays() {
+		return dateTime.addDays(1);
+	}
+
+	@Benchmark
+	public DateTime addMonths() {
+		return dateTime.addMonths(1);
+	}
+
+	@Benchmark
+	public DateTime setAllFields() {
+		return dateTime.set(2013, 1, 2, 3, 4, 5, 6);
+	}
+
+	@Benchmark
+	public DateTime addWeekdays() {
+		return dateTime.addWeekdays(Weekday.FRIDAY, 1);
+	}
+
+	@Benchmark
+	public DateTime truncateFormat() throws ParseException {
+		return dateTime.truncate("yyyy-MM-dd");
+	}
+
+	@Benchmark
+	public DateTime truncateToDay() {
+		return dateTime.truncateTo(Unit.DAY);
+	}
+
+	@Benchmark
+	public long truncateToMinuteMillis() {
+		return DateTime.truncateTo(dateTime.getTime(), Unit.MINUTE);
+	}
+}
@@ -0,0 +1,76 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimeArray;
+
+/**
+ * 批量获取字段: DateTimeArray与List&lt;DateTime&gt;逐个获取对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArrayBenchmark {
+
+	private static final int SIZE = 1000000;
+
+	private List<DateTime> list;
+
+	private DateTimeArray array;
+
+	private int[] dest = new int[SIZE];
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		long start = new DateTime(2013, 1, 1).getTime();
+		list = new ArrayList<DateTime>(SIZE);
+		array = new DateTimeArray(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			long t = start + (random.nextLong() >>> 30);
+			list.add(new DateTime(t));
+			array.add(t);
+		}
+	}
+
+	@Benchmark
+	public int[] getYearList() {
+		for (int i = 0; i < SIZE; i++) {
+			dest[i] = list.get(i).getYear();
+		}
+		return dest;
+	}
+
+	@Benchmark
+	public int[] getYearArray() {
+		return array.getYear(dest);
+	}
+
+	@Benchmark
+	public int[] getWeekdayArray() {
+		return array.getWeekday(dest);
+	}
+
+	@Benchmark
+	public DateTimeArray truncateToDayArray() {
+		return array.truncateTo(DateTime.Unit.DAY);
+	}
+}
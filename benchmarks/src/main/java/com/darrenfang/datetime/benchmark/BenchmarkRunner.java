@@ -0,0 +1,25 @@
+package com.darrenfang.datetime.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 运行全部(或匹配参数的)基准测试, 同时统计每次操作分配的内存 (GCProfiler)
+ * 
+ * <pre>
+ * java -cp target/benchmarks.jar com.darrenfang.datetime.benchmark.BenchmarkRunner [regexp]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : ".*";
+		Options options = new OptionsBuilder().include(include)
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-Duser.timezone=Asia/Shanghai").build();
+		new Runner(options).run();
+	}
+}
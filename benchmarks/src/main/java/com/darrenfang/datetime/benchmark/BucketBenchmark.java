@@ -0,0 +1,82 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.text.ParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.BucketAggregator;
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.TimeBucket;
+
+/**
+ * 多线程按分钟汇总事件: truncate后放入ConcurrentHashMap与BucketAggregator对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class BucketBenchmark {
+
+	private final TimeBucket minutes = TimeBucket.of(Unit.MINUTE);
+
+	private final BucketAggregator aggregator = new BucketAggregator(minutes,
+			60);
+
+	private final ConcurrentMap<DateTime, AtomicLong> counts = new ConcurrentHashMap<DateTime, AtomicLong>();
+
+	@State(Scope.Thread)
+	public static class Events {
+		long millis = new DateTime(2013, 1, 2, 3, 4, 5, 6).getTime();
+
+		long next() {
+			// 每次前进7毫秒, 约每8500次进入下一分钟
+			return millis += 7;
+		}
+	}
+
+	@Benchmark
+	public long index(Events events) {
+		return minutes.index(events.next());
+	}
+
+	@Benchmark
+	public DateTime truncate(Events events) throws ParseException {
+		return new DateTime(events.next()).truncate("yyyy-MM-dd HH:mm");
+	}
+
+	@Benchmark
+	public boolean recordAggregator(Events events) {
+		return aggregator.record(events.next(), 1);
+	}
+
+	@Benchmark
+	public long recordMap(Events events) throws ParseException {
+		DateTime key = new DateTime(events.next()).truncate("yyyy-MM-dd HH:mm");
+		AtomicLong count = counts.get(key);
+		if (count == null) {
+			AtomicLong created = new AtomicLong();
+			count = counts.putIfAbsent(key, created);
+			if (count == null) {
+				count = created;
+			}
+		}
+		return count.incrementAndGet();
+	}
+}
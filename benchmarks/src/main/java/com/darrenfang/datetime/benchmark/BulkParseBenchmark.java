@@ -0,0 +1,97 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.text.ParseException;
+import java.util.BitSet;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimeParser;
+import com.darrenfang.datetime.DateTimePattern;
+
+/**
+ * 按行批量解析日志: 逐行DateTime.parse与DateTimeParser串行, 并行对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkParseBenchmark {
+
+	private static final int LINES = 1000000;
+
+	private String text;
+
+	private long[] dest = new long[LINES];
+
+	private BitSet bad = new BitSet(LINES);
+
+	private ExecutorService executor;
+
+	private DateTimeParser serial;
+
+	private DateTimeParser parallel;
+
+	@Setup
+	public void setUp() {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		StringBuilder builder = new StringBuilder();
+		long start = new DateTime(2013, 1, 1).getTime();
+		for (int i = 0; i < LINES; i++) {
+			pattern.format(start + i * 997L, TimeZone.getDefault(), builder);
+			builder.append(" INFO request ").append(i).append('\n');
+		}
+		text = builder.toString();
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime()
+				.availableProcessors());
+		serial = new DateTimeParser(pattern);
+		parallel = new DateTimeParser(pattern, executor);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Benchmark
+	public long[] parsePerLine() throws ParseException {
+		int line = 0;
+		int pos = 0;
+		while (pos < text.length()) {
+			int end = text.indexOf('\n', pos);
+			dest[line++] = DateTime.parse(text.substring(pos, pos + 19))
+					.getTime();
+			pos = end + 1;
+		}
+		return dest;
+	}
+
+	@Benchmark
+	public long[] parseLinesSerial() throws InterruptedException {
+		serial.parseLines(text, dest, bad);
+		return dest;
+	}
+
+	@Benchmark
+	public long[] parseLinesParallel() throws InterruptedException {
+		parallel.parseLines(text, dest, bad);
+		return dest;
+	}
+}
@@ -0,0 +1,93 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.BusinessCalendar;
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * T+10个工作日和一年中的工作日个数: BusinessCalendar与逐日addDays(1)并查HashSet对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BusinessCalendarBenchmark {
+
+	private BusinessCalendar calendar;
+
+	private Set<String> holidays;
+
+	private final DateTime start = new DateTime(2013, 9, 27, 15, 30, 0, 0);
+
+	private final DateTime end = new DateTime(2014, 9, 27);
+
+	@Setup
+	public void setUp() {
+		BusinessCalendar.Builder builder = BusinessCalendar.builder();
+		holidays = new HashSet<String>();
+		for (int day = 1; day <= 7; day++) {
+			builder.holiday(2013, 10, day);
+			holidays.add(new DateTime(2013, 10, day).toString("yyyy-MM-dd"));
+		}
+		calendar = builder.build();
+	}
+
+	@Benchmark
+	public DateTime addBusinessDays() {
+		return calendar.addBusinessDays(start, 10);
+	}
+
+	@Benchmark
+	public DateTime addBusinessDaysLoop() {
+		DateTime day = new DateTime(start.getTime());
+		int n = 10;
+		while (n > 0) {
+			day.addDays(1);
+			if (isBusinessDay(day)) {
+				n--;
+			}
+		}
+		return day;
+	}
+
+	@Benchmark
+	public int businessDaysBetween() {
+		return calendar.businessDaysBetween(start, end);
+	}
+
+	@Benchmark
+	public int businessDaysBetweenLoop() {
+		DateTime day = new DateTime(start.getTime());
+		int count = 0;
+		while (day.before(end)) {
+			if (isBusinessDay(day)) {
+				count++;
+			}
+			day.addDays(1);
+		}
+		return count;
+	}
+
+	private boolean isBusinessDay(DateTime day) {
+		Weekday weekday = day.getWeekday();
+		return weekday != Weekday.SATURDAY && weekday != Weekday.SUNDAY
+				&& !holidays.contains(day.toString("yyyy-MM-dd"));
+	}
+}
@@ -0,0 +1,70 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.CachedClock;
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.ImmutableDateTime;
+
+/**
+ * 获取当前时间: 系统时钟与CachedClock对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+
+	private CachedClock clock;
+
+	private final DateTime reuse = new DateTime(0);
+
+	@Setup
+	public void setUp() {
+		clock = new CachedClock(1, TimeUnit.MILLISECONDS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		clock.close();
+	}
+
+	@Benchmark
+	public long systemMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Benchmark
+	public DateTime systemNow() {
+		return DateTime.now();
+	}
+
+	@Benchmark
+	public long cachedMillis() {
+		return clock.nowMillis();
+	}
+
+	@Benchmark
+	public DateTime cachedNowReuse() {
+		return clock.now(reuse);
+	}
+
+	@Benchmark
+	public ImmutableDateTime cachedNowImmutable() {
+		return clock.nowImmutable();
+	}
+}
@@ -0,0 +1,91 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+
+/**
+ * 比较, 哈希与相等
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompareBenchmark {
+
+	private DateTime small = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+	private DateTime big = new DateTime(2013, 1, 2, 3, 4, 5, 7);
+
+	private DateTime smallEquals = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+	@Benchmark
+	public int compareTo() {
+		return small.compareTo(big);
+	}
+
+	@Benchmark
+	public int compare() {
+		return small.compare(small, big);
+	}
+
+	@Benchmark
+	public boolean before() {
+		return small.before(big);
+	}
+
+	@Benchmark
+	public long diff() {
+		return big.diff(small);
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return small.hashCode();
+	}
+
+	@Benchmark
+	public boolean equalsSame() {
+		return small.equals(smallEquals);
+	}
+
+	@Benchmark
+	public boolean equalsDifferent() {
+		return small.equals(big);
+	}
+
+	/**
+	 * 基准: 原来基于Calendar的hashCode
+	 */
+	@Benchmark
+	public int hashCodeCalendar() {
+		return calendar(small).hashCode();
+	}
+
+	/**
+	 * 基准: 原来基于Calendar的equals
+	 */
+	@Benchmark
+	public boolean equalsSameCalendar() {
+		return calendar(small).equals(calendar(smallEquals));
+	}
+
+	private static Calendar calendar(DateTime dateTime) {
+		Calendar c = Calendar.getInstance();
+		c.setTimeInMillis(dateTime.getTime());
+		return c;
+	}
+}
@@ -0,0 +1,77 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+
+/**
+ * 各个构造方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConstructorBenchmark {
+
+	private long timestamp = 1357067045006L;
+
+	private Date date = new Date(timestamp);
+
+	private java.sql.Date sqlDate = new java.sql.Date(timestamp);
+
+	private Calendar calendar = Calendar.getInstance();
+
+	@Benchmark
+	public DateTime now() {
+		return DateTime.now();
+	}
+
+	@Benchmark
+	public DateTime noArgs() {
+		return new DateTime();
+	}
+
+	@Benchmark
+	public DateTime fromCalendar() {
+		return new DateTime(calendar);
+	}
+
+	@Benchmark
+	public DateTime fromDate() {
+		return new DateTime(date);
+	}
+
+	@Benchmark
+	public DateTime fromSqlDate() {
+		return new DateTime(sqlDate);
+	}
+
+	@Benchmark
+	public DateTime fromTimestamp() {
+		return new DateTime(timestamp);
+	}
+
+	@Benchmark
+	public DateTime fromYearMonthDay() {
+		return new DateTime(2013, 1, 2);
+	}
+
+	@Benchmark
+	public DateTime fromAllFields() {
+		return new DateTime(2013, 1, 2, 3, 4, 5, 6);
+	}
+}
@@ -0,0 +1,87 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.ParseResult;
+
+/**
+ * 多线程同时使用共享的DateTime, 格式缓存和解析
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ContendedBenchmark {
+
+	private DateTime shared = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+	private String text = "2013-01-02 03:04:05";
+
+	private String invalid = "2013-01-02 03:04:0x";
+
+	@State(Scope.Thread)
+	public static class Local {
+		ParseResult result = new ParseResult();
+	}
+
+	@Benchmark
+	public int getYear() {
+		return shared.getYear();
+	}
+
+	@Benchmark
+	public String toStringDefault() {
+		return shared.toString();
+	}
+
+	@Benchmark
+	public String toStringPattern() {
+		return shared.toString("yyyy-MM-dd'T'HH:mm:ss.SSS");
+	}
+
+	@Benchmark
+	public DateTime parse() throws ParseException {
+		return DateTime.parse(text);
+	}
+
+	@Benchmark
+	public DateTime tryParseInvalid() {
+		return DateTime.tryParse(invalid, null);
+	}
+
+	@Benchmark
+	public boolean parseResult(Local local) {
+		return DateTime.parse(text, null, local.result);
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return shared.hashCode();
+	}
+
+	@Benchmark
+	public int compareTo() {
+		return shared.compareTo(shared);
+	}
+
+	@Benchmark
+	public DateTime newInstance() {
+		return new DateTime(2013, 1, 2, 3, 4, 5, 6);
+	}
+}
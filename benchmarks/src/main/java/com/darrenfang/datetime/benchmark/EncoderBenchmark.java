@@ -0,0 +1,92 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimeDecoder;
+import com.darrenfang.datetime.DateTimeEncoder;
+
+/**
+ * 编码/解码10000个抖动在5秒内的每秒时间戳, 与直接写入8字节long对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EncoderBenchmark {
+
+	private static final int COUNT = 10000;
+
+	private long[] timestamps;
+
+	private long[] decoded;
+
+	private ByteBuffer encodeBuffer;
+
+	private ByteBuffer encoded;
+
+	private ByteBuffer raw;
+
+	@Setup
+	public void setUp() throws IOException {
+		Random random = new Random(42);
+		timestamps = new long[COUNT];
+		long start = new DateTime(2013, 1, 1).getTime();
+		for (int i = 0; i < COUNT; i++) {
+			timestamps[i] = start + i * 1000L + random.nextInt(5000);
+		}
+		decoded = new long[COUNT];
+		encodeBuffer = ByteBuffer.allocate(COUNT * 10);
+		raw = ByteBuffer.allocate(COUNT * 8);
+		encode().flip();
+		encoded = ByteBuffer.allocate(encodeBuffer.remaining());
+		encoded.put(encodeBuffer).flip();
+		System.out.println("\nencoded: " + encoded.remaining() + " bytes ("
+				+ (double) encoded.remaining() / COUNT
+				+ " per timestamp), raw: " + COUNT * 8 + " bytes");
+	}
+
+	@Benchmark
+	public ByteBuffer encode() throws IOException {
+		encodeBuffer.clear();
+		new DateTimeEncoder(encodeBuffer).add(timestamps, 0, COUNT).flush();
+		return encodeBuffer;
+	}
+
+	@Benchmark
+	public long[] decode() throws IOException {
+		DateTimeDecoder decoder = new DateTimeDecoder(encoded);
+		decoder.read(decoded, 0, COUNT);
+		return decoded;
+	}
+
+	@Benchmark
+	public ByteBuffer encodeRaw() {
+		raw.clear();
+		raw.asLongBuffer().put(timestamps);
+		return raw;
+	}
+
+	@Benchmark
+	public long[] decodeRaw() {
+		raw.clear();
+		raw.asLongBuffer().get(decoded);
+		return decoded;
+	}
+}
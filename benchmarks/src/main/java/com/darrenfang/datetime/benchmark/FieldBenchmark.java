@@ -0,0 +1,90 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 字段的读取
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldBenchmark {
+
+	private DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+	@Benchmark
+	public long getTime() {
+		return dateTime.getTime();
+	}
+
+	@Benchmark
+	public int getYear() {
+		return dateTime.getYear();
+	}
+
+	@Benchmark
+	public int getMonth() {
+		return dateTime.getMonth();
+	}
+
+	@Benchmark
+	public int getDay() {
+		return dateTime.getDay();
+	}
+
+	@Benchmark
+	public int getHour() {
+		return dateTime.getHour();
+	}
+
+	@Benchmark
+	public int getMinute() {
+		return dateTime.getMinute();
+	}
+
+	@Benchmark
+	public int getSecond() {
+		return dateTime.getSecond();
+	}
+
+	@Benchmark
+	public int getMilliSecond() {
+		return dateTime.getMilliSecond();
+	}
+
+	@Benchmark
+	public int getDayOfYear() {
+		return dateTime.getDayOfYear();
+	}
+
+	@Benchmark
+	public int getDayOfWeek() {
+		return dateTime.getDayOfWeek();
+	}
+
+	@Benchmark
+	public Weekday getWeekday() {
+		return dateTime.getWeekday();
+	}
+
+	@Benchmark
+	public Object getDate() {
+		return dateTime.getDate();
+	}
+}
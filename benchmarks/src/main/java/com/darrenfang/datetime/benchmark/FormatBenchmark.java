@@ -0,0 +1,111 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimePattern;
+
+/**
+ * 格式化
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormatBenchmark {
+
+	private DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+	private StringBuilder buffer = new StringBuilder(32);
+
+	private DateTimePattern pattern = DateTimePattern
+			.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+
+	private TimeZone zone = TimeZone.getDefault();
+
+	private byte[] bytes = new byte[32];
+
+	private ByteBuffer direct = ByteBuffer.allocateDirect(32);
+
+	private DateTimePattern millisPattern = DateTimePattern
+			.compile("yyyy-MM-dd HH:mm:ss.SSS");
+
+	/**
+	 * 模拟日志: 时间戳每次增加1毫秒
+	 */
+	private long sequential = dateTime.getTime();
+
+	@Benchmark
+	public String formatSequential() {
+		return pattern.format(sequential++, zone);
+	}
+
+	@Benchmark
+	public String formatSequentialMillis() {
+		return millisPattern.format(sequential++, zone);
+	}
+
+	@Benchmark
+	public StringBuilder appendSequentialMillis() {
+		buffer.setLength(0);
+		return millisPattern.format(sequential++, zone, buffer);
+	}
+
+	@Benchmark
+	public String toStringDefault() {
+		return dateTime.toString();
+	}
+
+	@Benchmark
+	public String toStringPattern() {
+		return dateTime.toString("yyyy-MM-dd'T'HH:mm:ss.SSS");
+	}
+
+	@Benchmark
+	public StringBuilder appendTo() {
+		buffer.setLength(0);
+		return dateTime.appendTo(buffer, DateTime.DEFAULT_DATETIME_FORMAT);
+	}
+
+	@Benchmark
+	public String formatMillis() {
+		return DateTime.format(dateTime.getTime());
+	}
+
+	@Benchmark
+	public int formatBytes() {
+		return pattern.format(dateTime.getTime(), zone, bytes, 0);
+	}
+
+	@Benchmark
+	public int formatDirectBuffer() {
+		return pattern.format(dateTime.getTime(), zone, direct, 0);
+	}
+
+	@Benchmark
+	public byte[] formatStringGetBytes() throws UnsupportedEncodingException {
+		return dateTime.toString().getBytes("US-ASCII");
+	}
+
+	@Benchmark
+	public String formatDateFormatUtils() {
+		return DateFormatUtils.format(dateTime.getTime(),
+				DateTime.DEFAULT_DATETIME_FORMAT);
+	}
+}
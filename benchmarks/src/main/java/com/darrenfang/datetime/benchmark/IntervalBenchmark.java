@@ -0,0 +1,94 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.IntervalIndex;
+
+/**
+ * 20万个时间段中查找包含某个时间点的区间: IntervalIndex与逐个调用before/after对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntervalBenchmark {
+
+	private static final int COUNT = 200000;
+
+	private DateTime[] starts;
+
+	private DateTime[] ends;
+
+	private IntervalIndex index;
+
+	private long[] queries;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		long base = new DateTime(2013, 1, 1).getTime();
+		starts = new DateTime[COUNT];
+		ends = new DateTime[COUNT];
+		IntervalIndex.Builder builder = IntervalIndex.builder();
+		for (int i = 0; i < COUNT; i++) {
+			// 一年内, 长度为1到4小时
+			long start = base + (long) (random.nextDouble() * 365
+					* DateTime.MILLISECONDS_PER_DAY);
+			long end = start + (1 + random.nextInt(4))
+					* DateTime.MILLISECONDS_PER_HOUR;
+			starts[i] = new DateTime(start);
+			ends[i] = new DateTime(end);
+			builder.add(start, end);
+		}
+		index = builder.build();
+		queries = new long[1024];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = base + (long) (random.nextDouble() * 365
+					* DateTime.MILLISECONDS_PER_DAY);
+		}
+	}
+
+	@Benchmark
+	public int countIndex() {
+		long time = query();
+		return index.countOverlapping(time, time + 1);
+	}
+
+	@Benchmark
+	public int[] containingIndex() {
+		return index.containing(query());
+	}
+
+	@Benchmark
+	public int countScan() {
+		DateTime time = new DateTime(query());
+		int count = 0;
+		for (int i = 0; i < COUNT; i++) {
+			if (!time.before(starts[i]) && time.before(ends[i])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private long query() {
+		return queries[next++ & 1023];
+	}
+}
@@ -0,0 +1,140 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimePattern;
+import com.darrenfang.datetime.ParseResult;
+
+/**
+ * 解析固定宽度格式: 逐字符解析与DateUtils.parseDate对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseBenchmark {
+
+	private String dateTime = "2013-01-02 03:04:05";
+
+	private String date = "2013-01-02";
+
+	private String invalid = "2013-01-02 03:04:0x";
+
+	/**
+	 * 与格式完全不匹配的行, 失败时应与成功时一样不产生对象
+	 */
+	private String garbage = "GET /index.html HTTP/1.1 200";
+
+	private TimeZone zone = TimeZone.getTimeZone("Asia/Shanghai");
+
+	private byte[] garbageBytes;
+
+	private ParseResult result = new ParseResult();
+
+	private DateTimePattern pattern = DateTimePattern
+			.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+
+	private byte[] bytes;
+
+	private ByteBuffer direct;
+
+	@Setup
+	public void setUp() throws UnsupportedEncodingException {
+		bytes = dateTime.getBytes("US-ASCII");
+		direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes);
+		garbageBytes = garbage.getBytes("US-ASCII");
+	}
+
+	@Benchmark
+	public DateTime parseDefaultFormat() throws ParseException {
+		return DateTime.parse(dateTime);
+	}
+
+	@Benchmark
+	public long parseDefaultFormatMillis() throws ParseException {
+		return DateTimePattern.compile(DateTime.DEFAULT_DATETIME_FORMAT).parse(
+				dateTime);
+	}
+
+	@Benchmark
+	public long parseDefaultFormatDateUtils() throws ParseException {
+		return DateUtils.parseDate(dateTime, DateTime.DEFAULT_DATETIME_FORMAT)
+				.getTime();
+	}
+
+	@Benchmark
+	public boolean parseBytes() {
+		return pattern.parse(bytes, 0, bytes.length, result);
+	}
+
+	@Benchmark
+	public boolean parseDirectBuffer() {
+		return pattern.parse(direct, 0, bytes.length, result);
+	}
+
+	@Benchmark
+	public long parseNewString() throws ParseException,
+			UnsupportedEncodingException {
+		return pattern.parse(new String(bytes, "US-ASCII"));
+	}
+
+	@Benchmark
+	public DateTime parseDate() throws ParseException {
+		return DateTime.parse(date, "yyyy-MM-dd");
+	}
+
+	@Benchmark
+	public long parseDateDateUtils() throws ParseException {
+		return DateUtils.parseDate(date, "yyyy-MM-dd").getTime();
+	}
+
+	@Benchmark
+	public DateTime tryParseValid() {
+		return DateTime.tryParse(dateTime, null);
+	}
+
+	@Benchmark
+	public DateTime tryParseInvalid() {
+		return DateTime.tryParse(invalid, null);
+	}
+
+	@Benchmark
+	public boolean parseInvalidResult() {
+		return DateTime.parse(invalid, null, result);
+	}
+
+	@Benchmark
+	public boolean parseValidZone() {
+		return pattern.parse(dateTime, 0, dateTime.length(), zone, result);
+	}
+
+	@Benchmark
+	public boolean parseGarbageZone() {
+		return pattern.parse(garbage, 0, garbage.length(), zone, result);
+	}
+
+	@Benchmark
+	public boolean parseGarbageBytes() {
+		return pattern.parse(garbageBytes, 0, garbageBytes.length, result);
+	}
+}
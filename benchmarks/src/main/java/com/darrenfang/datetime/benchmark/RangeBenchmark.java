@@ -0,0 +1,67 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTimeRange;
+import com.darrenfang.datetime.LongIterator;
+
+/**
+ * 遍历一年中的每一天: DateTimeRange与复制DateTime后循环addDays(1)对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RangeBenchmark {
+
+	private final DateTime start = new DateTime(2013, 1, 1);
+
+	private final DateTime end = new DateTime(2014, 1, 1);
+
+	private final DateTimeRange range = new DateTimeRange(start, end);
+
+	@Benchmark
+	public long rangeDays() {
+		long sum = 0;
+		LongIterator days = range.iterator(Unit.DAY);
+		while (days.hasNext()) {
+			sum += days.next();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long rangeBoundaries() {
+		long sum = 0;
+		LongIterator days = range.boundaries(Unit.DAY);
+		while (days.hasNext()) {
+			sum += days.next();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long addDays() {
+		long sum = 0;
+		DateTime day = new DateTime(start.getTime());
+		while (day.compareTo(end) < 0) {
+			sum += day.getTime();
+			day.addDays(1);
+		}
+		return sum;
+	}
+}
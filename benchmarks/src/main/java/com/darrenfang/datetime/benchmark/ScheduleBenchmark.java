@@ -0,0 +1,89 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Weekday;
+import com.darrenfang.datetime.LongIterator;
+import com.darrenfang.datetime.Schedule;
+
+/**
+ * 工作日9:30和每月第2个星期二的之后10次执行时间: Schedule与逐分钟addMinutes(1)检查对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScheduleBenchmark {
+
+	private static final int N = 10;
+
+	private final Schedule weekdays = Schedule.parse("30 9 * * MON-FRI");
+
+	private final Schedule secondTuesday = Schedule.parse("0 10 * * TUE#2");
+
+	private final long start = new DateTime(2013, 9, 27, 15, 30, 0, 0)
+			.getTime();
+
+	@Benchmark
+	public long weekdays() {
+		return sum(weekdays.iterator(start));
+	}
+
+	@Benchmark
+	public long weekdaysScan() {
+		DateTime t = new DateTime(start);
+		long sum = 0;
+		for (int n = 0; n < N;) {
+			t.addMinutes(1);
+			Weekday weekday = t.getWeekday();
+			if (t.getHour() == 9 && t.getMinute() == 30
+					&& weekday != Weekday.SATURDAY && weekday != Weekday.SUNDAY) {
+				sum += t.getTime();
+				n++;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long secondTuesday() {
+		return sum(secondTuesday.iterator(start));
+	}
+
+	@Benchmark
+	public long secondTuesdayScan() {
+		DateTime t = new DateTime(start);
+		long sum = 0;
+		for (int n = 0; n < N;) {
+			t.addMinutes(1);
+			if (t.getHour() == 10 && t.getMinute() == 0
+					&& t.getWeekday() == Weekday.TUESDAY
+					&& (t.getDay() - 1) / 7 == 1) {
+				sum += t.getTime();
+				n++;
+			}
+		}
+		return sum;
+	}
+
+	private static long sum(LongIterator it) {
+		long sum = 0;
+		for (int n = 0; n < N; n++) {
+			sum += it.next();
+		}
+		return sum;
+	}
+}
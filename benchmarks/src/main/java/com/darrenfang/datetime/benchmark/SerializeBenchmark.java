@@ -0,0 +1,106 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+
+/**
+ * Java序列化: DateTime的紧凑形式与早期版本写入的GregorianCalendar对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializeBenchmark {
+
+	private DateTime dateTime;
+
+	private DateTime zoned;
+
+	private Calendar calendar;
+
+	private byte[] dateTimeBytes;
+
+	private byte[] calendarBytes;
+
+	@Setup
+	public void setUp() throws IOException {
+		dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+		zoned = new DateTime(2013, 1, 2, 3, 4, 5, 6,
+				TimeZone.getTimeZone("America/New_York"));
+		calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(dateTime.getTime());
+		dateTimeBytes = serialize(dateTime);
+		calendarBytes = serialize(calendar);
+		System.out.println("\nDateTime: " + dateTimeBytes.length
+				+ " bytes, DateTime(America/New_York): "
+				+ serialize(zoned).length + " bytes, GregorianCalendar: "
+				+ calendarBytes.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] serializeDateTime() throws IOException {
+		return serialize(dateTime);
+	}
+
+	@Benchmark
+	public byte[] serializeZonedDateTime() throws IOException {
+		return serialize(zoned);
+	}
+
+	@Benchmark
+	public byte[] serializeCalendar() throws IOException {
+		return serialize(calendar);
+	}
+
+	@Benchmark
+	public Object deserializeDateTime() throws IOException,
+			ClassNotFoundException {
+		return deserialize(dateTimeBytes);
+	}
+
+	@Benchmark
+	public Object deserializeCalendar() throws IOException,
+			ClassNotFoundException {
+		return deserialize(calendarBytes);
+	}
+
+	private static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	private static Object deserialize(byte[] bytes) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes));
+		try {
+			return in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+
+/**
+ * 排序: DateTime.sort与Arrays.sort(Comparator)对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+	@Param({ "100000", "1000000" })
+	private int size;
+
+	private DateTime[] source;
+
+	private DateTime[] work;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		source = new DateTime[size];
+		for (int i = 0; i < size; i++) {
+			source[i] = new DateTime(random.nextLong() >> 20);
+		}
+		work = new DateTime[size];
+	}
+
+	@Setup(Level.Invocation)
+	public void shuffle() {
+		System.arraycopy(source, 0, work, 0, size);
+	}
+
+	@Benchmark
+	public DateTime[] sort() {
+		DateTime.sort(work);
+		return work;
+	}
+
+	@Benchmark
+	public DateTime[] sortComparator() {
+		Arrays.sort(work, source[0]);
+		return work;
+	}
+}
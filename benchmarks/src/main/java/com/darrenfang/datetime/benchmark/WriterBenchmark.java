@@ -0,0 +1,77 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTimePattern;
+import com.darrenfang.datetime.DateTimeWriter;
+
+/**
+ * 批量导出: DateTimeWriter与逐行DateTime.format后写入对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WriterBenchmark {
+
+	private static final int ROWS = 100000;
+
+	private long[] timestamps = new long[ROWS];
+
+	private DateTimeWriter writer = new DateTimeWriter(
+			DateTimePattern.compile(DateTime.DEFAULT_DATETIME_FORMAT));
+
+	/**
+	 * 丢弃写入的数据, 只计算格式化和复制的开销
+	 */
+	private OutputStream out = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	@Setup
+	public void setUp() {
+		long start = new DateTime(2013, 1, 1).getTime();
+		for (int i = 0; i < ROWS; i++) {
+			timestamps[i] = start + i * 997L;
+		}
+	}
+
+	@Benchmark
+	public OutputStream writeBulk() throws IOException {
+		writer.write(timestamps, 0, ROWS, out);
+		return out;
+	}
+
+	@Benchmark
+	public OutputStream writePerRow() throws IOException {
+		for (int i = 0; i < ROWS; i++) {
+			if (i > 0) {
+				out.write('\n');
+			}
+			out.write(DateTime.format(timestamps[i]).getBytes("US-ASCII"));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,75 @@
+package com.darrenfang.datetime.benchmark;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.darrenfang.datetime.DateTime;
+import com.darrenfang.datetime.DateTime.Unit;
+
+/**
+ * 指定时区时当地时间与时间戳的换算: 时区偏移缓存与Calendar对比
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ZoneBenchmark {
+
+	@Param({ "Asia/Shanghai", "America/New_York", "Australia/Lord_Howe" })
+	public String zoneId;
+
+	private TimeZone zone;
+
+	private Calendar calendar;
+
+	private DateTime dateTime;
+
+	private int day;
+
+	@Setup
+	public void setUp() {
+		zone = TimeZone.getTimeZone(zoneId);
+		calendar = Calendar.getInstance(zone);
+		dateTime = new DateTime(2013, 3, 10, 3, 4, 5, 6, zone);
+	}
+
+	@Benchmark
+	public long constructCalendar() {
+		day = day % 28 + 1;
+		calendar.clear();
+		calendar.set(2013, 2, day, 3, 4, 5);
+		calendar.set(Calendar.MILLISECOND, 6);
+		return calendar.getTimeInMillis();
+	}
+
+	@Benchmark
+	public DateTime construct() {
+		day = day % 28 + 1;
+		return new DateTime(2013, 3, day, 3, 4, 5, 6, zone);
+	}
+
+	@Benchmark
+	public int getHour() {
+		return dateTime.getHour();
+	}
+
+	@Benchmark
+	public DateTime truncateToDay() {
+		return dateTime.truncateTo(Unit.DAY);
+	}
+}
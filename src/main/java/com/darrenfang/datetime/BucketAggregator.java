@@ -0,0 +1,228 @@
+package com.darrenfang.datetime;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按TimeBucket汇总事件的个数和数值之和, 线程安全且无锁<br>
+ * 只保留最近windows个桶, 组成环形数组: 桶序号对windows取模得到位置,
+ * 记录到更新的桶时替换该位置上的旧桶, 早于保留范围的事件被丢弃。<br>
+ * 每个桶的计数分成若干条带, 按线程选择条带, 条带之间间隔一个缓存行,
+ * 多个线程同时记录时互不竞争 (与LongAdder相同的思路); 读取时累加所有条带。
+ * 读取正在记录的桶得到的是近似值, 桶不再记录后是准确值。
+ */
+public final class BucketAggregator {
+
+	/**
+	 * 每个条带占8个long (64字节), 其中第一个为个数, 第二个为和
+	 */
+	private static final int STRIPE_LONGS = 8;
+
+	private static final int MAX_STRIPES = 64;
+
+	private final TimeBucket bucket;
+
+	private final int windows;
+
+	private final int stripeMask;
+
+	private final AtomicReferenceArray<Window> ring;
+
+	/**
+	 * 已记录的最新桶序号, 只在替换桶时更新
+	 */
+	private final AtomicLong latest = new AtomicLong(Long.MIN_VALUE);
+
+	/**
+	 * 条带数按CPU个数选择
+	 *
+	 * @param bucket
+	 * @param windows
+	 *            保留的桶数
+	 */
+	public BucketAggregator(TimeBucket bucket, int windows) {
+		this(bucket, windows, Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * @param bucket
+	 * @param windows
+	 *            保留的桶数
+	 * @param stripes
+	 *            每个桶的条带数, 向上取为2的幂, 最多64
+	 */
+	public BucketAggregator(TimeBucket bucket, int windows, int stripes) {
+		if (bucket == null) {
+			throw new NullPointerException("bucket");
+		}
+		if (windows <= 0) {
+			throw new IllegalArgumentException("windows: " + windows);
+		}
+		if (stripes <= 0) {
+			throw new IllegalArgumentException("stripes: " + stripes);
+		}
+		this.bucket = bucket;
+		this.windows = windows;
+		int n = 1;
+		while (n < stripes && n < MAX_STRIPES) {
+			n <<= 1;
+		}
+		this.stripeMask = n - 1;
+		this.ring = new AtomicReferenceArray<Window>(windows);
+	}
+
+	/**
+	 * 记录一个事件, 个数加1
+	 *
+	 * @param millis
+	 * @return 事件早于保留范围而被丢弃时返回false
+	 */
+	public boolean record(long millis) {
+		return record(millis, 1, 0);
+	}
+
+	/**
+	 * 记录一个事件, 个数加1, 和加value
+	 *
+	 * @param millis
+	 * @param value
+	 * @return 事件早于保留范围而被丢弃时返回false
+	 */
+	public boolean record(long millis, long value) {
+		return record(millis, 1, value);
+	}
+
+	/**
+	 * 记录一个事件, 个数加1, 和加value
+	 *
+	 * @param dateTime
+	 * @param value
+	 * @return 事件早于保留范围而被丢弃时返回false
+	 */
+	public boolean record(DateTime dateTime, long value) {
+		return record(dateTime.getTime(), 1, value);
+	}
+
+	/**
+	 * 获取桶中事件的个数, 桶不在保留范围内时返回0
+	 *
+	 * @param index
+	 *            桶序号
+	 * @return
+	 */
+	public long getCount(long index) {
+		return sum(index, 0);
+	}
+
+	/**
+	 * 获取桶中事件数值之和, 桶不在保留范围内时返回0
+	 *
+	 * @param index
+	 *            桶序号
+	 * @return
+	 */
+	public long getSum(long index) {
+		return sum(index, 1);
+	}
+
+	/**
+	 * 获取已记录的最新桶序号, 保留的桶为(getLatest() - windows, getLatest()]
+	 *
+	 * @return 还没有记录时返回Long.MIN_VALUE
+	 */
+	public long getLatest() {
+		return latest.get();
+	}
+
+	public TimeBucket getBucket() {
+		return bucket;
+	}
+
+	/**
+	 * 保留的桶数
+	 *
+	 * @return
+	 */
+	public int getWindows() {
+		return windows;
+	}
+
+	private boolean record(long millis, long count, long value) {
+		long index = bucket.index(millis);
+		int slot = (int) Gregorian.floorMod(index, windows);
+		Window window = ring.get(slot);
+		while (window == null || window.index != index) {
+			if (window != null && window.index > index || expired(index)) {
+				return false;
+			}
+			Window created = new Window(index, stripeMask + 1);
+			if (ring.compareAndSet(slot, window, created)) {
+				advanceLatest(index);
+				window = created;
+			} else {
+				window = ring.get(slot);
+			}
+		}
+		int stripe = stripe() * STRIPE_LONGS;
+		window.cells.getAndAdd(stripe, count);
+		if (value != 0) {
+			window.cells.getAndAdd(stripe + 1, value);
+		}
+		// 读取到window之后该位置可能已被更新的桶替换, 加到了被淘汰的桶上,
+		// 替换只会换成更新的桶, 所以这个事件已经早于保留范围
+		return ring.get(slot) == window;
+	}
+
+	private long sum(long index, int offset) {
+		Window window = ring.get((int) Gregorian.floorMod(index, windows));
+		if (window == null || window.index != index) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = offset; i < window.cells.length(); i += STRIPE_LONGS) {
+			sum += window.cells.get(i);
+		}
+		return sum;
+	}
+
+	/**
+	 * 是否早于保留范围, 避免落后的线程把已淘汰的桶重新放回环形数组
+	 */
+	private boolean expired(long index) {
+		long current = latest.get();
+		return current != Long.MIN_VALUE && index <= current - windows;
+	}
+
+	private void advanceLatest(long index) {
+		long current;
+		while ((current = latest.get()) < index) {
+			if (latest.compareAndSet(current, index)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 按线程ID选择条带
+	 */
+	private int stripe() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+	}
+
+	/**
+	 * 环形数组中的一个桶
+	 */
+	private static final class Window {
+		final long index;
+
+		final AtomicLongArray cells;
+
+		Window(long index, int stripes) {
+			this.index = index;
+			this.cells = new AtomicLongArray(stripes * STRIPE_LONGS);
+		}
+	}
+
+}
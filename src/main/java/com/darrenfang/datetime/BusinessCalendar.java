@@ -0,0 +1,363 @@
+package com.darrenfang.datetime;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.TimeZone;
+
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 工作日日历, 由周末和节假日 (以及周末调休上班的日期) 构建。不可变, 线程安全<br>
+ * 覆盖范围内的每一天用一个二进制位表示是否为工作日, 每64天记录此前的工作日个数,
+ * 判断工作日, 计算两个日期之间的工作日个数和加减n个工作日都是常数时间, 不逐日循环。<br>
+ * 日期为DateTime在其时区的当地日期, 按公历计算。超出覆盖范围时抛出IllegalArgumentException。
+ */
+public final class BusinessCalendar {
+
+	/**
+	 * 每隔64个工作日记录所在的字
+	 */
+	private static final int SELECT_SHIFT = 6;
+
+	/**
+	 * 覆盖范围的第一天 (1970-01-01起的天数)
+	 */
+	private final long firstDay;
+
+	/**
+	 * 覆盖的天数
+	 */
+	private final int days;
+
+	/**
+	 * 每一位表示一天是否为工作日, 第i天在words[i / 64]的第i % 64位
+	 */
+	private final long[] words;
+
+	/**
+	 * words[w]之前的工作日个数, 最后一项为工作日总数
+	 */
+	private final int[] ranks;
+
+	/**
+	 * 第j * 64个工作日所在的字
+	 */
+	private final int[] selects;
+
+	private BusinessCalendar(long firstDay, int days, long[] words) {
+		this.firstDay = firstDay;
+		this.days = days;
+		this.words = words;
+		this.ranks = new int[words.length + 1];
+		for (int w = 0; w < words.length; w++) {
+			ranks[w + 1] = ranks[w] + Long.bitCount(words[w]);
+		}
+		int total = ranks[words.length];
+		this.selects = new int[(total >>> SELECT_SHIFT) + 1];
+		int w = 0;
+		for (int j = 0; j < selects.length; j++) {
+			int rank = j << SELECT_SHIFT;
+			while (w < words.length - 1 && ranks[w + 1] <= rank) {
+				w++;
+			}
+			selects[j] = w;
+		}
+	}
+
+	/**
+	 * 创建Builder, 默认周末为星期六和星期日, 覆盖1900年到2100年
+	 *
+	 * @return
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * 是否为工作日
+	 *
+	 * @param year
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 * @return
+	 */
+	public boolean isBusinessDay(int year, int month, int day) {
+		return isBusinessDay(Gregorian.toEpochDay(year, month, day));
+	}
+
+	/**
+	 * dateTime的当地日期是否为工作日
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public boolean isBusinessDay(DateTime dateTime) {
+		return isBusinessDay(epochDay(dateTime));
+	}
+
+	/**
+	 * 加上n个工作日, 一天中的时间不变<br>
+	 * n大于0时为之后的第n个工作日 (星期五T+1为下星期一, 星期六T+1也是下星期一),
+	 * 小于0时为之前的第-n个工作日, 为0时与dateTime相同
+	 *
+	 * @param dateTime
+	 * @param n
+	 * @return 新的DateTime对象, 时区与dateTime相同
+	 */
+	public DateTime addBusinessDays(DateTime dateTime, int n) {
+		long millis = dateTime.getTime();
+		TimeZone zone = dateTime.getZone();
+		long local = millis + ZoneOffsets.of(zone).getOffset(millis);
+		long day = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		long target = addBusinessDays(day, n);
+		if (target == day) {
+			return dateTime.derive(millis);
+		}
+		return dateTime.derive(DateTime.localToInstant(local + (target - day)
+				* DateTime.MILLISECONDS_PER_DAY, zone));
+	}
+
+	/**
+	 * 计算[start, end)的当地日期中的工作日个数, 只比较日期, 不考虑一天中的时间
+	 *
+	 * @param start
+	 * @param end
+	 * @return end的日期早于start时为负数
+	 */
+	public int businessDaysBetween(DateTime start, DateTime end) {
+		return rank(epochDay(end)) - rank(epochDay(start));
+	}
+
+	/**
+	 * 计算[start, end)中的工作日个数
+	 *
+	 * @param startYear
+	 * @param startMonth
+	 * @param startDay
+	 * @param endYear
+	 * @param endMonth
+	 * @param endDay
+	 * @return end早于start时为负数
+	 */
+	public int businessDaysBetween(int startYear, int startMonth, int startDay,
+			int endYear, int endMonth, int endDay) {
+		return rank(Gregorian.toEpochDay(endYear, endMonth, endDay))
+				- rank(Gregorian.toEpochDay(startYear, startMonth, startDay));
+	}
+
+	private boolean isBusinessDay(long epochDay) {
+		int i = index(epochDay, days - 1);
+		return (words[i >>> 6] & 1L << i) != 0;
+	}
+
+	private long addBusinessDays(long epochDay, int n) {
+		if (n == 0) {
+			return epochDay;
+		}
+		long rank = rank(epochDay);
+		if (n > 0) {
+			// 此日之前(含)的工作日个数加n, 再减1得到目标的序号
+			rank += (isBusinessDay(epochDay) ? 1 : 0) + n - 1;
+		} else {
+			rank += n;
+		}
+		if (rank < 0 || rank >= ranks[words.length]) {
+			throw new IllegalArgumentException("result of adding " + n
+					+ " business days is out of calendar range");
+		}
+		return firstDay + select((int) rank);
+	}
+
+	/**
+	 * 此日之前的工作日个数
+	 */
+	private int rank(long epochDay) {
+		int i = index(epochDay, days);
+		if (i == days) {
+			return ranks[words.length];
+		}
+		int w = i >>> 6;
+		return ranks[w] + Long.bitCount(words[w] & ((1L << i) - 1));
+	}
+
+	/**
+	 * 第rank个工作日 (从0开始) 在覆盖范围中的下标
+	 */
+	private int select(int rank) {
+		int w = selects[rank >>> SELECT_SHIFT];
+		while (ranks[w + 1] <= rank) {
+			w++;
+		}
+		long word = words[w];
+		for (int r = rank - ranks[w]; r > 0; r--) {
+			word &= word - 1;
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * 在覆盖范围中的下标
+	 *
+	 * @param max
+	 *            允许的最大下标, 计算个数时允许为days (范围结束的下一天)
+	 */
+	private int index(long epochDay, int max) {
+		long i = epochDay - firstDay;
+		if (i < 0 || i > max) {
+			throw new IllegalArgumentException("date out of calendar range: "
+					+ Gregorian.year(epochDay) + "-"
+					+ Gregorian.month(epochDay) + "-"
+					+ Gregorian.day(epochDay));
+		}
+		return (int) i;
+	}
+
+	private static long epochDay(DateTime dateTime) {
+		long millis = dateTime.getTime();
+		return Gregorian.floorDiv(millis
+				+ ZoneOffsets.of(dateTime.getZone()).getOffset(millis),
+				DateTime.MILLISECONDS_PER_DAY);
+	}
+
+	/**
+	 * 收集周末和节假日后构建BusinessCalendar, 非线程安全
+	 */
+	public static final class Builder {
+
+		private EnumSet<Weekday> weekend = EnumSet.of(Weekday.SATURDAY,
+				Weekday.SUNDAY);
+
+		private int fromYear = 1900;
+
+		private int toYear = 2100;
+
+		private final List<Long> holidays = new ArrayList<Long>();
+
+		private final List<Long> workdays = new ArrayList<Long>();
+
+		Builder() {
+		}
+
+		/**
+		 * 设置周末, 替换默认的星期六和星期日
+		 *
+		 * @param weekdays
+		 * @return this
+		 */
+		public Builder weekend(Weekday... weekdays) {
+			weekend = EnumSet.noneOf(Weekday.class);
+			for (Weekday weekday : weekdays) {
+				weekend.add(weekday);
+			}
+			return this;
+		}
+
+		/**
+		 * 设置覆盖的年份
+		 *
+		 * @param fromYear
+		 * @param toYear
+		 *            包含
+		 * @return this
+		 */
+		public Builder range(int fromYear, int toYear) {
+			if (toYear < fromYear || toYear - fromYear >= 10000) {
+				throw new IllegalArgumentException("range: " + fromYear + "-"
+						+ toYear);
+			}
+			this.fromYear = fromYear;
+			this.toYear = toYear;
+			return this;
+		}
+
+		/**
+		 * 加入节假日
+		 *
+		 * @param year
+		 * @param month
+		 *            月份 (1月为1)
+		 * @param day
+		 * @return this
+		 */
+		public Builder holiday(int year, int month, int day) {
+			holidays.add(Gregorian.toEpochDay(year, month, day));
+			return this;
+		}
+
+		/**
+		 * 加入节假日, 为dateTime的当地日期
+		 *
+		 * @param dateTime
+		 * @return this
+		 */
+		public Builder holiday(DateTime dateTime) {
+			holidays.add(epochDay(dateTime));
+			return this;
+		}
+
+		/**
+		 * 加入在周末上班的日期 (调休), 优先于周末和节假日
+		 *
+		 * @param year
+		 * @param month
+		 *            月份 (1月为1)
+		 * @param day
+		 * @return this
+		 */
+		public Builder workday(int year, int month, int day) {
+			workdays.add(Gregorian.toEpochDay(year, month, day));
+			return this;
+		}
+
+		/**
+		 * 构建BusinessCalendar, 之后Builder可以继续使用
+		 *
+		 * @return
+		 * @throws IllegalArgumentException
+		 *             节假日或调休日期超出覆盖范围时
+		 */
+		public BusinessCalendar build() {
+			long first = Gregorian.toEpochDay(fromYear, 1, 1);
+			int days = (int) (Gregorian.toEpochDay(toYear + 1, 1, 1) - first);
+			long[] words = new long[(days + 63) >>> 6];
+			boolean[] businessWeekdays = new boolean[7];
+			for (Weekday weekday : Weekday.values()) {
+				businessWeekdays[weekday.getNo()] = !weekend.contains(weekday);
+			}
+			// 星期按7天循环
+			int weekday = Gregorian.dayOfWeek(first) - 1;
+			for (int i = 0; i < days; i++) {
+				if (businessWeekdays[weekday]) {
+					words[i >>> 6] |= 1L << i;
+				}
+				if (++weekday == 7) {
+					weekday = 0;
+				}
+			}
+			for (long holiday : holidays) {
+				int i = checkIndex(holiday, first, days);
+				words[i >>> 6] &= ~(1L << i);
+			}
+			for (long workday : workdays) {
+				int i = checkIndex(workday, first, days);
+				words[i >>> 6] |= 1L << i;
+			}
+			return new BusinessCalendar(first, days, words);
+		}
+
+		private static int checkIndex(long epochDay, long first, int days) {
+			long i = epochDay - first;
+			if (i < 0 || i >= days) {
+				throw new IllegalArgumentException(
+						"date out of calendar range: "
+								+ Gregorian.year(epochDay) + "-"
+								+ Gregorian.month(epochDay) + "-"
+								+ Gregorian.day(epochDay));
+			}
+			return (int) i;
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.darrenfang.datetime;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 由后台线程按固定间隔更新的时钟, 线程安全<br>
+ * nowMillis()只读取一个volatile字段, 精度为更新间隔; nowImmutable()在两次更新之间返回同一个对象。
+ * 适合为大量记录打时间戳等对精度要求不高的场合。不再使用时调用close()停止后台线程。<br>
+ * 时间来源抛出异常时后台线程继续运行, 在下次成功更新前每次调用都直接读取时间来源, 异常抛给调用者。
+ */
+public final class CachedClock extends Clock implements Closeable {
+
+	private final Clock source;
+
+	private final long resolutionNanos;
+
+	private final ScheduledExecutorService ticker;
+
+	private volatile long millis;
+
+	private volatile ImmutableDateTime current;
+
+	/**
+	 * 后台线程最近一次更新是否失败, 为true时直接读取时间来源
+	 */
+	private volatile boolean failed;
+
+	/**
+	 * 按系统时钟创建, 每resolution更新一次
+	 *
+	 * @param resolution
+	 *            更新间隔
+	 * @param unit
+	 */
+	public CachedClock(long resolution, TimeUnit unit) {
+		this(Clock.SYSTEM, resolution, unit);
+	}
+
+	/**
+	 * 每resolution从source读取一次时间
+	 *
+	 * @param source
+	 *            时间来源
+	 * @param resolution
+	 *            更新间隔, 大于0
+	 * @param unit
+	 */
+	public CachedClock(Clock source, long resolution, TimeUnit unit) {
+		if (source == null) {
+			throw new NullPointerException("source");
+		}
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("resolution: " + resolution);
+		}
+		this.source = source;
+		this.resolutionNanos = unit.toNanos(resolution);
+		tick();
+		ticker = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "CachedClock-ticker");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		ticker.scheduleAtFixedRate(new Runnable() {
+			public void run() {
+				// 任务抛出异常后ScheduledExecutorService不再执行, 这里不能让异常传出
+				try {
+					tick();
+					failed = false;
+				} catch (RuntimeException e) {
+					failed = true;
+				}
+			}
+		}, resolutionNanos, resolutionNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 获取最近一次更新的时间戳
+	 */
+	@Override
+	public long nowMillis() {
+		if (failed) {
+			recover();
+		}
+		return millis;
+	}
+
+	/**
+	 * 获取最近一次更新的时间, 两次更新之间返回同一个对象
+	 */
+	@Override
+	public ImmutableDateTime nowImmutable() {
+		if (failed) {
+			recover();
+		}
+		return current;
+	}
+
+	/**
+	 * 获取更新间隔
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public long getResolution(TimeUnit unit) {
+		return unit.convert(resolutionNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 立即从时间来源读取时间
+	 */
+	void tick() {
+		long now = source.nowMillis();
+		ImmutableDateTime value = current;
+		if (value == null || value.getTime() != now) {
+			current = new ImmutableDateTime(now);
+		}
+		millis = now;
+	}
+
+	/**
+	 * 后台线程更新失败后直接读取时间来源, 成功后恢复读取缓存的时间
+	 */
+	private void recover() {
+		tick();
+		failed = false;
+	}
+
+	/**
+	 * 停止后台线程, 之后时间不再更新
+	 */
+	public void close() {
+		ticker.shutdownNow();
+	}
+
+	@Override
+	public String toString() {
+		return "CachedClock(" + source + ", " + resolutionNanos + "ns)";
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.darrenfang.datetime;
+
+/**
+ * 当前时间的来源<br>
+ * 默认为系统时钟; 测试和基准测试可以使用固定时间或继承本类模拟时间的流逝, 高频调用时可使用CachedClock。
+ */
+public abstract class Clock {
+
+	/**
+	 * 系统时钟, 即System.currentTimeMillis()
+	 */
+	public static final Clock SYSTEM = new Clock() {
+		@Override
+		public long nowMillis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public String toString() {
+			return "Clock.SYSTEM";
+		}
+	};
+
+	/**
+	 * 获取当前时间戳, 不创建对象
+	 *
+	 * @return 自1970-01-01 00:00:00 GMT起的毫秒数
+	 */
+	public abstract long nowMillis();
+
+	/**
+	 * 根据当前时间创建DateTime对象
+	 *
+	 * @return
+	 */
+	public DateTime now() {
+		return new DateTime(nowMillis());
+	}
+
+	/**
+	 * 把当前时间设置到reuse中, 不创建对象
+	 *
+	 * @param reuse
+	 * @return reuse
+	 */
+	public DateTime now(DateTime reuse) {
+		return reuse.setTime(nowMillis());
+	}
+
+	/**
+	 * 根据当前时间获取ImmutableDateTime对象
+	 *
+	 * @return
+	 */
+	public ImmutableDateTime nowImmutable() {
+		return new ImmutableDateTime(nowMillis());
+	}
+
+	/**
+	 * 始终返回同一时间的时钟
+	 *
+	 * @param millis
+	 * @return
+	 */
+	public static Clock fixed(final long millis) {
+		return new Clock() {
+			@Override
+			public long nowMillis() {
+				return millis;
+			}
+
+			@Override
+			public String toString() {
+				return "Clock.fixed(" + millis + ")";
+			}
+		};
+	}
+
+}
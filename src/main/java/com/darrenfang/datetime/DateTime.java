@@ -1,14 +1,20 @@
 package com.darrenfang.datetime;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.text.ParseException;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
-import org.apache.commons.lang3.time.DateUtils;
 
 public final class DateTime implements Serializable, Comparable<DateTime>,
 		Comparator<DateTime> {
@@ -29,10 +35,17 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 
 	}
 
+	/**
+	 * 时间单位, 用于截断, 进位和四舍五入
+	 */
+	public enum Unit {
+		MILLISECOND, SECOND, MINUTE, HOUR, DAY, WEEK, MONTH, YEAR
+	}
+
 	private static final long serialVersionUID = -8984010892578112458L;
 
 	/**
-	 * 标准GTM时间(1970-01-01 00:00:00)
+	 * 标准GTM时间(1970-01-01 00:00:00), 只读, 修改时抛出UnsupportedOperationException
 	 */
 	public static final DateTime STANDARD_GTM_TIME = new DateTime(0);
 
@@ -86,15 +99,73 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	public static final long MILLISECONDS_PER_SECOND = 1000;
 
 	/**
-	 * Calendar Instance
+	 * 早期版本的序列化字段 (Calendar _c), 只用于读取早期版本写入的数据; 现在写入Ser
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField(
+			"_c", Calendar.class) };
+
+	/**
+	 * 计算字段时使用的Calendar, 每个线程一个
+	 */
+	private static final ThreadLocal<Calendar> CALENDAR = new ThreadLocal<Calendar>() {
+		@Override
+		protected Calendar initialValue() {
+			return Calendar.getInstance();
+		}
+	};
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	/**
+	 * Weekday.values()每次返回新数组, 按星期日为1的序号取值时使用此副本
+	 */
+	private static final Weekday[] WEEKDAYS = Weekday.values();
+
+	/**
+	 * 最近一次读取的系统默认时区
+	 */
+	private static volatile TimeZone defaultZone;
+
+	/**
+	 * _pending的下标
+	 */
+	private static final int YEAR = 0;
+
+	private static final int MONTH = 1;
+
+	private static final int DAY = 2;
+
+	private static final int HOUR = 3;
+
+	private static final int MINUTE = 4;
+
+	private static final int SECOND = 5;
+
+	private static final int MILLISECOND = 6;
+
+	/**
+	 * 时间戳 (自1970-01-01 00:00:00 GMT起的毫秒数)
 	 */
-	private Calendar _c = Calendar.getInstance();
+	private long _millis;
+
+	/**
+	 * 时区, 不为null; 系统默认时区在创建时确定, 之后TimeZone.setDefault不影响本对象
+	 */
+	private TimeZone _zone;
+
+	/**
+	 * 已设置但还没有计算时间戳的当地时间字段 (年, 月, 日, 时, 分, 秒, 毫秒), 没有时为null<br>
+	 * 与早期版本的Calendar一样, 连续设置的字段在下次读取时一起计算,
+	 * 如1月31日setMonth(2).setDay(15)得到2月15日
+	 */
+	private transient int[] _pending;
 
 	/**
 	 * 以当前时间创建DateTime对象
 	 */
 	public DateTime() {
-		_c.setTime(new Date());
+		_millis = System.currentTimeMillis();
+		_zone = defaultZone();
 	}
 
 	/**
@@ -103,7 +174,8 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @param c
 	 */
 	public DateTime(Calendar c) {
-		_c = c;
+		_millis = c.getTimeInMillis();
+		_zone = normalize(c.getTimeZone());
 	}
 
 	/**
@@ -112,7 +184,8 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @param c
 	 */
 	public DateTime(Date date) {
-		_c.setTime(date);
+		_millis = date.getTime();
+		_zone = defaultZone();
 	}
 
 	/**
@@ -121,7 +194,8 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @param c
 	 */
 	public DateTime(java.sql.Date sqlDate) {
-		_c.setTime(sqlDate);
+		_millis = sqlDate.getTime();
+		_zone = defaultZone();
 	}
 
 	/**
@@ -130,7 +204,20 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @param timestamp
 	 */
 	public DateTime(long timestamp) {
-		_c.setTime(new Date(timestamp));
+		_millis = timestamp;
+		_zone = defaultZone();
+	}
+
+	/**
+	 * 根据timestamp创建指定时区的DateTime对象
+	 * 
+	 * @param timestamp
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 */
+	public DateTime(long timestamp, TimeZone zone) {
+		_millis = timestamp;
+		_zone = normalize(zone);
 	}
 
 	/**
@@ -144,13 +231,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 *            日 (此处设置1号时为1)
 	 */
 	public DateTime(int year, int month, int day) {
-		_c.set(Calendar.YEAR, year);
-		_c.set(Calendar.MONTH, month - 1);
-		_c.set(Calendar.DAY_OF_MONTH, day);
-		_c.set(Calendar.HOUR_OF_DAY, 0);
-		_c.set(Calendar.MINUTE, 0);
-		_c.set(Calendar.SECOND, 0);
-		_c.set(Calendar.MILLISECOND, 0);
+		this(year, month, day, 0, 0, 0, 0);
 	}
 
 	/**
@@ -173,13 +254,69 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 */
 	public DateTime(int year, int month, int day, int hour, int minute,
 			int second, int millisecond) {
-		_c.set(Calendar.YEAR, year);
-		_c.set(Calendar.MONTH, month - 1);
-		_c.set(Calendar.DAY_OF_MONTH, day);
-		_c.set(Calendar.HOUR_OF_DAY, hour);
-		_c.set(Calendar.MINUTE, minute);
-		_c.set(Calendar.SECOND, second);
-		_c.set(Calendar.MILLISECOND, millisecond);
+		_zone = defaultZone();
+		_millis = toInstant(year, month, day, hour, minute, second,
+				millisecond, _zone);
+	}
+
+	/**
+	 * 根据指定时区的年, 月, 日创建DateTime对象
+	 * 
+	 * @param year
+	 *            年份
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 *            日 (1号为1)
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 */
+	public DateTime(int year, int month, int day, TimeZone zone) {
+		this(year, month, day, 0, 0, 0, 0, zone);
+	}
+
+	/**
+	 * 根据指定时区的年, 月, 日, 小时, 分钟, 秒, 毫秒创建DateTime对象<br>
+	 * 当地时间因夏令时不存在时向后推移, 重复时取较晚的时刻, 与Calendar一致
+	 * 
+	 * @param year
+	 *            年份
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 *            日 (1号为1)
+	 * @param hour
+	 *            小时
+	 * @param minute
+	 *            分钟
+	 * @param second
+	 *            秒
+	 * @param millisecond
+	 *            毫秒
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 */
+	public DateTime(int year, int month, int day, int hour, int minute,
+			int second, int millisecond, TimeZone zone) {
+		_zone = normalize(zone);
+		_millis = toInstant(year, month, day, hour, minute, second,
+				millisecond, _zone);
+	}
+
+	/**
+	 * 内部使用, zone已经过normalize, 不再复制
+	 */
+	static DateTime create(long timestamp, TimeZone zone) {
+		DateTime dateTime = new DateTime(timestamp);
+		dateTime._zone = zone;
+		return dateTime;
+	}
+
+	/**
+	 * 内部使用, 创建与本对象时区相同的DateTime
+	 */
+	DateTime derive(long timestamp) {
+		return create(timestamp, _zone);
 	}
 
 	/**
@@ -191,28 +328,39 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 		return new DateTime();
 	}
 
+	/**
+	 * 根据clock的当前时间创建DateTime对象
+	 * 
+	 * @param clock
+	 *            时间来源, 如CachedClock或测试用的Clock.fixed
+	 * @return
+	 */
+	public static DateTime now(Clock clock) {
+		return new DateTime(clock.nowMillis());
+	}
+
 	public static String format(Date date) {
-		return DateFormatUtils.format(date, DEFAULT_DATETIME_FORMAT);
+		return format(date.getTime(), DEFAULT_DATETIME_FORMAT);
 	}
 
 	public static String format(Date date, String format) {
-		return DateFormatUtils.format(date, format);
+		return format(date.getTime(), format);
 	}
 
 	public static String format(java.sql.Date date) {
-		return DateFormatUtils.format(date, DEFAULT_DATETIME_FORMAT);
+		return format(date.getTime(), DEFAULT_DATETIME_FORMAT);
 	}
 
 	public static String format(java.sql.Date date, String format) {
-		return DateFormatUtils.format(date, format);
+		return format(date.getTime(), format);
 	}
 
 	public static String format(long millisecond) {
-		return DateFormatUtils.format(millisecond, DEFAULT_DATETIME_FORMAT);
+		return format(millisecond, DEFAULT_DATETIME_FORMAT);
 	}
 
 	public static String format(long millisecond, String format) {
-		return DateFormatUtils.format(millisecond, format);
+		return DateTimePattern.compile(format).format(millisecond);
 	}
 
 	@Override
@@ -227,11 +375,57 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public String toString(String format) {
-		if (_c == null) {
-			return null;
-		}
+		return DateTimePattern.compile(format).format(millis(), getZone());
+	}
+
+	/**
+	 * 根据指定格式格式化时间, 按指定时区的当地时间
+	 * 
+	 * @param format
+	 * @param zone
+	 * @return
+	 */
+	public String toString(String format, TimeZone zone) {
+		return DateTimePattern.compile(format).format(millis(), zone);
+	}
+
+	/**
+	 * 根据指定格式格式化时间, 按指定时区的当地时间
+	 * 
+	 * @param format
+	 * @param zoneId
+	 *            时区ID, 如"America/New_York"
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             不能识别的时区ID
+	 */
+	public String toString(String format, String zoneId) {
+		return toString(format, timeZone(zoneId));
+	}
 
-		return DateFormatUtils.format(_c, format);
+	/**
+	 * 根据指定格式格式化时间, 结果追加到buffer中
+	 * 
+	 * @param buffer
+	 * @param format
+	 * @return buffer
+	 */
+	public StringBuilder appendTo(StringBuilder buffer, String format) {
+		return DateTimePattern.compile(format).format(millis(), getZone(),
+				buffer);
+	}
+
+	/**
+	 * 根据指定格式格式化时间, 结果追加到out中
+	 * 
+	 * @param out
+	 * @param format
+	 * @return out
+	 * @throws IOException
+	 */
+	public Appendable appendTo(Appendable out, String format)
+			throws IOException {
+		return DateTimePattern.compile(format).format(millis(), getZone(), out);
 	}
 
 	/**
@@ -246,9 +440,10 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime set(int year, int month, int day) {
-		this.setYear(year);
-		this.setMonth(month);
-		this.setDay(day);
+		int[] fields = pending();
+		fields[YEAR] = year;
+		fields[MONTH] = month;
+		fields[DAY] = day;
 		return this;
 	}
 
@@ -273,13 +468,14 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 */
 	public DateTime set(int year, int month, int day, int hour, int minute,
 			int second, int millisecond) {
-		this.setYear(year);
-		this.setMonth(month);
-		this.setDay(day);
-		this.setHour(hour);
-		this.setMinute(minute);
-		this.setSecond(second);
-		this.setMilliSecond(millisecond);
+		int[] fields = pending();
+		fields[YEAR] = year;
+		fields[MONTH] = month;
+		fields[DAY] = day;
+		fields[HOUR] = hour;
+		fields[MINUTE] = minute;
+		fields[SECOND] = second;
+		fields[MILLISECOND] = millisecond;
 		return this;
 	}
 
@@ -297,20 +493,32 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime set(int hour, int minute, int second, int millisecond) {
-		this.setHour(hour);
-		this.setMinute(minute);
-		this.setSecond(second);
-		this.setMilliSecond(millisecond);
+		int[] fields = pending();
+		fields[HOUR] = hour;
+		fields[MINUTE] = minute;
+		fields[SECOND] = second;
+		fields[MILLISECOND] = millisecond;
 		return this;
 	}
 
+	/**
+	 * 设置时间戳, 时区不变<br>
+	 * 可用于重复使用同一个对象遍历大量时间
+	 * 
+	 * @param timestamp
+	 * @return
+	 */
+	public DateTime setTime(long timestamp) {
+		return update(timestamp);
+	}
+
 	/**
 	 * 获取当前时间戳
 	 * 
 	 * @return
 	 */
 	public long getTime() {
-		return _c.getTime().getTime();
+		return millis();
 	}
 
 	/**
@@ -319,7 +527,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public Date getDate() {
-		return _c.getTime();
+		return new Date(millis());
 	}
 
 	/**
@@ -328,7 +536,51 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public Date getSqlDate() {
-		return new java.sql.Date(_c.getTime().getTime());
+		return new java.sql.Date(millis());
+	}
+
+	/**
+	 * 转换为不可变的ImmutableDateTime对象
+	 * 
+	 * @return
+	 */
+	public ImmutableDateTime toImmutable() {
+		return new ImmutableDateTime(millis(), _zone);
+	}
+
+	/**
+	 * 获取时区
+	 * 
+	 * @return 时区的副本, 修改不影响本对象
+	 */
+	public TimeZone getTimeZone() {
+		return (TimeZone) getZone().clone();
+	}
+
+	/**
+	 * 设置时区, 时间戳不变, 之后的字段按新时区的当地时间计算
+	 * 
+	 * @param zone
+	 *            为null时为系统默认时区
+	 * @return
+	 */
+	public DateTime setTimeZone(TimeZone zone) {
+		update(millis());
+		_zone = normalize(zone);
+		return this;
+	}
+
+	/**
+	 * 设置时区, 时间戳不变, 之后的字段按新时区的当地时间计算
+	 * 
+	 * @param zoneId
+	 *            时区ID, 如"America/New_York"
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             不能识别的时区ID
+	 */
+	public DateTime setTimeZone(String zoneId) {
+		return setTimeZone(timeZone(zoneId));
 	}
 
 	/**
@@ -337,7 +589,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getYear() {
-		return _c.get(Calendar.YEAR);
+		return get(millis(), getZone(), Calendar.YEAR);
 	}
 
 	/**
@@ -347,8 +599,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setYear(int year) {
-		_c.set(Calendar.YEAR, year);
-		return this;
+		return setField(YEAR, year);
 	}
 
 	/**
@@ -357,7 +608,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getMonth() {
-		return _c.get(Calendar.MONTH) + 1;
+		return get(millis(), getZone(), Calendar.MONTH);
 	}
 
 	/**
@@ -367,8 +618,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setMonth(int month) {
-		_c.set(Calendar.MONTH, month - 1);
-		return this;
+		return setField(MONTH, month);
 	}
 
 	/**
@@ -377,7 +627,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getDay() {
-		return _c.get(Calendar.DAY_OF_MONTH);
+		return get(millis(), getZone(), Calendar.DAY_OF_MONTH);
 	}
 
 	/**
@@ -387,8 +637,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setDay(int day) {
-		_c.set(Calendar.DATE, day);
-		return this;
+		return setField(DAY, day);
 	}
 
 	/**
@@ -397,7 +646,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getHour() {
-		return _c.get(Calendar.HOUR_OF_DAY);
+		return get(millis(), getZone(), Calendar.HOUR_OF_DAY);
 	}
 
 	/**
@@ -407,8 +656,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setHour(int hour) {
-		_c.set(Calendar.HOUR_OF_DAY, hour);
-		return this;
+		return setField(HOUR, hour);
 	}
 
 	/**
@@ -417,7 +665,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getMinute() {
-		return _c.get(Calendar.MINUTE);
+		return get(millis(), getZone(), Calendar.MINUTE);
 	}
 
 	/**
@@ -427,8 +675,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setMinute(int minute) {
-		_c.set(Calendar.MINUTE, minute);
-		return this;
+		return setField(MINUTE, minute);
 	}
 
 	/**
@@ -437,7 +684,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getSecond() {
-		return _c.get(Calendar.SECOND);
+		return get(millis(), getZone(), Calendar.SECOND);
 	}
 
 	/**
@@ -447,8 +694,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setSecond(int second) {
-		_c.set(Calendar.SECOND, second);
-		return this;
+		return setField(SECOND, second);
 	}
 
 	/**
@@ -457,7 +703,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getMilliSecond() {
-		return _c.get(Calendar.MILLISECOND);
+		return get(millis(), getZone(), Calendar.MILLISECOND);
 	}
 
 	/**
@@ -467,8 +713,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime setMilliSecond(int milliSecond) {
-		_c.set(Calendar.MILLISECOND, milliSecond);
-		return this;
+		return setField(MILLISECOND, milliSecond);
 	}
 
 	/**
@@ -477,7 +722,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getDayOfWeek() {
-		return _c.get(Calendar.DAY_OF_WEEK);
+		return get(millis(), getZone(), Calendar.DAY_OF_WEEK);
 	}
 
 	/**
@@ -486,7 +731,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public int getDayOfYear() {
-		return _c.get(Calendar.DAY_OF_YEAR);
+		return get(millis(), getZone(), Calendar.DAY_OF_YEAR);
 	}
 
 	/**
@@ -496,8 +741,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addYears(int years) {
-		_c.add(Calendar.YEAR, years);
-		return this;
+		return addField(Calendar.YEAR, years);
 	}
 
 	/**
@@ -507,8 +751,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addMonths(int months) {
-		_c.add(Calendar.MONTH, months);
-		return this;
+		return addField(Calendar.MONTH, months);
 	}
 
 	/**
@@ -518,8 +761,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addDays(int days) {
-		_c.add(Calendar.DAY_OF_MONTH, days);
-		return this;
+		return addField(Calendar.DAY_OF_MONTH, days);
 	}
 
 	/**
@@ -529,8 +771,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addHours(int hours) {
-		_c.add(Calendar.HOUR, hours);
-		return this;
+		return addField(Calendar.HOUR, hours);
 	}
 
 	/**
@@ -540,8 +781,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addMinutes(int minutes) {
-		_c.add(Calendar.MINUTE, minutes);
-		return this;
+		return addField(Calendar.MINUTE, minutes);
 	}
 
 	/**
@@ -551,8 +791,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addSeconds(int seconds) {
-		_c.add(Calendar.SECOND, seconds);
-		return this;
+		return addField(Calendar.SECOND, seconds);
 	}
 
 	/**
@@ -562,8 +801,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public DateTime addMilliseconds(int milliseconds) {
-		_c.add(Calendar.MILLISECOND, milliseconds);
-		return this;
+		return addField(Calendar.MILLISECOND, milliseconds);
 	}
 
 	/**
@@ -571,7 +809,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * 若大于另一日期, 返回1, 小于返回-1, 相等返回0
 	 */
 	public int compareTo(DateTime other) {
-		return this.getDate().compareTo(other.getDate());
+		return compare(millis(), other.millis());
 	}
 
 	/**
@@ -579,32 +817,81 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * 若大于另一日期, 返回1, 小于返回-1, 相等返回0
 	 */
 	public int compare(DateTime date1, DateTime date2) {
-		return date1.compareTo(date2);
+		return compare(date1.millis(), date2.millis());
+	}
+
+	/**
+	 * 时间戳比较<br>
+	 * 若x大于y, 返回1, 小于返回-1, 相等返回0
+	 * 
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public static int compare(long x, long y) {
+		return x < y ? -1 : (x == y ? 0 : 1);
+	}
+
+	/**
+	 * 按时间戳原地排序 (不稳定, 不分配临时数组)
+	 * 
+	 * @param dateTimes
+	 *            元素不能为null
+	 */
+	public static void sort(DateTime[] dateTimes) {
+		sort(dateTimes, 0, dateTimes.length);
+	}
+
+	/**
+	 * 按时间戳原地排序[fromIndex, toIndex)区间的元素 (不稳定, 不分配临时数组)
+	 * 
+	 * @param dateTimes
+	 *            元素不能为null
+	 * @param fromIndex
+	 * @param toIndex
+	 */
+	public static void sort(DateTime[] dateTimes, int fromIndex, int toIndex) {
+		if (fromIndex < 0 || fromIndex > toIndex || toIndex > dateTimes.length) {
+			throw new ArrayIndexOutOfBoundsException("fromIndex: " + fromIndex
+					+ ", toIndex: " + toIndex);
+		}
+		DateTimeSort.sort(Arrays.asList(dateTimes), fromIndex, toIndex);
+	}
+
+	/**
+	 * 按时间戳原地排序 (不稳定)<br>
+	 * 不支持随机访问的list (如LinkedList) 会先复制到数组中排序
+	 * 
+	 * @param dateTimes
+	 *            元素不能为null
+	 */
+	public static void sort(List<DateTime> dateTimes) {
+		DateTimeSort.sort(dateTimes);
 	}
 
+	/**
+	 * 只由时间戳计算, 与Long.hashCode相同<br>
+	 * 同一时刻不论以何种方式创建, 哈希值都相同
+	 */
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((_c == null) ? 0 : _c.hashCode());
-		return result;
+		long millis = millis();
+		return (int) (millis ^ (millis >>> 32));
 	}
 
+	/**
+	 * 时间戳和时区都相同时相等 (未指定时区时为系统默认时区)<br>
+	 * 对象可修改, 作为HashMap的key时不要再修改, 或使用ImmutableDateTime
+	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		if (!(obj instanceof DateTime))
 			return false;
 		DateTime other = (DateTime) obj;
-		if (_c == null) {
-			if (other._c != null)
-				return false;
-		} else if (!_c.equals(other._c))
-			return false;
-		return true;
+		return millis() == other.millis()
+				&& (_zone == other._zone || getZone().equals(other.getZone()));
 	}
 
 	/**
@@ -627,7 +914,35 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 			format = DEFAULT_DATETIME_FORMAT;
 		}
 
-		return new DateTime(DateUtils.parseDate(time, format));
+		return new DateTime(DateTimePattern.compile(format).parse(time));
+	}
+
+	/**
+	 * 按指定时区的当地时间解析日期
+	 * 
+	 * @param time
+	 *            如果为null, 返回null
+	 * @param format
+	 *            如果为null, 则使用默认格式(yyyy-MM-dd HH:mm:ss)
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 * @return 指定时区的DateTime对象
+	 * @throws ParseException
+	 */
+	public static DateTime parse(String time, String format, TimeZone zone)
+			throws ParseException {
+		if (StringUtils.isBlank(time)) {
+			return null;
+		}
+
+		if (StringUtils.isBlank(format)) {
+			format = DEFAULT_DATETIME_FORMAT;
+		}
+
+		DateTime dateTime = create(0, normalize(zone));
+		dateTime._millis = DateTimePattern.compile(format).parse(time,
+				dateTime.getZone());
+		return dateTime;
 	}
 
 	/**
@@ -642,6 +957,29 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 		return parse(time, DEFAULT_DATETIME_FORMAT);
 	}
 
+	/**
+	 * 根据指定的格式解析日期, 失败时不抛出异常, 错误原因和位置保存在result中
+	 * 
+	 * @param time
+	 *            如果为null, 解析失败
+	 * @param format
+	 *            如果为null, 则使用默认格式(yyyy-MM-dd HH:mm:ss)
+	 * @param result
+	 *            解析结果, 可重复使用
+	 * @return 是否成功
+	 */
+	public static boolean parse(String time, String format, ParseResult result) {
+		if (time == null) {
+			return result.fail(ParseResult.Status.MISMATCH, 0);
+		}
+
+		if (StringUtils.isBlank(format)) {
+			format = DEFAULT_DATETIME_FORMAT;
+		}
+
+		return DateTimePattern.compile(format).parse(time, result);
+	}
+
 	/**
 	 * 根据指定的格式解析日期, 当出现错误时, 返回defaultValue
 	 * 
@@ -658,15 +996,22 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 			return defaultValue;
 		}
 
+		if (StringUtils.isBlank(format)) {
+			format = DEFAULT_DATETIME_FORMAT;
+		}
+
+		DateTimePattern pattern;
 		try {
-			if (StringUtils.isBlank(format)) {
-				format = DEFAULT_DATETIME_FORMAT;
-			}
+			pattern = DateTimePattern.compile(format);
+		} catch (IllegalArgumentException e) {
+			return defaultValue;
+		}
 
-			return new DateTime(DateUtils.parseDate(time, format));
-		} catch (Exception e) {
+		ParseResult result = new ParseResult();
+		if (!pattern.parse(time, result)) {
 			return defaultValue;
 		}
+		return new DateTime(result.getTime());
 	}
 
 	/**
@@ -677,16 +1022,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public static DateTime tryParse(String time, DateTime defaultValue) {
-		if (StringUtils.isBlank(time)) {
-			return defaultValue;
-		}
-
-		try {
-			return new DateTime(
-					DateUtils.parseDate(time, "yyyy-MM-dd HH:mm:ss"));
-		} catch (Exception e) {
-			return defaultValue;
-		}
+		return tryParse(time, DEFAULT_DATETIME_FORMAT, defaultValue);
 	}
 
 	/**
@@ -696,7 +1032,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return 相等时返回false
 	 */
 	public boolean before(DateTime other) {
-		return this.getTime() < other.getTime();
+		return millis() < other.millis();
 	}
 
 	/**
@@ -706,7 +1042,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return 相等时返回false
 	 */
 	public boolean after(DateTime other) {
-		return this.getTime() > other.getTime();
+		return millis() > other.millis();
 	}
 
 	/**
@@ -716,7 +1052,7 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 	 * @return
 	 */
 	public long diff(DateTime other) {
-		return this.getTime() - other.getTime();
+		return millis() - other.millis();
 	}
 
 	/**
@@ -744,40 +1080,152 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 		}
 	}
 
+	/**
+	 * 按时间单位截断日期 (当地时间), 星期以星期日开始
+	 * 
+	 * @param unit
+	 * @return 新的DateTime对象
+	 */
+	public DateTime truncateTo(Unit unit) {
+		return truncateTo(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时间单位截断日期 (当地时间)
+	 * 
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return 新的DateTime对象
+	 */
+	public DateTime truncateTo(Unit unit, Weekday firstDayOfWeek) {
+		return create(floor(millis(), unit, firstDayOfWeek, getZone()), _zone);
+	}
+
+	/**
+	 * 按时间单位进位, 得到不早于当前时间的最近边界 (当地时间), 星期以星期日开始
+	 * 
+	 * @param unit
+	 * @return 新的DateTime对象
+	 */
+	public DateTime ceilTo(Unit unit) {
+		return ceilTo(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时间单位进位, 得到不早于当前时间的最近边界 (当地时间)
+	 * 
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return 新的DateTime对象
+	 */
+	public DateTime ceilTo(Unit unit, Weekday firstDayOfWeek) {
+		return create(ceil(millis(), unit, firstDayOfWeek, getZone()), _zone);
+	}
+
+	/**
+	 * 按时间单位四舍五入到最近的边界 (当地时间), 正好在中间时取后者, 星期以星期日开始
+	 * 
+	 * @param unit
+	 * @return 新的DateTime对象
+	 */
+	public DateTime roundTo(Unit unit) {
+		return roundTo(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时间单位四舍五入到最近的边界 (当地时间), 正好在中间时取后者
+	 * 
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return 新的DateTime对象
+	 */
+	public DateTime roundTo(Unit unit, Weekday firstDayOfWeek) {
+		return create(round(millis(), unit, firstDayOfWeek, getZone()), _zone);
+	}
+
+	/**
+	 * 按时间单位截断时间戳 (系统默认时区), 星期以星期日开始
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @return
+	 */
+	public static long truncateTo(long millis, Unit unit) {
+		return floor(millis, unit, Weekday.SUNDAY, defaultZone());
+	}
+
+	/**
+	 * 按时间单位截断时间戳 (系统默认时区)
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public static long truncateTo(long millis, Unit unit,
+			Weekday firstDayOfWeek) {
+		return floor(millis, unit, firstDayOfWeek, defaultZone());
+	}
+
+	/**
+	 * 按时间单位进位时间戳 (系统默认时区), 星期以星期日开始
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @return
+	 */
+	public static long ceilTo(long millis, Unit unit) {
+		return ceil(millis, unit, Weekday.SUNDAY, defaultZone());
+	}
+
+	/**
+	 * 按时间单位进位时间戳 (系统默认时区)
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public static long ceilTo(long millis, Unit unit, Weekday firstDayOfWeek) {
+		return ceil(millis, unit, firstDayOfWeek, defaultZone());
+	}
+
+	/**
+	 * 按时间单位四舍五入时间戳 (系统默认时区), 星期以星期日开始
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @return
+	 */
+	public static long roundTo(long millis, Unit unit) {
+		return round(millis, unit, Weekday.SUNDAY, defaultZone());
+	}
+
+	/**
+	 * 按时间单位四舍五入时间戳 (系统默认时区)
+	 * 
+	 * @param millis
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public static long roundTo(long millis, Unit unit, Weekday firstDayOfWeek) {
+		return round(millis, unit, firstDayOfWeek, defaultZone());
+	}
+
 	/**
 	 * 获得当前时间是星期几
 	 * 
 	 * @return
 	 */
 	public Weekday getWeekday() {
-		Weekday weekday = null;
-
-		int dayOfWeek = this._c.get(Calendar.DAY_OF_WEEK);
-		switch (dayOfWeek) {
-		case 1:
-			weekday = Weekday.SUNDAY;
-			break;
-		case 2:
-			weekday = Weekday.MONDAY;
-			break;
-		case 3:
-			weekday = Weekday.TUESDAY;
-			break;
-		case 4:
-			weekday = Weekday.WEDNESDAY;
-			break;
-		case 5:
-			weekday = Weekday.THURSDAY;
-			break;
-		case 6:
-			weekday = Weekday.FRIDAY;
-			break;
-		case 7:
-			weekday = Weekday.SATURDAY;
-			break;
-		}
-
-		return weekday;
+		return WEEKDAYS[getDayOfWeek() - 1];
 	}
 
 	/**
@@ -798,4 +1246,413 @@ public final class DateTime implements Serializable, Comparable<DateTime>,
 		return this.addDays(diff + 7 * span);
 	}
 
+	/**
+	 * 设置当地时间的字段, 下次读取时才计算时间戳
+	 * 
+	 * @param field
+	 *            _pending的下标
+	 */
+	private DateTime setField(int field, int value) {
+		pending()[field] = value;
+		return this;
+	}
+
+	/**
+	 * 获取已设置的字段, 没有时由时间戳计算当前的字段
+	 */
+	private int[] pending() {
+		checkWritable();
+		if (_pending == null) {
+			Calendar c = calendar(_millis, getZone());
+			_pending = new int[] { c.get(Calendar.YEAR),
+					c.get(Calendar.MONTH) + 1, c.get(Calendar.DAY_OF_MONTH),
+					c.get(Calendar.HOUR_OF_DAY), c.get(Calendar.MINUTE),
+					c.get(Calendar.SECOND), c.get(Calendar.MILLISECOND) };
+		}
+		return _pending;
+	}
+
+	/**
+	 * 获取时间戳, 有已设置的字段时先计算 (字段超出范围时与Calendar一样顺延)
+	 */
+	private long millis() {
+		int[] fields = _pending;
+		if (fields != null) {
+			_millis = toInstant(fields[YEAR], fields[MONTH], fields[DAY],
+					fields[HOUR], fields[MINUTE], fields[SECOND],
+					fields[MILLISECOND], getZone());
+			_pending = null;
+		}
+		return _millis;
+	}
+
+	private DateTime addField(int field, int amount) {
+		return update(addField(millis(), getZone(), field, amount));
+	}
+
+	/**
+	 * 修改时间戳, STANDARD_GTM_TIME不可修改
+	 */
+	private DateTime update(long millis) {
+		checkWritable();
+		_millis = millis;
+		_pending = null;
+		return this;
+	}
+
+	private void checkWritable() {
+		if (this == STANDARD_GTM_TIME) {
+			throw new UnsupportedOperationException(
+					"STANDARD_GTM_TIME is read-only");
+		}
+	}
+
+	/**
+	 * 获取当地时间的字段
+	 * 
+	 * @param field
+	 *            Calendar的字段, 其中MONTH以1月为1
+	 */
+	static int get(long millis, TimeZone zone, int field) {
+		long local = millis + ZoneOffsets.of(zone).getOffset(millis);
+		long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+		int millisOfDay = (int) (local - epochDay * MILLISECONDS_PER_DAY);
+		switch (field) {
+		case Calendar.HOUR_OF_DAY:
+			return millisOfDay / (int) MILLISECONDS_PER_HOUR;
+		case Calendar.MINUTE:
+			return millisOfDay / (int) MILLISECONDS_PER_MINUTE
+					% (int) MINUTES_PER_HOUR;
+		case Calendar.SECOND:
+			return millisOfDay / (int) MILLISECONDS_PER_SECOND
+					% (int) SECONDS_PER_MINUTE;
+		case Calendar.MILLISECOND:
+			return millisOfDay % (int) MILLISECONDS_PER_SECOND;
+		case Calendar.DAY_OF_WEEK:
+			return Gregorian.dayOfWeek(epochDay);
+		}
+
+		if (millis < Gregorian.CUTOVER_MILLIS) {
+			int value = calendar(millis, zone).get(field);
+			return field == Calendar.MONTH ? value + 1 : value;
+		}
+		switch (field) {
+		case Calendar.YEAR:
+			return Gregorian.year(epochDay);
+		case Calendar.MONTH:
+			return Gregorian.month(epochDay);
+		case Calendar.DAY_OF_MONTH:
+			return Gregorian.day(epochDay);
+		case Calendar.DAY_OF_YEAR:
+			return Gregorian.dayOfYear(epochDay);
+		default:
+			throw new IllegalArgumentException("field: " + field);
+		}
+	}
+
+	/**
+	 * 设置Calendar字段后重新计算时间戳
+	 */
+	static long setField(long millis, TimeZone zone, int field, int value) {
+		Calendar c = calendar(millis, zone);
+		c.set(field, value);
+		return c.getTimeInMillis();
+	}
+
+	/**
+	 * 按Calendar字段增加时间后重新计算时间戳
+	 */
+	static long addField(long millis, TimeZone zone, int field, int amount) {
+		Calendar c = calendar(millis, zone);
+		c.add(field, amount);
+		return c.getTimeInMillis();
+	}
+
+	private static Calendar calendar(long millis, TimeZone zone) {
+		Calendar c = CALENDAR.get();
+		c.setTimeZone(zone);
+		c.setTimeInMillis(millis);
+		return c;
+	}
+
+	/**
+	 * 截断到不晚于millis的最近边界
+	 */
+	static long floor(long millis, Unit unit, Weekday firstDayOfWeek,
+			TimeZone zone) {
+		long local = millis + ZoneOffsets.of(zone).getOffset(millis);
+		switch (unit) {
+		case MILLISECOND:
+			return millis;
+		case SECOND:
+			return floor(millis, local, MILLISECONDS_PER_SECOND, zone);
+		case MINUTE:
+			return floor(millis, local, MILLISECONDS_PER_MINUTE, zone);
+		case HOUR:
+			return floor(millis, local, MILLISECONDS_PER_HOUR, zone);
+		case DAY:
+			return startOfDay(Gregorian.floorDiv(local, MILLISECONDS_PER_DAY),
+					zone);
+		case WEEK:
+			long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+			return startOfDay(epochDay - daysFromWeekStart(epochDay,
+					firstDayOfWeek), zone);
+		default:
+			return startOfMonth(millis, local, unit, 0, zone);
+		}
+	}
+
+	/**
+	 * 进位到不早于millis的最近边界
+	 */
+	static long ceil(long millis, Unit unit, Weekday firstDayOfWeek,
+			TimeZone zone) {
+		long floor = floor(millis, unit, firstDayOfWeek, zone);
+		if (floor == millis) {
+			return millis;
+		}
+
+		long local = millis + ZoneOffsets.of(zone).getOffset(millis);
+		switch (unit) {
+		case SECOND:
+			return ceil(floor, local, MILLISECONDS_PER_SECOND, zone);
+		case MINUTE:
+			return ceil(floor, local, MILLISECONDS_PER_MINUTE, zone);
+		case HOUR:
+			return ceil(floor, local, MILLISECONDS_PER_HOUR, zone);
+		case DAY:
+			return startOfDay(
+					Gregorian.floorDiv(local, MILLISECONDS_PER_DAY) + 1, zone);
+		case WEEK:
+			long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+			return startOfDay(epochDay
+					- daysFromWeekStart(epochDay, firstDayOfWeek) + 7, zone);
+		default:
+			return startOfMonth(millis, local, unit, 1, zone);
+		}
+	}
+
+	/**
+	 * 四舍五入到最近的边界, 正好在中间时取后者
+	 */
+	static long round(long millis, Unit unit, Weekday firstDayOfWeek,
+			TimeZone zone) {
+		long floor = floor(millis, unit, firstDayOfWeek, zone);
+		if (floor == millis) {
+			return millis;
+		}
+		long ceil = ceil(millis, unit, firstDayOfWeek, zone);
+		return millis - floor < ceil - millis ? floor : ceil;
+	}
+
+	/**
+	 * 按固定长度截断, 截断后时区偏移变化时(夏令时切换)按当地时间重新计算
+	 */
+	private static long floor(long millis, long local, long unitMillis,
+			TimeZone zone) {
+		long remainder = Gregorian.floorMod(local, unitMillis);
+		long result = millis - remainder;
+		if (ZoneOffsets.of(zone).getOffset(result) != local - millis) {
+			result = localToInstant(local - remainder, zone);
+		}
+		return result;
+	}
+
+	/**
+	 * 按固定长度进位, 进位后时区偏移变化时(夏令时切换)按当地时间重新计算
+	 */
+	private static long ceil(long floor, long local, long unitMillis,
+			TimeZone zone) {
+		long result = floor + unitMillis;
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		if (offsets.getOffset(result) != offsets.getOffset(floor)) {
+			result = localToInstant(local - Gregorian.floorMod(local,
+					unitMillis) + unitMillis, zone);
+		}
+		return result;
+	}
+
+	private static long daysFromWeekStart(long epochDay,
+			Weekday firstDayOfWeek) {
+		return Gregorian.floorMod(Gregorian.dayOfWeek(epochDay) - 1
+				- firstDayOfWeek.getNo(), 7);
+	}
+
+	/**
+	 * 当地时间的某一天开始时的时间戳
+	 */
+	private static long startOfDay(long epochDay, TimeZone zone) {
+		return localToInstant(epochDay * MILLISECONDS_PER_DAY, zone);
+	}
+
+	/**
+	 * 当地时间所在月(或年)之后第amount个月(或年)开始时的时间戳
+	 */
+	private static long startOfMonth(long millis, long local, Unit unit,
+			int amount, TimeZone zone) {
+		int year;
+		int month;
+		if (millis < Gregorian.CUTOVER_MILLIS) {
+			Calendar c = calendar(millis, zone);
+			year = c.get(Calendar.YEAR);
+			month = c.get(Calendar.MONTH) + 1;
+			if (c.get(Calendar.ERA) == java.util.GregorianCalendar.BC) {
+				year = 1 - year;
+			}
+		} else {
+			long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+			year = Gregorian.year(epochDay);
+			month = Gregorian.month(epochDay);
+		}
+
+		if (unit == Unit.YEAR) {
+			return toInstant(year + amount, 1, 1, 0, 0, 0, 0, zone);
+		}
+		month += amount;
+		if (month > 12) {
+			year++;
+			month -= 12;
+		}
+		return toInstant(year, month, 1, 0, 0, 0, 0, zone);
+	}
+
+	/**
+	 * 计算指定时区的当地时间对应的时间戳
+	 * 
+	 * @param local
+	 *            当地时间 (时间戳加上时区偏移)
+	 */
+	static long localToInstant(long local, TimeZone zone) {
+		if (local < Gregorian.CUTOVER_MILLIS) {
+			// 格里高利历启用前为儒略历, 由Calendar分解各字段
+			Calendar c = calendar(local, UTC);
+			int era = c.get(Calendar.ERA);
+			int year = c.get(Calendar.YEAR);
+			int month = c.get(Calendar.MONTH);
+			int day = c.get(Calendar.DAY_OF_MONTH);
+			int millisOfDay = (int) Gregorian.floorMod(local,
+					MILLISECONDS_PER_DAY);
+			c.clear();
+			c.setTimeZone(zone);
+			c.set(Calendar.ERA, era);
+			c.set(year, month, day, 0, 0, 0);
+			c.set(Calendar.MILLISECOND, millisOfDay);
+			return c.getTimeInMillis();
+		}
+
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		if (offsets.covers(local)) {
+			return offsets.localToInstant(local);
+		}
+		long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+		int millisOfDay = (int) (local - epochDay * MILLISECONDS_PER_DAY);
+		return calendarToInstant(Gregorian.year(epochDay),
+				Gregorian.month(epochDay), Gregorian.day(epochDay), 0, 0, 0,
+				millisOfDay, zone);
+	}
+
+	/**
+	 * 计算指定时区的当地时间对应的时间戳<br>
+	 * 字段超出正常范围时与Calendar一样进位 (如13月为下一年的1月)
+	 * 
+	 * @param month
+	 *            月份 (1月为1)
+	 */
+	static long toInstant(int year, int month, int day, int hour,
+			int minute, int second, int millisecond, TimeZone zone) {
+		if (month >= 1 && month <= 12 && day >= 1
+				&& day <= Gregorian.lengthOfMonth(year, month) && hour >= 0
+				&& hour < HOURS_PER_DAY && minute >= 0
+				&& minute < MINUTES_PER_HOUR && second >= 0
+				&& second < SECONDS_PER_MINUTE && millisecond >= 0
+				&& millisecond < MILLISECONDS_PER_SECOND) {
+			long local = Gregorian.toEpochDay(year, month, day)
+					* MILLISECONDS_PER_DAY + hour * MILLISECONDS_PER_HOUR
+					+ minute * MILLISECONDS_PER_MINUTE + second
+					* MILLISECONDS_PER_SECOND + millisecond;
+			ZoneOffsets offsets = ZoneOffsets.of(zone);
+			if (offsets.covers(local)) {
+				return offsets.localToInstant(local);
+			}
+		}
+		return calendarToInstant(year, month, day, hour, minute, second,
+				millisecond, zone);
+	}
+
+	private static long calendarToInstant(int year, int month, int day,
+			int hour, int minute, int second, int millisecond, TimeZone zone) {
+		Calendar c = CALENDAR.get();
+		c.clear();
+		c.setTimeZone(zone);
+		c.set(year, month - 1, day, hour, minute, second);
+		c.set(Calendar.MILLISECOND, millisecond);
+		return c.getTimeInMillis();
+	}
+
+	TimeZone getZone() {
+		return _zone;
+	}
+
+	/**
+	 * 当前的系统默认时区, 每次都读取TimeZone.getDefault() (复制一份), TimeZone.setDefault之后立即生效;
+	 * 与上次相同时返回上次的对象, 时区偏移缓存可以按引用命中<br>
+	 * 只在创建对象和按默认时区的静态方法中调用, 对象的字段读取使用创建时确定的时区
+	 */
+	static TimeZone defaultZone() {
+		TimeZone current = TimeZone.getDefault();
+		TimeZone zone = defaultZone;
+		if (zone != null && zone.equals(current)) {
+			return zone;
+		}
+		defaultZone = current;
+		return current;
+	}
+
+	/**
+	 * null为当前的系统默认时区; 与最近读取的默认时区相同时共用该对象, 避免每个对象保存一份时区;
+	 * 其它时区复制一份, 调用者之后的修改不影响本对象
+	 */
+	static TimeZone normalize(TimeZone zone) {
+		if (zone == null) {
+			return defaultZone();
+		}
+		TimeZone current = defaultZone;
+		if (current != null && (zone == current || zone.equals(current))) {
+			return current;
+		}
+		return (TimeZone) zone.clone();
+	}
+
+	/**
+	 * 根据时区ID获取时区, TimeZone.getTimeZone不能识别时返回GMT, 此处抛出异常
+	 * 
+	 * @throws IllegalArgumentException
+	 *             不能识别的时区ID
+	 */
+	static TimeZone timeZone(String zoneId) {
+		TimeZone zone = TimeZone.getTimeZone(zoneId);
+		if ("GMT".equals(zone.getID()) && !"GMT".equals(zoneId)) {
+			throw new IllegalArgumentException("unknown time zone: " + zoneId);
+		}
+		return zone;
+	}
+
+	/**
+	 * 序列化为Ser, 只写入时间戳和时区ID
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new Ser(Ser.DATE_TIME, millis(), _zone);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		Calendar c = (Calendar) fields.get("_c", null);
+		if (c == null) {
+			throw new InvalidObjectException("Calendar _c is missing");
+		}
+		_millis = c.getTimeInMillis();
+		_zone = normalize(c.getTimeZone());
+	}
+
 }
@@ -0,0 +1,493 @@
+package com.darrenfang.datetime;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 以long[]保存时间戳的DateTime数组<br>
+ * 批量获取字段和批量计算时不创建DateTime对象, 适合大量时间的统计分析。非线程安全。
+ */
+public final class DateTimeArray {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private static final long MILLISECONDS_PER_DAY = DateTime.MILLISECONDS_PER_DAY;
+
+	private long[] values;
+
+	private int size;
+
+	/**
+	 * 时区, 不为null; 系统默认时区在创建时确定
+	 */
+	private final TimeZone zone;
+
+	/**
+	 * 创建空的DateTimeArray
+	 */
+	public DateTimeArray() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * 创建空的DateTimeArray
+	 *
+	 * @param capacity
+	 *            初始容量
+	 */
+	public DateTimeArray(int capacity) {
+		this(new long[capacity], 0, DateTime.defaultZone());
+	}
+
+	/**
+	 * 创建空的DateTimeArray, 字段和按当地时间的运算使用指定时区
+	 *
+	 * @param capacity
+	 *            初始容量
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 */
+	public DateTimeArray(int capacity, TimeZone zone) {
+		this(new long[capacity], 0, DateTime.normalize(zone));
+	}
+
+	/**
+	 * 根据时间戳数组创建DateTimeArray, 复制timestamps
+	 *
+	 * @param timestamps
+	 */
+	public DateTimeArray(long[] timestamps) {
+		this(timestamps.clone(), timestamps.length, DateTime.defaultZone());
+	}
+
+	DateTimeArray(long[] values, int size, TimeZone zone) {
+		this.values = values;
+		this.size = size;
+		this.zone = zone;
+	}
+
+	/**
+	 * 直接使用timestamps作为存储, 不复制<br>
+	 * 之后对DateTimeArray的修改会写入timestamps (扩容之前)
+	 *
+	 * @param timestamps
+	 * @return
+	 */
+	public static DateTimeArray wrap(long[] timestamps) {
+		return new DateTimeArray(timestamps, timestamps.length,
+				DateTime.defaultZone());
+	}
+
+	/**
+	 * 获取元素个数
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 在末尾加入时间戳
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public DateTimeArray add(long timestamp) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, Math.max(DEFAULT_CAPACITY,
+					size + (size >> 1)));
+		}
+		values[size++] = timestamp;
+		return this;
+	}
+
+	/**
+	 * 在末尾加入dateTime的时间戳
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public DateTimeArray add(DateTime dateTime) {
+		return add(dateTime.getTime());
+	}
+
+	/**
+	 * 获取下标为index的时间戳
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long getTime(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * 设置下标为index的时间戳
+	 *
+	 * @param index
+	 * @param timestamp
+	 * @return
+	 */
+	public DateTimeArray setTime(int index, long timestamp) {
+		checkIndex(index);
+		values[index] = timestamp;
+		return this;
+	}
+
+	/**
+	 * 获取下标为index的时间, 返回新的DateTime对象
+	 *
+	 * @param index
+	 * @return
+	 */
+	public DateTime get(int index) {
+		return DateTime.create(getTime(index), zone);
+	}
+
+	/**
+	 * 清空, 保留容量
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * 复制为新的时间戳数组
+	 *
+	 * @return
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * 按下标顺序遍历时间戳, 遍历时不能修改元素个数
+	 *
+	 * @return
+	 */
+	public LongIterator iterator() {
+		return iterator(values, 0, size);
+	}
+
+	/**
+	 * 遍历timestamps中[offset, offset + length)的元素
+	 */
+	static LongIterator iterator(final long[] timestamps, final int offset,
+			final int length) {
+		if (offset < 0 || length < 0 || offset + length > timestamps.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset
+					+ ", length: " + length);
+		}
+		return new LongIterator() {
+			private int index = offset;
+
+			public boolean hasNext() {
+				return index < offset + length;
+			}
+
+			public long next() {
+				if (index >= offset + length) {
+					throw new NoSuchElementException();
+				}
+				return timestamps[index++];
+			}
+		};
+	}
+
+	/**
+	 * 批量获取年份
+	 *
+	 * @param dest
+	 *            结果数组, 为null时创建新数组
+	 * @return dest
+	 */
+	public int[] getYear(int[] dest) {
+		dest = dest(dest);
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			long t = values[i];
+			dest[i] = t < Gregorian.CUTOVER_MILLIS ? DateTime.get(t, zone,
+					Calendar.YEAR) : Gregorian.year(epochDay(t, offsets));
+		}
+		return dest;
+	}
+
+	/**
+	 * 批量获取月份 (1月为1)
+	 *
+	 * @param dest
+	 *            结果数组, 为null时创建新数组
+	 * @return dest
+	 */
+	public int[] getMonth(int[] dest) {
+		dest = dest(dest);
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			long t = values[i];
+			dest[i] = t < Gregorian.CUTOVER_MILLIS ? DateTime.get(t, zone,
+					Calendar.MONTH) : Gregorian.month(epochDay(t, offsets));
+		}
+		return dest;
+	}
+
+	/**
+	 * 批量获取天
+	 *
+	 * @param dest
+	 *            结果数组, 为null时创建新数组
+	 * @return dest
+	 */
+	public int[] getDay(int[] dest) {
+		dest = dest(dest);
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			long t = values[i];
+			dest[i] = t < Gregorian.CUTOVER_MILLIS ? DateTime.get(t, zone,
+					Calendar.DAY_OF_MONTH) : Gregorian
+					.day(epochDay(t, offsets));
+		}
+		return dest;
+	}
+
+	/**
+	 * 批量获取小时
+	 *
+	 * @param dest
+	 *            结果数组, 为null时创建新数组
+	 * @return dest
+	 */
+	public int[] getHour(int[] dest) {
+		dest = dest(dest);
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			long local = values[i] + offsets.getOffset(values[i]);
+			dest[i] = (int) Gregorian.floorMod(local, MILLISECONDS_PER_DAY)
+					/ (int) DateTime.MILLISECONDS_PER_HOUR;
+		}
+		return dest;
+	}
+
+	/**
+	 * 批量获取星期几, 与Weekday.getNo()一致 (星期日为0)
+	 *
+	 * @param dest
+	 *            结果数组, 为null时创建新数组
+	 * @return dest
+	 */
+	public int[] getWeekday(int[] dest) {
+		dest = dest(dest);
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			// 1970-01-01 为星期四
+			dest[i] = (int) Gregorian.floorMod(
+					epochDay(values[i], offsets) + 4, 7);
+		}
+		return dest;
+	}
+
+	/**
+	 * 全部加上 days 天 (当地时间), 与DateTime.addDays相同
+	 *
+	 * @param days
+	 * @return
+	 */
+	public DateTimeArray addDays(int days) {
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		long delta = days * MILLISECONDS_PER_DAY;
+		for (int i = 0; i < size; i++) {
+			long t = values[i];
+			long target = t + delta;
+			if (t < Gregorian.CUTOVER_MILLIS + MILLISECONDS_PER_DAY
+					|| target < Gregorian.CUTOVER_MILLIS + MILLISECONDS_PER_DAY) {
+				values[i] = DateTime.addField(t, zone, Calendar.DAY_OF_MONTH,
+						days);
+				continue;
+			}
+			// 与GregorianCalendar.add相同: 先按原来的时区偏移计算, 偏移变化且不跨日时再调整
+			int offset = offsets.getOffset(t);
+			int diff = offset - offsets.getOffset(target);
+			if (diff != 0) {
+				long adjusted = target + diff;
+				if (epochDay(adjusted, offsets) == Gregorian.floorDiv(t + offset,
+						MILLISECONDS_PER_DAY) + days) {
+					target = adjusted;
+				}
+			}
+			values[i] = target;
+		}
+		return this;
+	}
+
+	/**
+	 * 全部加上 months 月 (当地时间), 与DateTime.addMonths相同<br>
+	 * 目标月份没有对应的日时取该月最后一天
+	 *
+	 * @param months
+	 * @return
+	 */
+	public DateTimeArray addMonths(int months) {
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			values[i] = addMonths(values[i], months, zone, offsets);
+		}
+		return this;
+	}
+
+	/**
+	 * 全部加上 years 年 (当地时间), 与DateTime.addYears相同
+	 *
+	 * @param years
+	 * @return
+	 */
+	public DateTimeArray addYears(int years) {
+		return addMonths(years * 12);
+	}
+
+	/**
+	 * 全部按时间单位截断 (当地时间), 星期以星期日开始
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public DateTimeArray truncateTo(Unit unit) {
+		return truncateTo(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 全部按时间单位截断 (当地时间)
+	 *
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public DateTimeArray truncateTo(Unit unit, Weekday firstDayOfWeek) {
+		TimeZone zone = getZone();
+		long[] values = this.values;
+		for (int i = 0; i < size; i++) {
+			values[i] = DateTime.floor(values[i], unit, firstDayOfWeek, zone);
+		}
+		return this;
+	}
+
+	/**
+	 * 按时间先后排序
+	 *
+	 * @return
+	 */
+	public DateTimeArray sort() {
+		Arrays.sort(values, 0, size);
+		return this;
+	}
+
+	/**
+	 * 在已排序的数组中二分查找timestamp
+	 *
+	 * @param timestamp
+	 * @return 找到时返回下标, 否则返回 (-(插入位置) - 1)
+	 */
+	public int binarySearch(long timestamp) {
+		return Arrays.binarySearch(values, 0, size, timestamp);
+	}
+
+	/**
+	 * 在已排序的数组中二分查找dateTime
+	 *
+	 * @param dateTime
+	 * @return 找到时返回下标, 否则返回 (-(插入位置) - 1)
+	 */
+	public int binarySearch(DateTime dateTime) {
+		return binarySearch(dateTime.getTime());
+	}
+
+	private static long addMonths(long millis, int months, TimeZone zone,
+			ZoneOffsets offsets) {
+		if (millis < Gregorian.CUTOVER_MILLIS + MILLISECONDS_PER_DAY) {
+			return DateTime.addField(millis, zone, Calendar.MONTH, months);
+		}
+		int offset = offsets.getOffset(millis);
+		long local = millis + offset;
+		long epochDay = Gregorian.floorDiv(local, MILLISECONDS_PER_DAY);
+		long month = Gregorian.year(epochDay) * 12L + Gregorian.month(epochDay)
+				- 1 + months;
+		int y = (int) Gregorian.floorDiv(month, 12);
+		int m = (int) Gregorian.floorMod(month, 12) + 1;
+		int d = Math.min(Gregorian.day(epochDay), Gregorian.lengthOfMonth(y, m));
+		local = Gregorian.toEpochDay(y, m, d) * MILLISECONDS_PER_DAY + local
+				- epochDay * MILLISECONDS_PER_DAY;
+		long result = local - offset;
+		if (result < Gregorian.CUTOVER_MILLIS + MILLISECONDS_PER_DAY) {
+			return DateTime.addField(millis, zone, Calendar.MONTH, months);
+		}
+		// 前后一天内时区偏移都不变时当地时间唯一, 否则(夏令时切换附近)按当地时间重新计算
+		if (offsets.getOffset(result) == offset
+				&& offsets.getOffset(result - MILLISECONDS_PER_DAY) == offset
+				&& offsets.getOffset(result + MILLISECONDS_PER_DAY) == offset) {
+			return result;
+		}
+		return DateTime.localToInstant(local, zone);
+	}
+
+	private static long epochDay(long millis, ZoneOffsets offsets) {
+		return Gregorian.floorDiv(millis + offsets.getOffset(millis),
+				MILLISECONDS_PER_DAY);
+	}
+
+	private int[] dest(int[] dest) {
+		if (dest == null) {
+			return new int[size];
+		}
+		if (dest.length < size) {
+			throw new IllegalArgumentException("dest.length: " + dest.length
+					+ " < size: " + size);
+		}
+		return dest;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: "
+					+ size);
+		}
+	}
+
+	private TimeZone getZone() {
+		return zone;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			pattern.format(values[i], getZone(), builder);
+		}
+		return builder.append(']').toString();
+	}
+
+}
@@ -0,0 +1,324 @@
+package com.darrenfang.datetime;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 解码DateTimeEncoder编码的时间戳序列<br>
+ * 解码过程不创建对象 (从InputStream读取时复用一个按块大小分配的缓冲区)。
+ * 从ByteBuffer读取时可按块头跳过整块, 用seek定位。非线程安全。
+ */
+public final class DateTimeDecoder implements Closeable {
+
+	private final InputStream in;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * 第一块在buffer中的位置
+	 */
+	private final int start;
+
+	/**
+	 * 下一个字节的位置: 读取ByteBuffer时为buffer中的绝对位置, 读取InputStream时为payload中的下标
+	 */
+	private int position;
+
+	/**
+	 * 当前块数据结束的位置
+	 */
+	private int blockEnd;
+
+	private byte[] payload;
+
+	/**
+	 * 当前块中还未解码的个数
+	 */
+	private int remaining;
+
+	/**
+	 * 当前块的第一个时间戳, 下一个返回的是块首时为true
+	 */
+	private boolean atFirst;
+
+	private long first;
+
+	private long previous;
+
+	private long delta;
+
+	private boolean peeked;
+
+	private long peekedValue;
+
+	/**
+	 * 从InputStream读取, 读到末尾时结束
+	 *
+	 * @param in
+	 */
+	public DateTimeDecoder(InputStream in) {
+		if (in == null) {
+			throw new NullPointerException("in");
+		}
+		this.in = in;
+		this.buffer = null;
+		this.start = 0;
+		this.payload = new byte[64];
+	}
+
+	/**
+	 * 读取buffer中[position, limit)的部分, 使用绝对位置, 不改变buffer的position
+	 *
+	 * @param buffer
+	 */
+	public DateTimeDecoder(ByteBuffer buffer) {
+		this.in = null;
+		this.buffer = buffer;
+		this.start = buffer.position();
+		this.position = start;
+		this.blockEnd = start;
+	}
+
+	/**
+	 * 是否还有时间戳
+	 *
+	 * @return
+	 * @throws IOException
+	 *             读取失败或数据不完整时
+	 */
+	public boolean hasNext() throws IOException {
+		return peeked || remaining > 0 || readHeader();
+	}
+
+	/**
+	 * 获取下一个时间戳
+	 *
+	 * @return
+	 * @throws IOException
+	 *             读取失败或数据不完整时
+	 * @throws java.util.NoSuchElementException
+	 *             没有下一个时间戳时
+	 */
+	public long next() throws IOException {
+		if (peeked) {
+			peeked = false;
+			return peekedValue;
+		}
+		if (!hasNext()) {
+			throw new java.util.NoSuchElementException();
+		}
+		remaining--;
+		if (atFirst) {
+			atFirst = false;
+			previous = first;
+			delta = 0;
+		} else {
+			long encoded = readVarint(blockEnd);
+			// zigzag解码
+			delta += (encoded >>> 1) ^ -(encoded & 1);
+			previous += delta;
+		}
+		if (remaining == 0 && position != blockEnd) {
+			throw new IOException("corrupt block: " + (blockEnd - position)
+					+ " bytes left");
+		}
+		return previous;
+	}
+
+	/**
+	 * 获取下一个时间戳并设置到reuse中, 不创建对象
+	 *
+	 * @param reuse
+	 * @return reuse
+	 * @throws IOException
+	 */
+	public DateTime next(DateTime reuse) throws IOException {
+		return reuse.setTime(next());
+	}
+
+	/**
+	 * 批量读取, 最多len个
+	 *
+	 * @param dest
+	 * @param offset
+	 * @param length
+	 * @return 读取的个数, 没有更多时间戳时返回-1
+	 * @throws IOException
+	 */
+	public int read(long[] dest, int offset, int length) throws IOException {
+		if (offset < 0 || length < 0 || offset + length > dest.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset
+					+ ", length: " + length + ", array length: "
+					+ dest.length);
+		}
+		if (length == 0) {
+			return 0;
+		}
+		if (!hasNext()) {
+			return -1;
+		}
+		int n = 0;
+		while (n < length && hasNext()) {
+			dest[offset + n++] = next();
+		}
+		return n;
+	}
+
+	/**
+	 * 定位到第一个不早于timestamp的时间戳, 只支持ByteBuffer<br>
+	 * 按块头跳过块首时间戳不晚于timestamp的块, 要求序列有序; 之后hasNext()为false表示都早于timestamp
+	 *
+	 * @param timestamp
+	 * @throws IOException
+	 *             数据不完整时
+	 */
+	public void seek(long timestamp) throws IOException {
+		if (buffer == null) {
+			throw new UnsupportedOperationException(
+					"seek requires a ByteBuffer");
+		}
+		peeked = false;
+		remaining = 0;
+		int limit = buffer.limit();
+		int candidate = start;
+		int pos = start;
+		// 找到最后一个块首不晚于timestamp的块
+		while (pos < limit) {
+			position = pos;
+			readVarint(limit);
+			long blockFirst = readLong(limit);
+			if (blockFirst > timestamp) {
+				break;
+			}
+			candidate = pos;
+			int length = (int) readVarint(limit);
+			pos = position + length;
+		}
+		position = candidate;
+		blockEnd = candidate;
+		while (hasNext()) {
+			long value = next();
+			if (value >= timestamp) {
+				peeked = true;
+				peekedValue = value;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 关闭InputStream
+	 */
+	public void close() throws IOException {
+		if (in != null) {
+			in.close();
+		}
+	}
+
+	/**
+	 * 读取下一块的块头, 读取InputStream时同时读入整块数据
+	 *
+	 * @return 是否还有块
+	 */
+	private boolean readHeader() throws IOException {
+		int count;
+		int length;
+		if (in != null) {
+			int b = in.read();
+			if (b < 0) {
+				return false;
+			}
+			count = (int) readStreamVarint(b);
+			first = 0;
+			for (int i = 0; i < 8; i++) {
+				first = (first << 8) | readStreamByte();
+			}
+			length = (int) readStreamVarint(readStreamByte());
+			if (payload.length < length) {
+				payload = new byte[Math.max(length, payload.length * 2)];
+			}
+			int read = 0;
+			while (read < length) {
+				int n = in.read(payload, read, length - read);
+				if (n < 0) {
+					throw new EOFException("truncated block");
+				}
+				read += n;
+			}
+			position = 0;
+			blockEnd = length;
+		} else {
+			int limit = buffer.limit();
+			if (position >= limit) {
+				return false;
+			}
+			count = (int) readVarint(limit);
+			first = readLong(limit);
+			length = (int) readVarint(limit);
+			if (length < 0 || length > limit - position) {
+				throw new EOFException("truncated block");
+			}
+			blockEnd = position + length;
+		}
+		if (count <= 0) {
+			throw new IOException("corrupt block count: " + count);
+		}
+		remaining = count;
+		atFirst = true;
+		return true;
+	}
+
+	private long readLong(int end) throws IOException {
+		if (end - position < 8) {
+			throw new EOFException("truncated block header");
+		}
+		// 按大端字节序读取, 与buffer的order无关
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (buffer.get(position++) & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * 从当前块读取无符号varint
+	 */
+	private long readVarint(int end) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (position >= end) {
+				throw new EOFException("truncated varint");
+			}
+			int b = in != null ? payload[position++] : buffer.get(position++);
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed varint");
+	}
+
+	private long readStreamVarint(int b) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+			b = readStreamByte();
+		}
+		throw new IOException("malformed varint");
+	}
+
+	private int readStreamByte() throws IOException {
+		int b = in.read();
+		if (b < 0) {
+			throw new EOFException("truncated block header");
+		}
+		return b;
+	}
+
+}
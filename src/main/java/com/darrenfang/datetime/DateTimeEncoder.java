@@ -0,0 +1,260 @@
+package com.darrenfang.datetime;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 把时间戳序列编码为紧凑的二进制格式, 由DateTimeDecoder解码<br>
+ * 时间戳按块编码, 每块格式为:
+ *
+ * <pre>
+ * 个数 n       无符号varint
+ * 第一个时间戳  8字节, 大端字节序
+ * 数据长度     无符号varint, 解码时可据此跳过整块
+ * 数据         第二个时间戳与第一个的差, 之后为相邻差值的差 (delta-of-delta), 均为zigzag varint
+ * </pre>
+ *
+ * 间隔固定的序列每个时间戳1字节, 相邻间隔的变化在±8秒内时不超过2字节。无序的序列也可以编码, 只是更长。
+ * 非线程安全。
+ */
+public final class DateTimeEncoder implements Closeable, Flushable {
+
+	/**
+	 * 默认每块的时间戳个数
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+	/**
+	 * 一个varint最多10字节
+	 */
+	static final int MAX_VARINT_LENGTH = 10;
+
+	static final int MAX_HEADER_LENGTH = MAX_VARINT_LENGTH * 2 + 8;
+
+	private final OutputStream out;
+
+	private final ByteBuffer buffer;
+
+	private final long[] block;
+
+	private int count;
+
+	/**
+	 * 编码一块的缓冲区, 块头预留在开头
+	 */
+	private final byte[] bytes;
+
+	/**
+	 * 写入OutputStream, 每块DEFAULT_BLOCK_SIZE个时间戳
+	 *
+	 * @param out
+	 */
+	public DateTimeEncoder(OutputStream out) {
+		this(out, null, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * 写入OutputStream
+	 *
+	 * @param out
+	 * @param blockSize
+	 *            每块的时间戳个数, 越小随机定位越快, 块头的开销越大
+	 */
+	public DateTimeEncoder(OutputStream out, int blockSize) {
+		this(out, null, blockSize);
+	}
+
+	/**
+	 * 从buffer的position开始写入, 每块DEFAULT_BLOCK_SIZE个时间戳
+	 *
+	 * @param buffer
+	 */
+	public DateTimeEncoder(ByteBuffer buffer) {
+		this(null, buffer, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * 从buffer的position开始写入
+	 *
+	 * @param buffer
+	 *            空间不足时抛出BufferOverflowException, 已写入的块保持完整
+	 * @param blockSize
+	 *            每块的时间戳个数
+	 */
+	public DateTimeEncoder(ByteBuffer buffer, int blockSize) {
+		this(null, buffer, blockSize);
+	}
+
+	private DateTimeEncoder(OutputStream out, ByteBuffer buffer, int blockSize) {
+		if (out == null && buffer == null) {
+			throw new NullPointerException();
+		}
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("blockSize: " + blockSize);
+		}
+		this.out = out;
+		this.buffer = buffer;
+		this.block = new long[blockSize];
+		this.bytes = new byte[MAX_HEADER_LENGTH + blockSize
+				* MAX_VARINT_LENGTH];
+	}
+
+	/**
+	 * 追加一个时间戳, 块满时写出
+	 *
+	 * @param timestamp
+	 * @return this
+	 * @throws IOException
+	 */
+	public DateTimeEncoder add(long timestamp) throws IOException {
+		block[count++] = timestamp;
+		if (count == block.length) {
+			writeBlock();
+		}
+		return this;
+	}
+
+	/**
+	 * 追加dateTime的时间戳
+	 *
+	 * @param dateTime
+	 * @return this
+	 * @throws IOException
+	 */
+	public DateTimeEncoder add(DateTime dateTime) throws IOException {
+		return add(dateTime.getTime());
+	}
+
+	/**
+	 * 追加timestamps中[offset, offset + length)的时间戳
+	 *
+	 * @param timestamps
+	 * @param offset
+	 * @param length
+	 * @return this
+	 * @throws IOException
+	 */
+	public DateTimeEncoder add(long[] timestamps, int offset, int length)
+			throws IOException {
+		if (offset < 0 || length < 0 || offset + length > timestamps.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset
+					+ ", length: " + length + ", array length: "
+					+ timestamps.length);
+		}
+		while (length > 0) {
+			int n = Math.min(length, block.length - count);
+			System.arraycopy(timestamps, offset, block, count, n);
+			count += n;
+			offset += n;
+			length -= n;
+			if (count == block.length) {
+				writeBlock();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * 追加iterator中剩余的时间戳
+	 *
+	 * @param iterator
+	 * @return this
+	 * @throws IOException
+	 */
+	public DateTimeEncoder add(LongIterator iterator) throws IOException {
+		while (iterator.hasNext()) {
+			add(iterator.next());
+		}
+		return this;
+	}
+
+	/**
+	 * 把未满的块写出 (之后追加的时间戳从新的块开始), 并刷新OutputStream
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		if (count > 0) {
+			writeBlock();
+		}
+		if (out != null) {
+			out.flush();
+		}
+	}
+
+	/**
+	 * 写出未满的块并关闭OutputStream
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		flush();
+		if (out != null) {
+			out.close();
+		}
+	}
+
+	/**
+	 * 编码当前块: 先把数据写在块头预留空间之后, 再把块头写在数据之前
+	 */
+	private void writeBlock() throws IOException {
+		int pos = MAX_HEADER_LENGTH;
+		long previous = block[0];
+		long delta = 0;
+		for (int i = 1; i < count; i++) {
+			long value = block[i];
+			long next = value - previous;
+			pos = putVarint(bytes, pos, zigzag(next - delta));
+			delta = next;
+			previous = value;
+		}
+		int length = pos - MAX_HEADER_LENGTH;
+
+		int start = MAX_HEADER_LENGTH - varintLength(count) - 8
+				- varintLength(length);
+		int header = putVarint(bytes, start, count);
+		long first = block[0];
+		for (int i = 7; i >= 0; i--) {
+			bytes[header++] = (byte) (first >>> (i * 8));
+		}
+		putVarint(bytes, header, length);
+
+		if (out != null) {
+			out.write(bytes, start, pos - start);
+		} else {
+			buffer.put(bytes, start, pos - start);
+		}
+		count = 0;
+	}
+
+	static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static int varintLength(long value) {
+		int length = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * 写入无符号varint, 低位在前
+	 *
+	 * @return 写入后的位置
+	 */
+	static int putVarint(byte[] bytes, int pos, long value) {
+		while ((value & ~0x7FL) != 0) {
+			bytes[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[pos++] = (byte) value;
+		return pos;
+	}
+
+}
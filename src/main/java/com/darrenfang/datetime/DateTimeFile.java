@@ -0,0 +1,318 @@
+package com.darrenfang.datetime;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+/**
+ * 以内存映射文件保存时间戳, 数据在堆外, 多个进程可通过页缓存共享同一个文件<br>
+ * 文件格式 (大端字节序):
+ *
+ * <pre>
+ * 偏移  长度  内容
+ * 0     4     魔数 0x44544346 ("DTCF")
+ * 4     4     版本号 1
+ * 8     8     时间戳个数 n
+ * 16    8*n   时间戳 (自1970-01-01 00:00:00 GMT起的毫秒数)
+ * </pre>
+ *
+ * 只允许一个写入者, 追加时先写时间戳, 经过内存屏障后再更新个数; 读取者每次调用size()时重新读取个数,
+ * 之后同样经过内存屏障再读取时间戳。已追加的时间戳不再改变, getTime(index)的下标小于上次读取的个数时
+ * 不再读取个数, 只在超出时重新读取 (每次一个屏障); read每批只读取一次个数。非线程安全。<br>
+ * Java 6没有作用于映射内存的屏障API, 屏障由一次volatile写实现, HotSpot在其后插入完整的屏障,
+ * 因此在HotSpot上其它进程的读取者不会先看到个数后看到时间戳; Java内存模型本身不涉及进程之间的可见性,
+ * 其它JVM实现上不保证此顺序。
+ */
+public final class DateTimeFile implements Closeable {
+
+	static final int MAGIC = 0x44544346;
+
+	static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 16;
+
+	private static final int COUNT_OFFSET = 8;
+
+	/**
+	 * 默认每段映射16MB (2M个时间戳)
+	 */
+	private static final int DEFAULT_SEGMENT_SHIFT = 24;
+
+	/**
+	 * 只用于fence()
+	 */
+	private static volatile int barrier;
+
+	private final RandomAccessFile file;
+
+	private final FileChannel channel;
+
+	private final boolean readOnly;
+
+	private final int segmentShift;
+
+	private final MappedByteBuffer header;
+
+	private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+	/**
+	 * 上次经过内存屏障读取的个数, 小于它的下标可以直接读取
+	 */
+	private long knownSize;
+
+	private DateTimeFile(File path, boolean readOnly, int segmentShift)
+			throws IOException {
+		this.readOnly = readOnly;
+		this.segmentShift = segmentShift;
+		this.file = new RandomAccessFile(path, readOnly ? "r" : "rw");
+		this.channel = file.getChannel();
+		try {
+			boolean created = channel.size() == 0;
+			if (created && readOnly) {
+				throw new IOException("empty file: " + path);
+			}
+			if (!created && channel.size() < HEADER_SIZE) {
+				throw new IOException("not a DateTime file: " + path);
+			}
+			header = channel.map(readOnly ? MapMode.READ_ONLY
+					: MapMode.READ_WRITE, 0, HEADER_SIZE);
+			if (created) {
+				header.putInt(0, MAGIC);
+				header.putInt(4, VERSION);
+				header.putLong(COUNT_OFFSET, 0);
+			} else if (header.getInt(0) != MAGIC) {
+				throw new IOException("not a DateTime file: " + path);
+			} else if (header.getInt(4) != VERSION) {
+				throw new IOException("unsupported version "
+						+ header.getInt(4) + ": " + path);
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 以读写方式打开文件, 文件不存在或为空时创建
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static DateTimeFile open(File path) throws IOException {
+		return new DateTimeFile(path, false, DEFAULT_SEGMENT_SHIFT);
+	}
+
+	/**
+	 * 以只读方式打开文件
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static DateTimeFile openReadOnly(File path) throws IOException {
+		return new DateTimeFile(path, true, DEFAULT_SEGMENT_SHIFT);
+	}
+
+	static DateTimeFile open(File path, boolean readOnly, int segmentShift)
+			throws IOException {
+		return new DateTimeFile(path, readOnly, segmentShift);
+	}
+
+	/**
+	 * 获取时间戳个数
+	 *
+	 * @return
+	 */
+	public long size() {
+		long size = header.getLong(COUNT_OFFSET);
+		fence();
+		knownSize = size;
+		return size;
+	}
+
+	/**
+	 * 在末尾追加时间戳
+	 *
+	 * @param timestamp
+	 * @return 新时间戳的下标
+	 * @throws IOException
+	 */
+	public long append(long timestamp) throws IOException {
+		if (readOnly) {
+			throw new IOException("read-only");
+		}
+		long index = header.getLong(COUNT_OFFSET);
+		segment(index).putLong(position(index), timestamp);
+		// 时间戳先于个数对其它进程可见
+		fence();
+		header.putLong(COUNT_OFFSET, index + 1);
+		return index;
+	}
+
+	/**
+	 * 在末尾追加dateTime的时间戳
+	 *
+	 * @param dateTime
+	 * @return 新时间戳的下标
+	 * @throws IOException
+	 */
+	public long append(DateTime dateTime) throws IOException {
+		return append(dateTime.getTime());
+	}
+
+	/**
+	 * 获取下标为index的时间戳<br>
+	 * index小于上次读取的个数时不再读取个数, 随机访问不必每次经过内存屏障
+	 *
+	 * @param index
+	 * @return
+	 * @throws IOException
+	 */
+	public long getTime(long index) throws IOException {
+		checkIndex(index);
+		return segment(index).getLong(position(index));
+	}
+
+	/**
+	 * 获取下标为index的时间, 写入reuse后返回, 不创建新对象
+	 *
+	 * @param index
+	 * @param reuse
+	 *            为null时创建新的DateTime对象
+	 * @return
+	 * @throws IOException
+	 */
+	public DateTime get(long index, DateTime reuse) throws IOException {
+		long time = getTime(index);
+		return reuse == null ? new DateTime(time) : reuse.setTime(time);
+	}
+
+	/**
+	 * 从下标为index的位置开始批量读取时间戳
+	 *
+	 * @param index
+	 * @param dest
+	 * @param offset
+	 *            dest中的起始位置
+	 * @param length
+	 *            最多读取的个数
+	 * @return 实际读取的个数
+	 * @throws IOException
+	 */
+	public int read(long index, long[] dest, int offset, int length)
+			throws IOException {
+		if (offset < 0 || length < 0 || offset + length > dest.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset
+					+ ", length: " + length);
+		}
+		long size = size();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: "
+					+ size);
+		}
+		int count = (int) Math.min(length, size - index);
+		for (int i = 0; i < count; i++) {
+			dest[offset + i] = segment(index + i).getLong(position(index + i));
+		}
+		return count;
+	}
+
+	/**
+	 * 在按时间先后追加的文件中查找第一个不早于timestamp的下标<br>
+	 * 范围扫描[from, to)时, 从lowerBound(from)遍历到lowerBound(to)
+	 *
+	 * @param timestamp
+	 * @return 都早于timestamp时返回size()
+	 * @throws IOException
+	 */
+	public long lowerBound(long timestamp) throws IOException {
+		long low = 0;
+		long high = size();
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (segment(mid).getLong(position(mid)) < timestamp) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * 将修改写入磁盘
+	 */
+	public void force() {
+		if (readOnly) {
+			return;
+		}
+		for (MappedByteBuffer segment : segments) {
+			if (segment != null) {
+				segment.force();
+			}
+		}
+		header.force();
+	}
+
+	/**
+	 * 关闭文件, 映射的内存在被回收时释放
+	 */
+	public void close() throws IOException {
+		force();
+		segments = new MappedByteBuffer[0];
+		file.close();
+	}
+
+	private MappedByteBuffer segment(long index) throws IOException {
+		int n = (int) ((index << 3) >>> segmentShift);
+		if (n >= segments.length) {
+			segments = Arrays.copyOf(segments, n + 1);
+		}
+		MappedByteBuffer segment = segments[n];
+		if (segment == null || segment.limit() <= position(index)) {
+			segment = map(n);
+			segments[n] = segment;
+		}
+		return segment;
+	}
+
+	private MappedByteBuffer map(int n) throws IOException {
+		long start = HEADER_SIZE + ((long) n << segmentShift);
+		long length = 1L << segmentShift;
+		if (readOnly) {
+			// 只读时不能超出文件长度, 写入者追加后重新映射
+			length = Math.min(length, channel.size() - start);
+			return channel.map(MapMode.READ_ONLY, start, length);
+		}
+		return channel.map(MapMode.READ_WRITE, start, length);
+	}
+
+	/**
+	 * 内存屏障, 之前的读写不会与之后的读写重排序 (HotSpot在volatile写之后插入完整的屏障)
+	 */
+	private static void fence() {
+		barrier = 0;
+	}
+
+	private int position(long index) {
+		return (int) ((index << 3) & ((1L << segmentShift) - 1));
+	}
+
+	private void checkIndex(long index) {
+		if (index >= 0 && index < knownSize) {
+			return;
+		}
+		long size = size();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: "
+					+ size);
+		}
+	}
+
+}
@@ -0,0 +1,288 @@
+package com.darrenfang.datetime;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 批量解析时间文本到long[], 线程安全<br>
+ * 解析失败的记录不抛出异常, 在位图中标记其下标, 对应的时间戳为0。
+ * 指定ExecutorService时分块并行解析, 否则在当前线程解析。
+ */
+public final class DateTimeParser {
+
+	/**
+	 * 并行解析时每块的最少记录数
+	 */
+	private static final int MIN_CHUNK_RECORDS = 4096;
+
+	/**
+	 * 按行并行解析时每块的最少字符数
+	 */
+	private static final int MIN_CHUNK_CHARS = 64 * 1024;
+
+	private final DateTimePattern pattern;
+
+	private final ExecutorService executor;
+
+	/**
+	 * 创建在当前线程解析的DateTimeParser
+	 *
+	 * @param pattern
+	 */
+	public DateTimeParser(DateTimePattern pattern) {
+		this(pattern, null);
+	}
+
+	/**
+	 * 创建并行解析的DateTimeParser
+	 *
+	 * @param pattern
+	 * @param executor
+	 *            执行解析任务的线程池, 为null时在当前线程解析
+	 */
+	public DateTimeParser(DateTimePattern pattern, ExecutorService executor) {
+		if (pattern == null) {
+			throw new NullPointerException("pattern");
+		}
+		this.pattern = pattern;
+		this.executor = executor;
+	}
+
+	/**
+	 * 解析texts中的每个元素
+	 *
+	 * @param texts
+	 * @param dest
+	 *            保存时间戳, 长度不小于texts.size()
+	 * @param bad
+	 *            标记解析失败的下标, [0, texts.size())内的其它位被清除
+	 * @return 记录数, 即texts.size()
+	 * @throws InterruptedException
+	 *             等待并行解析时被中断
+	 */
+	public int parse(final List<? extends CharSequence> texts,
+			final long[] dest, final BitSet bad) throws InterruptedException {
+		final int count = texts.size();
+		checkDest(dest, count);
+		bad.clear(0, count);
+		int chunks = chunks(count, MIN_CHUNK_RECORDS);
+		if (chunks <= 1) {
+			parse(texts, 0, count, dest, bad);
+			return count;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks);
+		for (int i = 0; i < chunks; i++) {
+			final int from = (int) ((long) count * i / chunks);
+			final int to = (int) ((long) count * (i + 1) / chunks);
+			tasks.add(new Callable<Void>() {
+				public Void call() {
+					parse(texts, from, to, dest, bad);
+					return null;
+				}
+			});
+		}
+		invokeAll(tasks);
+		return count;
+	}
+
+	/**
+	 * 按行解析, 每行以时间开头<br>
+	 * 行以'\n'分隔, 忽略行尾的'\r', 最后一行可以没有'\n'。格式可直接解析且没有单个字母的字段 (如M, d) 时只解析行首与格式匹配的部分, 否则整行必须与格式匹配。
+	 *
+	 * @param text
+	 * @param dest
+	 *            保存时间戳, 长度不小于行数
+	 * @param bad
+	 *            标记解析失败的行号 (从0开始), [0, 行数)内的其它位被清除
+	 * @return 行数
+	 * @throws InterruptedException
+	 *             等待并行解析时被中断
+	 */
+	public int parseLines(final CharSequence text, final long[] dest,
+			final BitSet bad) throws InterruptedException {
+		final int length = text.length();
+		int chunks = chunks(length, MIN_CHUNK_CHARS);
+		if (chunks <= 1) {
+			int count = countLines(text, 0, length);
+			checkDest(dest, count);
+			bad.clear(0, count);
+			parseLines(text, 0, length, 0, dest, bad);
+			return count;
+		}
+
+		// 按字符数分块, 边界移到下一行的开头; 先并行计算每块的行数, 再并行解析
+		final int[] starts = new int[chunks + 1];
+		for (int i = 1; i < chunks; i++) {
+			int pos = Math.max(starts[i - 1], (int) ((long) length * i / chunks));
+			while (pos < length && (pos == 0 || text.charAt(pos - 1) != '\n')) {
+				pos++;
+			}
+			starts[i] = pos;
+		}
+		starts[chunks] = length;
+
+		final int[] lines = new int[chunks + 1];
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks);
+		for (int i = 0; i < chunks; i++) {
+			final int chunk = i;
+			tasks.add(new Callable<Void>() {
+				public Void call() {
+					lines[chunk + 1] = countLines(text, starts[chunk],
+							starts[chunk + 1]);
+					return null;
+				}
+			});
+		}
+		invokeAll(tasks);
+		for (int i = 0; i < chunks; i++) {
+			lines[i + 1] += lines[i];
+		}
+		int count = lines[chunks];
+		checkDest(dest, count);
+		bad.clear(0, count);
+
+		tasks.clear();
+		for (int i = 0; i < chunks; i++) {
+			final int chunk = i;
+			tasks.add(new Callable<Void>() {
+				public Void call() {
+					parseLines(text, starts[chunk], starts[chunk + 1],
+							lines[chunk], dest, bad);
+					return null;
+				}
+			});
+		}
+		invokeAll(tasks);
+		return count;
+	}
+
+	/**
+	 * 按行解析text中[offset, offset + length)的部分, 规则与parseLines(CharSequence, long[], BitSet)相同
+	 *
+	 * @param text
+	 * @param offset
+	 * @param length
+	 * @param dest
+	 * @param bad
+	 * @return 行数
+	 * @throws InterruptedException
+	 *             等待并行解析时被中断
+	 */
+	public int parseLines(char[] text, int offset, int length, long[] dest,
+			BitSet bad) throws InterruptedException {
+		return parseLines(CharBuffer.wrap(text, offset, length).slice(), dest,
+				bad);
+	}
+
+	private void parse(List<? extends CharSequence> texts, int from, int to,
+			long[] dest, BitSet bad) {
+		ParseResult result = new ParseResult();
+		TimeZone zone = DateTime.defaultZone();
+		for (int i = from; i < to; i++) {
+			CharSequence text = texts.get(i);
+			if (text != null
+					&& pattern.parse(text, 0, text.length(), zone, result)) {
+				dest[i] = result.getTime();
+			} else {
+				dest[i] = 0;
+				markBad(bad, i);
+			}
+		}
+	}
+
+	/**
+	 * 解析[from, to)中的各行, 第一行的行号为line
+	 */
+	private void parseLines(CharSequence text, int from, int to, int line,
+			long[] dest, BitSet bad) {
+		ParseResult result = new ParseResult();
+		TimeZone zone = DateTime.defaultZone();
+		boolean prefix = pattern.fixedLength >= 0;
+		int pos = from;
+		while (pos < to) {
+			int lineEnd = pos;
+			while (lineEnd < to && text.charAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int end = lineEnd;
+			if (end > pos && text.charAt(end - 1) == '\r') {
+				end--;
+			}
+			if (prefix ? pattern.parsePrefix(text, pos, end, zone, result)
+					: pattern.parse(text, pos, end, zone, result)) {
+				dest[line] = result.getTime();
+			} else {
+				dest[line] = 0;
+				markBad(bad, line);
+			}
+			line++;
+			pos = lineEnd + 1;
+		}
+	}
+
+	private static int countLines(CharSequence text, int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (text.charAt(i) == '\n') {
+				count++;
+			}
+		}
+		if (to > from && text.charAt(to - 1) != '\n') {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 解析失败的记录很少, 加锁设置位图 (BitSet不是线程安全的)
+	 */
+	private static void markBad(BitSet bad, int index) {
+		synchronized (bad) {
+			bad.set(index);
+		}
+	}
+
+	private int chunks(int size, int minChunk) {
+		if (executor == null) {
+			return 1;
+		}
+		int chunks = Math.min(size / minChunk, Runtime.getRuntime()
+				.availableProcessors() * 4);
+		return Math.max(chunks, 1);
+	}
+
+	private void invokeAll(List<Callable<Void>> tasks)
+			throws InterruptedException {
+		List<Future<Void>> futures = executor.invokeAll(tasks);
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+
+	private static void checkDest(long[] dest, int count) {
+		if (dest.length < count) {
+			throw new IllegalArgumentException("dest.length: " + dest.length
+					+ " < records: " + count);
+		}
+	}
+
+}
@@ -0,0 +1,1176 @@
+package com.darrenfang.datetime;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.time.FastDateFormat;
+
+/**
+ * 预编译的日期格式, 线程安全<br>
+ * 格式语法与SimpleDateFormat相同。由 y, M, MM, d, H, m, s, S, D 和文本组成的格式直接按字段计算,
+ * 不创建Calendar; 其它格式交由FastDateFormat处理。<br>
+ * 由 yyyy, M, MM, d, dd, H, HH, m, mm, s, ss, S, SSS 等数字字段和文本组成的格式直接逐字符解析,
+ * 并校验各字段的范围和月份的天数; 与SimpleDateFormat一样, 后面是文本的字段可以省略前面的0 (如"2013-1-5 3:4:5"),
+ * 数字字段前可以有空格。其它格式与DateUtils.parseDate一样使用宽松的SimpleDateFormat解析。<br>
+ * 解析失败时可通过ParseResult得到错误原因和位置, 不创建异常。
+ */
+public final class DateTimePattern {
+
+	/**
+	 * 缓存的格式数量上限, 超过后新的格式不再缓存
+	 */
+	static final int MAX_CACHE_SIZE = 256;
+
+	private static final ConcurrentHashMap<String, DateTimePattern> CACHE = new ConcurrentHashMap<String, DateTimePattern>();
+
+	static final int LITERAL = 0;
+	static final int YEAR = 1;
+	static final int YEAR_OF_CENTURY = 2;
+	static final int MONTH = 3;
+	static final int DAY = 4;
+	static final int HOUR = 5;
+	static final int MINUTE = 6;
+	static final int SECOND = 7;
+	static final int MILLISECOND = 8;
+	static final int DAY_OF_YEAR = 9;
+
+	/**
+	 * 每个格式缓存最近几秒的格式化结果, 必须为2的幂
+	 */
+	private static final int RECENT_SECONDS = 4;
+
+	private final String pattern;
+
+	/**
+	 * 各段的类型, 为null时表示不能直接计算, 使用FastDateFormat
+	 */
+	final int[] kinds;
+
+	/**
+	 * 各段的宽度 (模式字母的个数)
+	 */
+	final int[] widths;
+
+	/**
+	 * 文本段的内容
+	 */
+	final String[] literals;
+
+	/**
+	 * 是否可以按固定宽度直接解析
+	 */
+	private final boolean parseable;
+
+	/**
+	 * 可直接解析且所有字段宽度固定时, 为字段补齐位数时文本的长度; 否则为-1
+	 */
+	final int fixedLength;
+
+	/**
+	 * 可直接计算时格式化结果的最大长度; 否则为-1
+	 */
+	final int maxLength;
+
+	/**
+	 * 同一秒内的结果是否只有毫秒字段不同 (毫秒字段宽度不小于3, 位置固定)
+	 */
+	private final boolean cacheable;
+
+	/**
+	 * 最近几秒的格式化结果, 按秒的低位选择槽位<br>
+	 * 元素不可变 (final字段), 多个线程不加锁读写, 读到旧值时重新计算即可
+	 */
+	private final SecondText[] recent = new SecondText[RECENT_SECONDS];
+
+	private DateTimePattern(String pattern, int[] kinds, int[] widths,
+			String[] literals) {
+		this.pattern = pattern;
+		this.kinds = kinds;
+		this.widths = widths;
+		this.literals = literals;
+		this.parseable = isParseable(kinds, widths);
+		this.fixedLength = parseable ? fixedLength(kinds, widths, literals)
+				: -1;
+		this.maxLength = kinds == null ? -1 : maxLength(kinds, widths,
+				literals);
+		this.cacheable = isCacheable(kinds, widths);
+	}
+
+	/**
+	 * 获取编译后的格式, 相同的格式只编译一次
+	 *
+	 * @param pattern
+	 *            SimpleDateFormat格式
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             格式无效时
+	 */
+	public static DateTimePattern compile(String pattern) {
+		DateTimePattern compiled = CACHE.get(pattern);
+		if (compiled != null) {
+			return compiled;
+		}
+
+		compiled = create(pattern);
+		if (CACHE.size() < MAX_CACHE_SIZE) {
+			DateTimePattern existing = CACHE.putIfAbsent(pattern, compiled);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		return compiled;
+	}
+
+	private static DateTimePattern create(String pattern) {
+		if (pattern == null) {
+			throw new NullPointerException("pattern must not be null");
+		}
+
+		List<int[]> tokens = new ArrayList<int[]>();
+		List<String> texts = new ArrayList<String>();
+		boolean supported = true;
+		int length = pattern.length();
+		int i = 0;
+		while (i < length) {
+			char ch = pattern.charAt(i);
+			if (isLetter(ch)) {
+				int start = i;
+				while (i < length && pattern.charAt(i) == ch) {
+					i++;
+				}
+				int kind = kindOf(ch, i - start);
+				if (kind < 0) {
+					supported = false;
+				}
+				tokens.add(new int[] { kind, i - start });
+				texts.add(null);
+			} else {
+				// 单引号内为文本, 两个单引号表示一个单引号
+				StringBuilder text = new StringBuilder();
+				boolean quoted = false;
+				while (i < length && (quoted || !isLetter(pattern.charAt(i)))) {
+					ch = pattern.charAt(i++);
+					if (ch != '\'') {
+						text.append(ch);
+					} else if (i < length && pattern.charAt(i) == '\'') {
+						text.append('\'');
+						i++;
+					} else {
+						quoted = !quoted;
+					}
+				}
+				tokens.add(new int[] { LITERAL, 0 });
+				texts.add(text.toString());
+			}
+		}
+
+		if (!supported) {
+			// 校验格式, 与FastDateFormat的异常保持一致
+			FastDateFormat.getInstance(pattern);
+			return new DateTimePattern(pattern, null, null, null);
+		}
+
+		int size = tokens.size();
+		int[] kinds = new int[size];
+		int[] widths = new int[size];
+		String[] literals = new String[size];
+		for (int j = 0; j < size; j++) {
+			kinds[j] = tokens.get(j)[0];
+			widths[j] = tokens.get(j)[1];
+			literals[j] = texts.get(j);
+		}
+		return new DateTimePattern(pattern, kinds, widths, literals);
+	}
+
+	/**
+	 * 年份必须为4位, 宽度为1的字段后面不能紧跟其它字段
+	 */
+	private static boolean isParseable(int[] kinds, int[] widths) {
+		if (kinds == null) {
+			return false;
+		}
+		for (int i = 0; i < kinds.length; i++) {
+			switch (kinds[i]) {
+			case LITERAL:
+				break;
+			case YEAR:
+				if (widths[i] != 4) {
+					return false;
+				}
+				break;
+			case YEAR_OF_CENTURY:
+			case DAY_OF_YEAR:
+				return false;
+			default:
+				if (widths[i] == 1 && i + 1 < kinds.length
+						&& kinds[i + 1] != LITERAL) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static int fixedLength(int[] kinds, int[] widths,
+			String[] literals) {
+		int length = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			if (kinds[i] == LITERAL) {
+				length += literals[i].length();
+			} else if (widths[i] == 1) {
+				return -1;
+			} else {
+				length += widths[i];
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * 数字字段最多10位 (int的最大位数)
+	 */
+	private static int maxLength(int[] kinds, int[] widths, String[] literals) {
+		int length = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			length += kinds[i] == LITERAL ? literals[i].length() : Math.max(
+					widths[i], 10);
+		}
+		return length;
+	}
+
+	private static boolean isCacheable(int[] kinds, int[] widths) {
+		if (kinds == null) {
+			return false;
+		}
+		for (int i = 0; i < kinds.length; i++) {
+			if (kinds[i] == MILLISECOND && widths[i] < 3) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLetter(char ch) {
+		return (ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z');
+	}
+
+	/**
+	 * 模式字母对应的类型, 不支持时返回-1
+	 */
+	private static int kindOf(char letter, int width) {
+		switch (letter) {
+		case 'y':
+			return width == 2 ? YEAR_OF_CENTURY : YEAR;
+		case 'M':
+			return width <= 2 ? MONTH : -1;
+		case 'd':
+			return DAY;
+		case 'H':
+			return HOUR;
+		case 'm':
+			return MINUTE;
+		case 's':
+			return SECOND;
+		case 'S':
+			return MILLISECOND;
+		case 'D':
+			return DAY_OF_YEAR;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * 获取格式字符串
+	 *
+	 * @return
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * 按系统默认时区格式化
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @return
+	 */
+	public String format(long millis) {
+		return format(millis, DateTime.defaultZone());
+	}
+
+	/**
+	 * 按指定时区格式化
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @param zone
+	 *            时区
+	 * @return
+	 */
+	public String format(long millis, TimeZone zone) {
+		if (!canFormat(millis)) {
+			return FastDateFormat.getInstance(pattern, zone).format(millis);
+		}
+		if (cacheable) {
+			SecondText cached = secondText(millis, zone);
+			if (cached.millisPositions.length == 0) {
+				return cached.text;
+			}
+			char[] chars = cached.chars.clone();
+			cached.patchMillis(chars, millis);
+			return new String(chars);
+		}
+		return format(millis, zone, new StringBuilder(pattern.length() + 8))
+				.toString();
+	}
+
+	/**
+	 * 按指定时区格式化, 结果追加到buffer中, 不产生中间对象
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @param zone
+	 *            时区
+	 * @param buffer
+	 * @return buffer
+	 */
+	public StringBuilder format(long millis, TimeZone zone,
+			StringBuilder buffer) {
+		try {
+			format(millis, zone, (Appendable) buffer);
+		} catch (IOException e) {
+			// StringBuilder 不会抛出 IOException
+			throw new IllegalStateException(e);
+		}
+		return buffer;
+	}
+
+	/**
+	 * 按指定时区格式化, 结果追加到out中
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @param zone
+	 *            时区
+	 * @param out
+	 * @return out
+	 * @throws IOException
+	 */
+	public Appendable format(long millis, TimeZone zone, Appendable out)
+			throws IOException {
+		if (!canFormat(millis)) {
+			return out.append(FastDateFormat.getInstance(pattern, zone).format(
+					millis));
+		}
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		SecondText cached = cachedText(millis, offsets);
+		if (cached != null) {
+			return cached.appendTo(out, millis);
+		}
+
+		long local = millis + offsets.getOffset(millis);
+		long epochDay = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		int millisOfDay = (int) (local - epochDay
+				* DateTime.MILLISECONDS_PER_DAY);
+
+		for (int i = 0; i < kinds.length; i++) {
+			int kind = kinds[i];
+			if (kind == LITERAL) {
+				out.append(literals[i]);
+			} else {
+				appendNumber(out, fieldValue(kind, epochDay, millisOfDay),
+						formatWidth(kind, widths[i]));
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * 按指定时区格式化为ASCII, 写入dest中从offset开始的位置
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @param zone
+	 *            时区
+	 * @param dest
+	 * @param offset
+	 * @return 写入后的位置
+	 * @throws IllegalArgumentException
+	 *             结果包含非ASCII字符时
+	 */
+	public int format(long millis, TimeZone zone, byte[] dest, int offset) {
+		return format(millis, zone, dest, null, offset);
+	}
+
+	/**
+	 * 按指定时区格式化为ASCII, 写入dest中从index开始的位置 (绝对位置), 不改变dest的position
+	 *
+	 * @param millis
+	 *            时间戳
+	 * @param zone
+	 *            时区
+	 * @param dest
+	 *            堆内或直接内存的ByteBuffer
+	 * @param index
+	 * @return 写入后的位置
+	 * @throws IllegalArgumentException
+	 *             结果包含非ASCII字符时
+	 * @throws IndexOutOfBoundsException
+	 *             index不在[0, limit]内或写入超出limit时
+	 */
+	public int format(long millis, TimeZone zone, ByteBuffer dest, int index) {
+		if (index < 0 || index > dest.limit()) {
+			throw new IndexOutOfBoundsException("index: " + index
+					+ ", limit: " + dest.limit());
+		}
+		// 最长的结果也不超出limit时才直接写入数组, 否则逐字节写入, 超出时抛出异常
+		if (dest.hasArray() && maxLength >= 0 && canFormat(millis)
+				&& index <= dest.limit() - maxLength) {
+			int offset = dest.arrayOffset();
+			return format(millis, zone, dest.array(), null, offset + index)
+					- offset;
+		}
+		return format(millis, zone, null, dest, index);
+	}
+
+	/**
+	 * 格式化到byte[]或ByteBuffer, bytes为null时写入buffer
+	 */
+	private int format(long millis, TimeZone zone, byte[] bytes,
+			ByteBuffer buffer, int pos) {
+		if (!canFormat(millis)) {
+			String text = FastDateFormat.getInstance(pattern, zone).format(
+					millis);
+			for (int i = 0; i < text.length(); i++) {
+				pos = put(bytes, buffer, pos, text.charAt(i));
+			}
+			return pos;
+		}
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		SecondText cached = cachedText(millis, offsets);
+		if (cached != null && cached.bytes != null) {
+			return cached.copyTo(bytes, buffer, pos, millis);
+		}
+
+		long local = millis + offsets.getOffset(millis);
+		long epochDay = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		int millisOfDay = (int) (local - epochDay
+				* DateTime.MILLISECONDS_PER_DAY);
+
+		for (int i = 0; i < kinds.length; i++) {
+			int kind = kinds[i];
+			if (kind == LITERAL) {
+				String literal = literals[i];
+				for (int j = 0; j < literal.length(); j++) {
+					pos = put(bytes, buffer, pos, literal.charAt(j));
+				}
+				continue;
+			}
+			int value = fieldValue(kind, epochDay, millisOfDay);
+			int digits = digits(value);
+			for (int j = formatWidth(kind, widths[i]); j > digits; j--) {
+				pos = put(bytes, buffer, pos, '0');
+			}
+			// 从低位向高位写入
+			int end = pos + digits;
+			for (int j = end - 1; j >= pos; j--) {
+				put(bytes, buffer, j, (char) ('0' + value % 10));
+				value /= 10;
+			}
+			pos = end;
+		}
+		return pos;
+	}
+
+	private static int put(byte[] bytes, ByteBuffer buffer, int pos, char ch) {
+		if (ch > 0x7f) {
+			throw new IllegalArgumentException("non-ASCII character: " + ch);
+		}
+		if (bytes != null) {
+			bytes[pos] = (byte) ch;
+		} else {
+			buffer.put(pos, (byte) ch);
+		}
+		return pos + 1;
+	}
+
+	/**
+	 * 缓存中millis所在秒的格式化结果, 没有时返回null (不新建缓存项)<br>
+	 * 追加到Appendable或写入byte[]的格式化只读缓存, 未命中时直接计算, 不产生对象
+	 */
+	private SecondText cachedText(long millis, ZoneOffsets offsets) {
+		if (!cacheable) {
+			return null;
+		}
+		long second = Gregorian.floorDiv(millis,
+				DateTime.MILLISECONDS_PER_SECOND);
+		SecondText cached = recent[(int) second & (RECENT_SECONDS - 1)];
+		if (cached != null && cached.second == second
+				&& cached.offsets == offsets) {
+			return cached;
+		}
+		return null;
+	}
+
+	/**
+	 * 获取millis所在秒的格式化结果, 最近几秒内直接返回缓存, 否则计算后放入缓存
+	 */
+	private SecondText secondText(long millis, TimeZone zone) {
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		SecondText cached = cachedText(millis, offsets);
+		if (cached != null) {
+			return cached;
+		}
+		long second = Gregorian.floorDiv(millis,
+				DateTime.MILLISECONDS_PER_SECOND);
+		int slot = (int) second & (RECENT_SECONDS - 1);
+
+		// 时区偏移都是整秒, 同一秒内当地时间的秒以上字段相同
+		long start = second * DateTime.MILLISECONDS_PER_SECOND;
+		long local = start + offsets.getOffset(start);
+		long epochDay = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		int millisOfDay = (int) (local - epochDay
+				* DateTime.MILLISECONDS_PER_DAY);
+		StringBuilder text = new StringBuilder(maxLength);
+		int[] positions = new int[kinds.length * 2];
+		int count = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			int kind = kinds[i];
+			if (kind == LITERAL) {
+				text.append(literals[i]);
+				continue;
+			}
+			if (kind == MILLISECOND) {
+				positions[count++] = text.length();
+				positions[count++] = widths[i];
+			}
+			try {
+				appendNumber(text, fieldValue(kind, epochDay, millisOfDay),
+						formatWidth(kind, widths[i]));
+			} catch (IOException e) {
+				// StringBuilder 不会抛出 IOException
+				throw new IllegalStateException(e);
+			}
+		}
+		int[] millisPositions = new int[count];
+		System.arraycopy(positions, 0, millisPositions, 0, count);
+		cached = new SecondText(second, offsets, text.toString(),
+				millisPositions);
+		recent[slot] = cached;
+		return cached;
+	}
+
+	/**
+	 * 某一秒的格式化结果, 毫秒字段为0; 不可变
+	 */
+	private static final class SecondText {
+		final long second;
+
+		final ZoneOffsets offsets;
+
+		final String text;
+
+		final char[] chars;
+
+		/**
+		 * ASCII编码的结果, 包含非ASCII字符时为null
+		 */
+		final byte[] bytes;
+
+		/**
+		 * 毫秒字段的位置和宽度, 两个一组
+		 */
+		final int[] millisPositions;
+
+		SecondText(long second, ZoneOffsets offsets, String text,
+				int[] millisPositions) {
+			this.second = second;
+			this.offsets = offsets;
+			this.text = text;
+			this.chars = text.toCharArray();
+			this.millisPositions = millisPositions;
+			byte[] bytes = new byte[chars.length];
+			for (int i = 0; i < chars.length; i++) {
+				if (chars[i] > 0x7f) {
+					bytes = null;
+					break;
+				}
+				bytes[i] = (byte) chars[i];
+			}
+			this.bytes = bytes;
+		}
+
+		/**
+		 * 把millis的毫秒写入chars中的毫秒字段
+		 */
+		void patchMillis(char[] chars, long millis) {
+			int value = millisOfSecond(millis);
+			for (int i = 0; i < millisPositions.length; i += 2) {
+				int end = millisPositions[i] + millisPositions[i + 1];
+				int digits = value;
+				for (int j = end - 1; j >= end - 3; j--) {
+					chars[j] = (char) ('0' + digits % 10);
+					digits /= 10;
+				}
+			}
+		}
+
+		Appendable appendTo(Appendable out, long millis) throws IOException {
+			if (millisPositions.length == 0) {
+				return out.append(text);
+			}
+			int value = millisOfSecond(millis);
+			if (out instanceof StringBuilder) {
+				// 整段复制后改写毫秒字段
+				StringBuilder builder = (StringBuilder) out;
+				int base = builder.length();
+				builder.append(chars);
+				for (int i = 0; i < millisPositions.length; i += 2) {
+					int end = base + millisPositions[i] + millisPositions[i + 1];
+					int digits = value;
+					for (int j = end - 1; j >= end - 3; j--) {
+						builder.setCharAt(j, (char) ('0' + digits % 10));
+						digits /= 10;
+					}
+				}
+				return builder;
+			}
+			int pos = 0;
+			for (int i = 0; i < millisPositions.length; i += 2) {
+				out.append(text, pos, millisPositions[i]);
+				appendNumber(out, value, millisPositions[i + 1]);
+				pos = millisPositions[i] + millisPositions[i + 1];
+			}
+			return out.append(text, pos, text.length());
+		}
+
+		/**
+		 * 复制到byte[]或ByteBuffer, bytes为null时写入buffer
+		 * 
+		 * @return 写入后的位置
+		 */
+		int copyTo(byte[] dest, ByteBuffer buffer, int pos, long millis) {
+			int length = bytes.length;
+			if (dest != null) {
+				System.arraycopy(bytes, 0, dest, pos, length);
+			} else {
+				for (int i = 0; i < length; i++) {
+					buffer.put(pos + i, bytes[i]);
+				}
+			}
+			int value = millisOfSecond(millis);
+			for (int i = 0; i < millisPositions.length; i += 2) {
+				int end = pos + millisPositions[i] + millisPositions[i + 1];
+				int digits = value;
+				for (int j = end - 1; j >= end - 3; j--) {
+					byte digit = (byte) ('0' + digits % 10);
+					if (dest != null) {
+						dest[j] = digit;
+					} else {
+						buffer.put(j, digit);
+					}
+					digits /= 10;
+				}
+			}
+			return pos + length;
+		}
+
+		private static int millisOfSecond(long millis) {
+			return (int) Gregorian.floorMod(millis,
+					DateTime.MILLISECONDS_PER_SECOND);
+		}
+	}
+
+	/**
+	 * 获取字段的值
+	 */
+	private static int fieldValue(int kind, long epochDay, int millisOfDay) {
+		switch (kind) {
+		case YEAR:
+			return Gregorian.year(epochDay);
+		case YEAR_OF_CENTURY:
+			return Gregorian.year(epochDay) % 100;
+		case MONTH:
+			return Gregorian.month(epochDay);
+		case DAY:
+			return Gregorian.day(epochDay);
+		case HOUR:
+			return millisOfDay / 3600000;
+		case MINUTE:
+			return millisOfDay / 60000 % 60;
+		case SECOND:
+			return millisOfDay / 1000 % 60;
+		case MILLISECOND:
+			return millisOfDay % 1000;
+		default:
+			return Gregorian.dayOfYear(epochDay);
+		}
+	}
+
+	/**
+	 * 输出的最少位数: 年份至少4位, 两位年份固定2位
+	 */
+	private static int formatWidth(int kind, int width) {
+		switch (kind) {
+		case YEAR:
+			return width < 4 ? 4 : width;
+		case YEAR_OF_CENTURY:
+			return 2;
+		default:
+			return width;
+		}
+	}
+
+	/**
+	 * 按系统默认时区解析
+	 *
+	 * @param text
+	 * @return 时间戳
+	 * @throws ParseException
+	 *             格式不匹配或字段超出范围时
+	 */
+	public long parse(String text) throws ParseException {
+		return parse(text, DateTime.defaultZone());
+	}
+
+	/**
+	 * 按指定时区的当地时间解析
+	 *
+	 * @param text
+	 * @param zone
+	 *            时区
+	 * @return 时间戳
+	 * @throws ParseException
+	 *             格式不匹配或字段超出范围时
+	 */
+	public long parse(String text, TimeZone zone) throws ParseException {
+		ParseResult result = new ParseResult();
+		if (!parse(text, 0, text.length(), zone, result)) {
+			throw new ParseException("Unable to parse the date: " + text,
+					result.getErrorIndex());
+		}
+		return result.getTime();
+	}
+
+	/**
+	 * 按系统默认时区解析, 失败时不抛出异常
+	 *
+	 * @param text
+	 * @param result
+	 *            保存解析结果或失败原因
+	 * @return 是否成功
+	 */
+	public boolean parse(CharSequence text, ParseResult result) {
+		return parse(text, 0, text.length(), result);
+	}
+
+	/**
+	 * 按系统默认时区解析text中[start, end)的部分, 失败时不抛出异常
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @param result
+	 *            保存解析结果或失败原因, 错误位置为在text中的下标
+	 * @return 是否成功
+	 */
+	public boolean parse(CharSequence text, int start, int end,
+			ParseResult result) {
+		return parse(text, start, end, DateTime.defaultZone(), result);
+	}
+
+	/**
+	 * 按指定时区的当地时间解析text中[start, end)的部分, 失败时不抛出异常<br>
+	 * 当地时间因夏令时不存在时向后推移, 重复时取较晚的时刻, 与Calendar一致
+	 *
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @param zone
+	 *            时区
+	 * @param result
+	 *            保存解析结果或失败原因, 错误位置为在text中的下标
+	 * @return 是否成功
+	 */
+	public boolean parse(CharSequence text, int start, int end,
+			TimeZone zone, ParseResult result) {
+		if (!parseable) {
+			return parseLenient(text, start, end, zone, result);
+		}
+		return parse(text, start, end, zone, false, result);
+	}
+
+	/**
+	 * 只解析text中[start, end)开头与格式匹配的部分, 之后的文本忽略; 格式必须可直接解析
+	 */
+	boolean parsePrefix(CharSequence text, int start, int end, TimeZone zone,
+			ParseResult result) {
+		return parse(text, start, end, zone, true, result);
+	}
+
+	/**
+	 * 逐字符解析, prefix为true时允许之后有其它文本
+	 */
+	private boolean parse(CharSequence text, int start, int end,
+			TimeZone zone, boolean prefix, ParseResult result) {
+		int pos = start;
+		int year = 1970, month = 1, day = 1, hour = 0, minute = 0, second = 0, millisecond = 0;
+		int dayPos = start;
+		for (int i = 0; i < kinds.length; i++) {
+			int kind = kinds[i];
+			if (kind == LITERAL) {
+				String literal = literals[i];
+				int literalLength = literal.length();
+				for (int j = 0; j < literalLength; j++) {
+					if (pos == end || text.charAt(pos) != literal.charAt(j)) {
+						return result.fail(ParseResult.Status.MISMATCH, pos);
+					}
+					pos++;
+				}
+				continue;
+			}
+
+			while (pos < end && isSpace(text.charAt(pos))) {
+				pos++;
+			}
+			int fieldStart = pos;
+			int max = maxDigits(i);
+			int value = 0;
+			while (pos < end && pos - fieldStart < max) {
+				char ch = text.charAt(pos);
+				if (ch < '0' || ch > '9') {
+					break;
+				}
+				value = value * 10 + (ch - '0');
+				pos++;
+			}
+			if (pos - fieldStart < minDigits(i)) {
+				return result.fail(ParseResult.Status.MISMATCH, pos);
+			}
+			if (!inRange(kind, value)) {
+				return result.fail(ParseResult.Status.OUT_OF_RANGE, fieldStart);
+			}
+
+			switch (kind) {
+			case YEAR:
+				year = value;
+				break;
+			case MONTH:
+				month = value;
+				break;
+			case DAY:
+				day = value;
+				dayPos = fieldStart;
+				break;
+			case HOUR:
+				hour = value;
+				break;
+			case MINUTE:
+				minute = value;
+				break;
+			case SECOND:
+				second = value;
+				break;
+			case MILLISECOND:
+				millisecond = value;
+				break;
+			}
+		}
+		if (pos != end && (!prefix || isDigit(text.charAt(pos)))) {
+			// 只解析开头时, 之后紧跟数字说明最后的字段位数过多
+			return result.fail(ParseResult.Status.TRAILING_TEXT, pos);
+		}
+		return resolve(year, month, day, hour, minute, second, millisecond,
+				dayPos, zone, result);
+	}
+
+	/**
+	 * 按系统默认时区解析bytes中[start, end)的ASCII文本, 失败时不抛出异常
+	 *
+	 * @param bytes
+	 * @param start
+	 * @param end
+	 * @param result
+	 *            保存解析结果或失败原因, 错误位置为在bytes中的下标
+	 * @return 是否成功
+	 */
+	public boolean parse(byte[] bytes, int start, int end, ParseResult result) {
+		return parse(bytes, null, start, end, DateTime.defaultZone(), result);
+	}
+
+	/**
+	 * 按系统默认时区解析buffer中[start, end)的ASCII文本 (绝对位置), 不改变buffer的position, 失败时不抛出异常
+	 *
+	 * @param buffer
+	 *            堆内或直接内存的ByteBuffer
+	 * @param start
+	 * @param end
+	 * @param result
+	 *            保存解析结果或失败原因, 错误位置为在buffer中的绝对位置
+	 * @return 是否成功
+	 * @throws IndexOutOfBoundsException
+	 *             [start, end)不在[0, limit)内时
+	 */
+	public boolean parse(ByteBuffer buffer, int start, int end,
+			ParseResult result) {
+		if (start < 0 || start > end || end > buffer.limit()) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: "
+					+ end + ", limit: " + buffer.limit());
+		}
+		if (buffer.hasArray()) {
+			int offset = buffer.arrayOffset();
+			if (parse(buffer.array(), null, offset + start, offset + end,
+					DateTime.defaultZone(), result)) {
+				return true;
+			}
+			return result.fail(result.getStatus(), result.getErrorIndex()
+					- offset);
+		}
+		return parse(null, buffer, start, end, DateTime.defaultZone(), result);
+	}
+
+	/**
+	 * 解析byte[]或ByteBuffer中的ASCII文本, bytes为null时读取buffer
+	 */
+	private boolean parse(byte[] bytes, ByteBuffer buffer, int start,
+			int end, TimeZone zone, ParseResult result) {
+		if (!parseable) {
+			return parseLenient(bytes, buffer, start, end, zone, result);
+		}
+
+		int pos = start;
+		int year = 1970, month = 1, day = 1, hour = 0, minute = 0, second = 0, millisecond = 0;
+		int dayPos = start;
+		for (int i = 0; i < kinds.length; i++) {
+			int kind = kinds[i];
+			if (kind == LITERAL) {
+				String literal = literals[i];
+				int literalLength = literal.length();
+				for (int j = 0; j < literalLength; j++) {
+					if (pos == end
+							|| byteAt(bytes, buffer, pos) != literal.charAt(j)) {
+						return result.fail(ParseResult.Status.MISMATCH, pos);
+					}
+					pos++;
+				}
+				continue;
+			}
+
+			while (pos < end && isSpace((char) byteAt(bytes, buffer, pos))) {
+				pos++;
+			}
+			int fieldStart = pos;
+			int max = maxDigits(i);
+			int value = 0;
+			while (pos < end && pos - fieldStart < max) {
+				byte b = byteAt(bytes, buffer, pos);
+				if (b < '0' || b > '9') {
+					break;
+				}
+				value = value * 10 + (b - '0');
+				pos++;
+			}
+			if (pos - fieldStart < minDigits(i)) {
+				return result.fail(ParseResult.Status.MISMATCH, pos);
+			}
+			if (!inRange(kind, value)) {
+				return result.fail(ParseResult.Status.OUT_OF_RANGE, fieldStart);
+			}
+
+			switch (kind) {
+			case YEAR:
+				year = value;
+				break;
+			case MONTH:
+				month = value;
+				break;
+			case DAY:
+				day = value;
+				dayPos = fieldStart;
+				break;
+			case HOUR:
+				hour = value;
+				break;
+			case MINUTE:
+				minute = value;
+				break;
+			case SECOND:
+				second = value;
+				break;
+			case MILLISECOND:
+				millisecond = value;
+				break;
+			}
+		}
+		if (pos != end) {
+			return result.fail(ParseResult.Status.TRAILING_TEXT, pos);
+		}
+		return resolve(year, month, day, hour, minute, second, millisecond,
+				dayPos, zone, result);
+	}
+
+	/**
+	 * 第i个字段最多的位数: 宽度为1时不限位数 (月, 日, 时, 分, 秒最多2位, 毫秒最多3位)
+	 */
+	private int maxDigits(int i) {
+		int width = widths[i];
+		if (width > 1) {
+			return width;
+		}
+		return kinds[i] == MILLISECOND ? 3 : 2;
+	}
+
+	/**
+	 * 第i个字段最少的位数: 紧跟其它字段时必须补齐宽度, 否则可以省略前面的0 (如"2013-1-5 3:4:5")
+	 */
+	private int minDigits(int i) {
+		if (i + 1 < kinds.length && kinds[i + 1] != LITERAL) {
+			return widths[i];
+		}
+		return 1;
+	}
+
+	private static boolean isDigit(char ch) {
+		return ch >= '0' && ch <= '9';
+	}
+
+	/**
+	 * 数字字段前可以有空格, 与SimpleDateFormat一致
+	 */
+	private static boolean isSpace(char ch) {
+		return ch == ' ' || ch == '\t';
+	}
+
+	private static byte byteAt(byte[] bytes, ByteBuffer buffer, int index) {
+		return bytes != null ? bytes[index] : buffer.get(index);
+	}
+
+	private static boolean inRange(int kind, int value) {
+		switch (kind) {
+		case YEAR:
+			return value >= 1;
+		case MONTH:
+			return value >= 1 && value <= 12;
+		case DAY:
+			return value >= 1 && value <= 31;
+		case HOUR:
+			return value <= 23;
+		case MINUTE:
+		case SECOND:
+			return value <= 59;
+		default:
+			return value <= 999;
+		}
+	}
+
+	/**
+	 * 校验月份的天数后按时区计算时间戳
+	 */
+	private static boolean resolve(int year, int month, int day, int hour,
+			int minute, int second, int millisecond, int dayPos,
+			TimeZone zone, ParseResult result) {
+		if (day > Gregorian.lengthOfMonth(year, month)) {
+			return result.fail(ParseResult.Status.OUT_OF_RANGE, dayPos);
+		}
+		return result.succeed(DateTime.toInstant(year, month, day, hour,
+				minute, second, millisecond, zone));
+	}
+
+	/**
+	 * 按ASCII文本宽松解析byte[]或ByteBuffer, bytes为null时读取buffer
+	 */
+	private boolean parseLenient(byte[] bytes, ByteBuffer buffer, int start,
+			int end, TimeZone zone, ParseResult result) {
+		StringBuilder text = new StringBuilder(end - start);
+		for (int i = start; i < end; i++) {
+			text.append((char) (byteAt(bytes, buffer, i) & 0xff));
+		}
+		if (parseLenient(text, 0, text.length(), zone, result)) {
+			return true;
+		}
+		return result.fail(result.getStatus(), start + result.getErrorIndex());
+	}
+
+	/**
+	 * 不能直接解析的格式使用宽松的SimpleDateFormat解析, 与DateUtils.parseDate一致
+	 */
+	private boolean parseLenient(CharSequence text, int start, int end,
+			TimeZone zone, ParseResult result) {
+		String str = text.subSequence(start, end).toString();
+		String applied = pattern;
+		// LANG-530, 与DateUtils.parseDate的处理一致
+		if (pattern.endsWith("ZZ")) {
+			applied = pattern.substring(0, pattern.length() - 1);
+			str = str.replaceAll("([-+][0-9][0-9]):([0-9][0-9])$", "$1$2");
+		}
+
+		SimpleDateFormat parser = new SimpleDateFormat(applied);
+		parser.setLenient(true);
+		parser.setTimeZone(zone);
+		ParsePosition position = new ParsePosition(0);
+		Date date = parser.parse(str, position);
+		if (date == null) {
+			return result.fail(ParseResult.Status.MISMATCH, start
+					+ position.getErrorIndex());
+		}
+		if (position.getIndex() != str.length()) {
+			return result.fail(ParseResult.Status.TRAILING_TEXT, start
+					+ position.getIndex());
+		}
+		return result.succeed(date.getTime());
+	}
+
+	/**
+	 * 格里高利历启用前的日期交由FastDateFormat处理
+	 */
+	private boolean canFormat(long millis) {
+		return kinds != null && millis >= Gregorian.CUTOVER_MILLIS;
+	}
+
+	/**
+	 * 输出非负整数, 位数不足width时前面补0
+	 */
+	static void appendNumber(Appendable out, int value, int width)
+			throws IOException {
+		int digits = digits(value);
+		for (int i = digits; i < width; i++) {
+			out.append('0');
+		}
+		for (int divisor = pow10(digits - 1); divisor > 0; divisor /= 10) {
+			out.append((char) ('0' + value / divisor % 10));
+		}
+	}
+
+	static int digits(int value) {
+		int digits = 1;
+		while (value >= 10) {
+			value /= 10;
+			digits++;
+		}
+		return digits;
+	}
+
+	private static int pow10(int n) {
+		int result = 1;
+		while (n-- > 0) {
+			result *= 10;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+
+}
@@ -0,0 +1,474 @@
+package com.darrenfang.datetime;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 时间段[start, end), 包含开始时间, 不包含结束时间。不可变, 线程安全<br>
+ * 比较, 交集等运算只使用时间戳; 按天, 月等单位遍历时使用时区的当地时间,
+ * 遍历按步长递推, 返回LongIterator, 不创建DateTime和Calendar。
+ */
+public final class DateTimeRange implements Serializable {
+
+	private static final long serialVersionUID = -2361829408135117706L;
+
+	private final long start;
+
+	private final long end;
+
+	/**
+	 * 时区, 不为null; 系统默认时区在创建时确定
+	 */
+	private final TimeZone zone;
+
+	/**
+	 * 按系统默认时区创建
+	 *
+	 * @param start
+	 *            开始时间 (包含)
+	 * @param end
+	 *            结束时间 (不包含), 不早于start
+	 */
+	public DateTimeRange(long start, long end) {
+		this(start, end, null);
+	}
+
+	/**
+	 * @param start
+	 *            开始时间 (包含)
+	 * @param end
+	 *            结束时间 (不包含), 不早于start
+	 * @param zone
+	 *            按天, 月等单位遍历时使用的时区, 为null时为系统默认时区
+	 */
+	public DateTimeRange(long start, long end, TimeZone zone) {
+		if (end < start) {
+			throw new IllegalArgumentException("end " + end
+					+ " is before start " + start);
+		}
+		this.start = start;
+		this.end = end;
+		this.zone = DateTime.normalize(zone);
+	}
+
+	/**
+	 * 使用start的时区
+	 *
+	 * @param start
+	 *            开始时间 (包含)
+	 * @param end
+	 *            结束时间 (不包含), 不早于start
+	 */
+	public DateTimeRange(DateTime start, DateTime end) {
+		this(start.getTime(), end.getTime(), start.getTimeZone());
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * 获取时区的副本
+	 *
+	 * @return
+	 */
+	public TimeZone getTimeZone() {
+		return (TimeZone) getZone().clone();
+	}
+
+	/**
+	 * 时长 (毫秒)
+	 *
+	 * @return
+	 */
+	public long getDuration() {
+		return end - start;
+	}
+
+	/**
+	 * 开始时间与结束时间相同时为空
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return start == end;
+	}
+
+	/**
+	 * 是否包含timestamp
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public boolean contains(long timestamp) {
+		return timestamp >= start && timestamp < end;
+	}
+
+	/**
+	 * 是否包含dateTime
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public boolean contains(DateTime dateTime) {
+		return contains(dateTime.getTime());
+	}
+
+	/**
+	 * 是否完整包含range
+	 *
+	 * @param range
+	 * @return
+	 */
+	public boolean contains(DateTimeRange range) {
+		return range.start >= start && range.end <= end;
+	}
+
+	/**
+	 * 是否有重叠部分, 首尾相接不算重叠
+	 *
+	 * @param range
+	 * @return
+	 */
+	public boolean overlaps(DateTimeRange range) {
+		return start < range.end && range.start < end;
+	}
+
+	/**
+	 * 是否首尾相接
+	 *
+	 * @param range
+	 * @return
+	 */
+	public boolean abuts(DateTimeRange range) {
+		return end == range.start || range.end == start;
+	}
+
+	/**
+	 * 获取重叠部分, 使用本对象的时区
+	 *
+	 * @param range
+	 * @return 没有重叠时返回null
+	 */
+	public DateTimeRange intersection(DateTimeRange range) {
+		if (!overlaps(range)) {
+			return null;
+		}
+		return create(Math.max(start, range.start), Math.min(end, range.end));
+	}
+
+	/**
+	 * 获取两个时间段之间的间隔, 使用本对象的时区
+	 *
+	 * @param range
+	 * @return 有重叠时返回null, 首尾相接时返回空的时间段
+	 */
+	public DateTimeRange gap(DateTimeRange range) {
+		if (overlaps(range)) {
+			return null;
+		}
+		return create(Math.min(end, range.end), Math.max(start, range.start));
+	}
+
+	/**
+	 * 获取同时包含两个时间段的最短时间段, 使用本对象的时区
+	 *
+	 * @param range
+	 * @return
+	 */
+	public DateTimeRange span(DateTimeRange range) {
+		return create(Math.min(start, range.start), Math.max(end, range.end));
+	}
+
+	/**
+	 * 从开始时间起, 每次增加1个unit, 遍历早于结束时间的时间点
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public LongIterator iterator(Unit unit) {
+		return iterator(1, unit);
+	}
+
+	/**
+	 * 从开始时间起, 每次增加amount个unit, 遍历早于结束时间的时间点<br>
+	 * 天和星期按当地时间增加, 保持一天中的时间不变, 与DateTime.addDays相同
+	 * (夏令时开始时不存在的时间取前一个偏移下的时间, 如02:30为01:30);
+	 * 月和年由开始时间计算, 目标月份没有对应的日时取该月最后一天 (1月31日之后为2月28日, 3月31日);
+	 * 小时及以下按固定毫秒数增加。
+	 *
+	 * @param amount
+	 *            步长, 大于0
+	 * @param unit
+	 * @return
+	 */
+	public LongIterator iterator(int amount, Unit unit) {
+		if (amount <= 0) {
+			throw new IllegalArgumentException("amount: " + amount);
+		}
+		if (unit == null) {
+			throw new NullPointerException("unit");
+		}
+		return new Steps(start, end, amount, unit, getZone());
+	}
+
+	/**
+	 * 遍历时间段内每个unit开始的时刻 (当地时间), 星期以星期日开始
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public LongIterator boundaries(Unit unit) {
+		return boundaries(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 遍历时间段内每个unit开始的时刻 (当地时间), 即与TimeBucket的桶对应的开始时间
+	 *
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public LongIterator boundaries(Unit unit, Weekday firstDayOfWeek) {
+		final TimeBucket bucket = TimeBucket.of(unit, getZone(),
+				firstDayOfWeek);
+		long index = bucket.index(start);
+		if (bucket.start(index) < start) {
+			index++;
+		}
+		final long first = index;
+		return new LongIterator() {
+			private long index = first;
+
+			private long next = bucket.start(first);
+
+			public boolean hasNext() {
+				return next < end;
+			}
+
+			public long next() {
+				if (next >= end) {
+					throw new NoSuchElementException();
+				}
+				long result = next;
+				// 夏令时开始时跳过的当地时间没有对应的时刻, 与下一个边界相同
+				do {
+					next = bucket.start(++index);
+				} while (next <= result);
+				return result;
+			}
+		};
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = start * 31 + end;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * 开始时间, 结束时间和时区都相同时相等 (未指定时区时为系统默认时区)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DateTimeRange))
+			return false;
+		DateTimeRange other = (DateTimeRange) obj;
+		return start == other.start && end == other.end
+				&& (zone == other.zone || getZone().equals(other.getZone()));
+	}
+
+	@Override
+	public String toString() {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		TimeZone zone = getZone();
+		return "[" + pattern.format(start, zone) + ", "
+				+ pattern.format(end, zone) + ")";
+	}
+
+	private DateTimeRange create(long start, long end) {
+		return new DateTimeRange(start, end, zone);
+	}
+
+	private TimeZone getZone() {
+		return zone;
+	}
+
+	/**
+	 * 按步长递推的时间点<br>
+	 * 第k个时间点由开始时间的当地日期加上k * amount个单位直接计算, 不累计误差
+	 */
+	private static final class Steps implements LongIterator {
+
+		private final long start;
+
+		private final long end;
+
+		private final Unit unit;
+
+		private final TimeZone zone;
+
+		private final ZoneOffsets offsets;
+
+		/**
+		 * 每步增加的毫秒数(小时及以下), 天数(天和星期)或月数(月和年)
+		 */
+		private final long step;
+
+		/**
+		 * 开始时间的当地日期 (1970-01-01起的天数)
+		 */
+		private final long startDay;
+
+		private final long millisOfDay;
+
+		/**
+		 * 开始时间的当地月份 (公元0年1月起的月数)
+		 */
+		private final long startMonth;
+
+		private final int dayOfMonth;
+
+		/**
+		 * 儒略历的日期由Calendar计算
+		 */
+		private final boolean julian;
+
+		private long k;
+
+		private long next;
+
+		Steps(long start, long end, int amount, Unit unit, TimeZone zone) {
+			this.start = start;
+			this.end = end;
+			this.unit = unit;
+			this.zone = zone;
+			this.offsets = ZoneOffsets.of(zone);
+			this.next = start;
+			long local = start + offsets.getOffset(start);
+			this.startDay = Gregorian.floorDiv(local,
+					DateTime.MILLISECONDS_PER_DAY);
+			this.millisOfDay = local - startDay * DateTime.MILLISECONDS_PER_DAY;
+			this.startMonth = Gregorian.year(startDay) * 12L
+					+ Gregorian.month(startDay) - 1;
+			this.dayOfMonth = Gregorian.day(startDay);
+			this.julian = start < Gregorian.CUTOVER_MILLIS
+					+ DateTime.MILLISECONDS_PER_DAY;
+			switch (unit) {
+			case MILLISECOND:
+				step = amount;
+				break;
+			case SECOND:
+				step = amount * DateTime.MILLISECONDS_PER_SECOND;
+				break;
+			case MINUTE:
+				step = amount * DateTime.MILLISECONDS_PER_MINUTE;
+				break;
+			case HOUR:
+				step = amount * DateTime.MILLISECONDS_PER_HOUR;
+				break;
+			case DAY:
+				step = amount;
+				break;
+			case WEEK:
+				step = amount * 7L;
+				break;
+			case MONTH:
+				step = amount;
+				break;
+			default:
+				step = amount * 12L;
+			}
+		}
+
+		public boolean hasNext() {
+			return next < end;
+		}
+
+		public long next() {
+			if (next >= end) {
+				throw new NoSuchElementException();
+			}
+			long result = next;
+			k++;
+			next = compute();
+			if (next <= result) {
+				// 溢出
+				next = Long.MAX_VALUE;
+			}
+			return result;
+		}
+
+		/**
+		 * 计算第k个时间点
+		 */
+		private long compute() {
+			long local;
+			switch (unit) {
+			case MILLISECOND:
+			case SECOND:
+			case MINUTE:
+			case HOUR:
+				return next + step;
+			case DAY:
+			case WEEK:
+				if (julian) {
+					return DateTime.addField(start, zone,
+							Calendar.DAY_OF_MONTH, (int) (k * step));
+				}
+				return addDays(startDay + k * step);
+			default:
+				if (julian) {
+					return DateTime.addField(start, zone, Calendar.MONTH,
+							(int) (k * step));
+				}
+				long month = startMonth + k * step;
+				int y = (int) Gregorian.floorDiv(month, 12);
+				int m = (int) Gregorian.floorMod(month, 12) + 1;
+				int d = Math.min(dayOfMonth, Gregorian.lengthOfMonth(y, m));
+				local = Gregorian.toEpochDay(y, m, d)
+						* DateTime.MILLISECONDS_PER_DAY + millisOfDay;
+			}
+			if (offsets.covers(local)) {
+				return offsets.localToInstant(local);
+			}
+			return DateTime.localToInstant(local, zone);
+		}
+
+		/**
+		 * 与GregorianCalendar.add(DAY_OF_MONTH)相同: 先按开始时间的偏移换算,
+		 * 偏移不同时按偏移之差调整, 调整后日期改变则不调整<br>
+		 * 所以切换时跳过的时间取切换前一小时 (02:30为01:30), 重复的时间尽量保持开始时间的偏移
+		 */
+		private long addDays(long epochDay) {
+			long local = epochDay * DateTime.MILLISECONDS_PER_DAY + millisOfDay;
+			int startOffset = offsets.getOffset(start);
+			long time = local - startOffset;
+			int delta = startOffset - offsets.getOffset(time);
+			if (delta != 0) {
+				long adjusted = time + delta;
+				long day = Gregorian.floorDiv(
+						adjusted + offsets.getOffset(adjusted),
+						DateTime.MILLISECONDS_PER_DAY);
+				if (day == epochDay) {
+					return adjusted;
+				}
+			}
+			return time;
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.darrenfang.datetime;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+
+/**
+ * 按时间戳原地排序 (内省排序: 快速排序, 深度过大时改用堆排序, 小区间使用插入排序)<br>
+ * 不稳定, 不分配临时数组; 直接读取时间戳比较, 不创建Date对象。
+ */
+final class DateTimeSort {
+
+	/**
+	 * 小于此长度的区间使用插入排序
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private DateTimeSort() {
+	}
+
+	/**
+	 * 排序list中[from, to)区间的元素
+	 *
+	 * @param list
+	 *            必须支持随机访问
+	 * @param from
+	 * @param to
+	 */
+	static void sort(List<DateTime> list, int from, int to) {
+		int depth = 0;
+		for (int n = to - from; n > 1; n >>>= 1) {
+			depth += 2;
+		}
+		sort(list, from, to - 1, depth);
+	}
+
+	/**
+	 * 排序整个list, 不支持随机访问的list先复制到数组中排序
+	 *
+	 * @param list
+	 */
+	static void sort(List<DateTime> list) {
+		if (list instanceof RandomAccess) {
+			sort(list, 0, list.size());
+			return;
+		}
+		DateTime[] array = list.toArray(new DateTime[list.size()]);
+		DateTime.sort(array);
+		ListIterator<DateTime> it = list.listIterator();
+		for (DateTime dateTime : array) {
+			it.next();
+			it.set(dateTime);
+		}
+	}
+
+	private static void sort(List<DateTime> a, int lo, int hi, int depth) {
+		while (hi - lo >= INSERTION_SORT_THRESHOLD) {
+			if (depth-- == 0) {
+				heapSort(a, lo, hi);
+				return;
+			}
+			// 三数取中, 同时保证a[lo] <= pivot <= a[hi], 扫描不会越界
+			int mid = (lo + hi) >>> 1;
+			if (key(a, mid) < key(a, lo)) {
+				swap(a, lo, mid);
+			}
+			if (key(a, hi) < key(a, lo)) {
+				swap(a, lo, hi);
+			}
+			if (key(a, hi) < key(a, mid)) {
+				swap(a, mid, hi);
+			}
+			long pivot = key(a, mid);
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (key(a, i) < pivot) {
+					i++;
+				}
+				while (key(a, j) > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(a, i++, j--);
+				}
+			}
+			// 先递归较短的一侧, 栈深度不超过log(n)
+			if (j - lo < hi - i) {
+				sort(a, lo, j, depth);
+				lo = i;
+			} else {
+				sort(a, i, hi, depth);
+				hi = j;
+			}
+		}
+		insertionSort(a, lo, hi);
+	}
+
+	private static void insertionSort(List<DateTime> a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			DateTime x = a.get(i);
+			long key = x.getTime();
+			int j = i - 1;
+			for (; j >= lo; j--) {
+				DateTime y = a.get(j);
+				if (y.getTime() <= key) {
+					break;
+				}
+				a.set(j + 1, y);
+			}
+			a.set(j + 1, x);
+		}
+	}
+
+	private static void heapSort(List<DateTime> a, int lo, int hi) {
+		int n = hi - lo + 1;
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(a, lo, i, n);
+		}
+		for (int end = n - 1; end > 0; end--) {
+			swap(a, lo, lo + end);
+			siftDown(a, lo, 0, end);
+		}
+	}
+
+	private static void siftDown(List<DateTime> a, int lo, int i, int n) {
+		DateTime x = a.get(lo + i);
+		long key = x.getTime();
+		int child;
+		while ((child = 2 * i + 1) < n) {
+			if (child + 1 < n && key(a, lo + child + 1) > key(a, lo + child)) {
+				child++;
+			}
+			DateTime c = a.get(lo + child);
+			if (key >= c.getTime()) {
+				break;
+			}
+			a.set(lo + i, c);
+			i = child;
+		}
+		a.set(lo + i, x);
+	}
+
+	private static long key(List<DateTime> a, int i) {
+		return a.get(i).getTime();
+	}
+
+	private static void swap(List<DateTime> a, int i, int j) {
+		a.set(j, a.set(i, a.get(j)));
+	}
+
+}
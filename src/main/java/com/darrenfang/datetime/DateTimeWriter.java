@@ -0,0 +1,240 @@
+package com.darrenfang.datetime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.TimeZone;
+
+/**
+ * 批量格式化时间戳并写入输出流, 时间之间以分隔符隔开<br>
+ * 使用内部缓冲区, 每行不创建对象。非线程安全, 每个线程使用自己的实例。
+ * 写入OutputStream和WritableByteChannel时按ASCII编码, 遇到非ASCII字符时抛出IllegalArgumentException。
+ */
+public final class DateTimeWriter {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final DateTimePattern pattern;
+
+	private final TimeZone zone;
+
+	private final String separator;
+
+	/**
+	 * 每行 (时间加分隔符) 需要预留的字节数, 为-1时逐字符编码
+	 */
+	private final int rowLength;
+
+	private final byte[] bytes = new byte[BUFFER_SIZE];
+
+	private final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+
+	private final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+
+	private char[] chars = new char[BUFFER_SIZE];
+
+	/**
+	 * 按系统默认时区格式化, 以换行符分隔
+	 *
+	 * @param pattern
+	 */
+	public DateTimeWriter(DateTimePattern pattern) {
+		this(pattern, DateTime.defaultZone(), "\n");
+	}
+
+	/**
+	 * @param pattern
+	 * @param zone
+	 *            时区
+	 * @param separator
+	 *            写在两个时间之间的分隔符
+	 */
+	public DateTimeWriter(DateTimePattern pattern, TimeZone zone,
+			String separator) {
+		if (pattern == null || zone == null || separator == null) {
+			throw new NullPointerException();
+		}
+		this.pattern = pattern;
+		this.zone = zone;
+		this.separator = separator;
+		int length = pattern.maxLength + separator.length();
+		this.rowLength = pattern.maxLength < 0 || length > BUFFER_SIZE ? -1
+				: length;
+	}
+
+	/**
+	 * 写入timestamps中[offset, offset + length)的时间
+	 *
+	 * @param timestamps
+	 * @param offset
+	 * @param length
+	 * @param out
+	 *            Writer时直接写入字符数组
+	 * @throws IOException
+	 */
+	public void write(long[] timestamps, int offset, int length, Appendable out)
+			throws IOException {
+		write(DateTimeArray.iterator(timestamps, offset, length), out);
+	}
+
+	/**
+	 * 写入iterator中剩余的时间
+	 *
+	 * @param iterator
+	 * @param out
+	 *            Writer时直接写入字符数组
+	 * @throws IOException
+	 */
+	public void write(LongIterator iterator, Appendable out)
+			throws IOException {
+		Writer writer = out instanceof Writer ? (Writer) out : null;
+		text.setLength(0);
+		boolean first = true;
+		while (iterator.hasNext()) {
+			if (!first) {
+				text.append(separator);
+			}
+			first = false;
+			pattern.format(iterator.next(), zone, text);
+			if (text.length() >= BUFFER_SIZE) {
+				flush(writer, out);
+			}
+		}
+		flush(writer, out);
+	}
+
+	/**
+	 * 按ASCII编码写入timestamps中[offset, offset + length)的时间
+	 *
+	 * @param timestamps
+	 * @param offset
+	 * @param length
+	 * @param out
+	 * @throws IOException
+	 */
+	public void write(long[] timestamps, int offset, int length,
+			OutputStream out) throws IOException {
+		write(DateTimeArray.iterator(timestamps, offset, length), out, null);
+	}
+
+	/**
+	 * 按ASCII编码写入iterator中剩余的时间
+	 *
+	 * @param iterator
+	 * @param out
+	 * @throws IOException
+	 */
+	public void write(LongIterator iterator, OutputStream out)
+			throws IOException {
+		write(iterator, out, null);
+	}
+
+	/**
+	 * 按ASCII编码写入timestamps中[offset, offset + length)的时间
+	 *
+	 * @param timestamps
+	 * @param offset
+	 * @param length
+	 * @param channel
+	 * @throws IOException
+	 */
+	public void write(long[] timestamps, int offset, int length,
+			WritableByteChannel channel) throws IOException {
+		write(DateTimeArray.iterator(timestamps, offset, length), null,
+				channel);
+	}
+
+	/**
+	 * 按ASCII编码写入iterator中剩余的时间
+	 *
+	 * @param iterator
+	 * @param channel
+	 * @throws IOException
+	 */
+	public void write(LongIterator iterator, WritableByteChannel channel)
+			throws IOException {
+		write(iterator, null, channel);
+	}
+
+	/**
+	 * 写入OutputStream或WritableByteChannel, out为null时写入channel
+	 */
+	private void write(LongIterator iterator, OutputStream out,
+			WritableByteChannel channel) throws IOException {
+		int pos = 0;
+		boolean first = true;
+		while (iterator.hasNext()) {
+			long millis = iterator.next();
+			if (rowLength < 0) {
+				// 长度无法预知的格式, 先格式化为字符再逐个编码
+				text.setLength(0);
+				if (!first) {
+					text.append(separator);
+				}
+				pattern.format(millis, zone, text);
+				for (int i = 0; i < text.length(); i++) {
+					if (pos == BUFFER_SIZE) {
+						pos = flush(pos, out, channel);
+					}
+					pos = put(pos, text.charAt(i));
+				}
+			} else {
+				if (BUFFER_SIZE - pos < rowLength) {
+					pos = flush(pos, out, channel);
+				}
+				if (!first) {
+					for (int i = 0; i < separator.length(); i++) {
+						pos = put(pos, separator.charAt(i));
+					}
+				}
+				pos = pattern.format(millis, zone, bytes, pos);
+			}
+			first = false;
+		}
+		flush(pos, out, channel);
+	}
+
+	private int put(int pos, char ch) {
+		if (ch > 0x7f) {
+			throw new IllegalArgumentException("non-ASCII character: " + ch);
+		}
+		bytes[pos] = (byte) ch;
+		return pos + 1;
+	}
+
+	private int flush(int length, OutputStream out, WritableByteChannel channel)
+			throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		if (out != null) {
+			out.write(bytes, 0, length);
+			return 0;
+		}
+		byteBuffer.clear().limit(length);
+		while (byteBuffer.hasRemaining()) {
+			channel.write(byteBuffer);
+		}
+		return 0;
+	}
+
+	private void flush(Writer writer, Appendable out) throws IOException {
+		int length = text.length();
+		if (length == 0) {
+			return;
+		}
+		if (writer != null) {
+			if (chars.length < length) {
+				chars = new char[length];
+			}
+			text.getChars(0, length, chars, 0);
+			writer.write(chars, 0, length);
+		} else {
+			out.append(text);
+		}
+		text.setLength(0);
+	}
+
+}
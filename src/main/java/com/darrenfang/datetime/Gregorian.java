@@ -0,0 +1,139 @@
+package com.darrenfang.datetime;
+
+/**
+ * 公历(格里高利历)日期计算, 以1970-01-01为第0天
+ */
+final class Gregorian {
+
+	/**
+	 * 格里高利历启用时间(1582-10-15 00:00:00 GMT), 之前的日期使用儒略历, 交由Calendar计算
+	 */
+	static final long CUTOVER_MILLIS = -12219292800000L;
+
+	/**
+	 * 0000-03-01 至 1970-01-01 的天数
+	 */
+	private static final long DAYS_0000_TO_1970 = 719468;
+
+	/**
+	 * 每400年的天数
+	 */
+	private static final long DAYS_PER_CYCLE = 146097;
+
+	private Gregorian() {
+	}
+
+	static long floorDiv(long x, long y) {
+		long q = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) {
+			q--;
+		}
+		return q;
+	}
+
+	static long floorMod(long x, long y) {
+		long m = x % y;
+		if (m != 0 && ((m ^ y) < 0)) {
+			m += y;
+		}
+		return m;
+	}
+
+	/**
+	 * 计算年, 月, 日对应的天数
+	 *
+	 * @param year
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 * @return 自1970-01-01起的天数
+	 */
+	static long toEpochDay(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = floorDiv(y, 400);
+		long yoe = y - era * 400;
+		long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day
+				- 1;
+		long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * DAYS_PER_CYCLE + doe - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * 获取年份
+	 */
+	static int year(long epochDay) {
+		long z = epochDay + DAYS_0000_TO_1970;
+		long era = floorDiv(z, DAYS_PER_CYCLE);
+		long doe = z - era * DAYS_PER_CYCLE;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		return (int) (yoe + era * 400 + (mp >= 10 ? 1 : 0));
+	}
+
+	/**
+	 * 获取月份 (1月为1)
+	 */
+	static int month(long epochDay) {
+		long z = epochDay + DAYS_0000_TO_1970;
+		long doe = z - floorDiv(z, DAYS_PER_CYCLE) * DAYS_PER_CYCLE;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		return (int) (mp < 10 ? mp + 3 : mp - 9);
+	}
+
+	/**
+	 * 获取日 (1号为1)
+	 */
+	static int day(long epochDay) {
+		long z = epochDay + DAYS_0000_TO_1970;
+		long doe = z - floorDiv(z, DAYS_PER_CYCLE) * DAYS_PER_CYCLE;
+		long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp = (5 * doy + 2) / 153;
+		return (int) (doy - (153 * mp + 2) / 5 + 1);
+	}
+
+	/**
+	 * 获取是一年中的第几天 (1月1日为1)
+	 */
+	static int dayOfYear(long epochDay) {
+		return (int) (epochDay - toEpochDay(year(epochDay), 1, 1)) + 1;
+	}
+
+	/**
+	 * 获取是一个星期中的第几天 (与Calendar一致, 星期日为1)
+	 */
+	static int dayOfWeek(long epochDay) {
+		// 1970-01-01 为星期四
+		return (int) floorMod(epochDay + 4, 7) + 1;
+	}
+
+	static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/**
+	 * 获取月份的天数
+	 *
+	 * @param year
+	 * @param month
+	 *            月份 (1月为1)
+	 * @return
+	 */
+	static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+}
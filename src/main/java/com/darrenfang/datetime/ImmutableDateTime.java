@@ -0,0 +1,579 @@
+package com.darrenfang.datetime;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 不可变的DateTime, 线程安全<br>
+ * with*, plus* 等方法返回新的对象, 可在线程之间和缓存中直接共享, 不需要复制。
+ */
+public final class ImmutableDateTime implements Serializable,
+		Comparable<ImmutableDateTime> {
+
+	private static final long serialVersionUID = 4032870145583429461L;
+
+	/**
+	 * 按getDayOfWeek() - 1取值, 避免每次调用Weekday.values()复制数组
+	 */
+	private static final Weekday[] WEEKDAYS = Weekday.values();
+
+	/**
+	 * 标准GTM时间(1970-01-01 00:00:00)
+	 */
+	public static final ImmutableDateTime STANDARD_GTM_TIME = new ImmutableDateTime(
+			0);
+
+	/**
+	 * 时间戳
+	 */
+	private final long millis;
+
+	/**
+	 * 时区, 不为null; 系统默认时区在创建时确定
+	 */
+	private final TimeZone zone;
+
+	/**
+	 * 根据timestamp创建ImmutableDateTime对象
+	 *
+	 * @param timestamp
+	 */
+	public ImmutableDateTime(long timestamp) {
+		this(timestamp, DateTime.defaultZone());
+	}
+
+	/**
+	 * 根据年, 月, 日创建ImmutableDateTime对象
+	 *
+	 * @param year
+	 *            年份
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 *            日 (1号为1)
+	 */
+	public ImmutableDateTime(int year, int month, int day) {
+		this(year, month, day, 0, 0, 0, 0);
+	}
+
+	/**
+	 * 根据年, 月, 日, 小时, 分钟, 秒, 毫秒创建ImmutableDateTime对象
+	 *
+	 * @param year
+	 *            年份
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 *            日 (1号为1)
+	 * @param hour
+	 *            小时
+	 * @param minute
+	 *            分钟
+	 * @param second
+	 *            秒
+	 * @param millisecond
+	 *            毫秒
+	 */
+	public ImmutableDateTime(int year, int month, int day, int hour,
+			int minute, int second, int millisecond) {
+		this(year, month, day, hour, minute, second, millisecond, null);
+	}
+
+	/**
+	 * 根据指定时区的年, 月, 日, 小时, 分钟, 秒, 毫秒创建ImmutableDateTime对象
+	 *
+	 * @param year
+	 *            年份
+	 * @param month
+	 *            月份 (1月为1)
+	 * @param day
+	 *            日 (1号为1)
+	 * @param hour
+	 *            小时
+	 * @param minute
+	 *            分钟
+	 * @param second
+	 *            秒
+	 * @param millisecond
+	 *            毫秒
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 */
+	public ImmutableDateTime(int year, int month, int day, int hour,
+			int minute, int second, int millisecond, TimeZone zone) {
+		this.zone = DateTime.normalize(zone);
+		this.millis = DateTime.toInstant(year, month, day, hour, minute,
+				second, millisecond, this.zone);
+	}
+
+	ImmutableDateTime(long timestamp, TimeZone zone) {
+		this.millis = timestamp;
+		this.zone = zone;
+	}
+
+	/**
+	 * 根据当前时间创建ImmutableDateTime对象
+	 *
+	 * @return
+	 */
+	public static ImmutableDateTime now() {
+		return new ImmutableDateTime(System.currentTimeMillis());
+	}
+
+	/**
+	 * 获取clock的当前时间, CachedClock在两次更新之间返回同一个对象
+	 *
+	 * @param clock
+	 * @return
+	 */
+	public static ImmutableDateTime now(Clock clock) {
+		return clock.nowImmutable();
+	}
+
+	/**
+	 * 根据DateTime对象创建ImmutableDateTime对象
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public static ImmutableDateTime of(DateTime dateTime) {
+		return dateTime.toImmutable();
+	}
+
+	/**
+	 * 根据timestamp创建指定时区的ImmutableDateTime对象
+	 *
+	 * @param timestamp
+	 * @param zone
+	 *            时区, 为null时为系统默认时区
+	 * @return
+	 */
+	public static ImmutableDateTime of(long timestamp, TimeZone zone) {
+		return new ImmutableDateTime(timestamp, DateTime.normalize(zone));
+	}
+
+	/**
+	 * 转换为可修改的DateTime对象
+	 *
+	 * @return 新的DateTime对象
+	 */
+	public DateTime toDateTime() {
+		return DateTime.create(millis, zone);
+	}
+
+	/**
+	 * 获取时间戳
+	 *
+	 * @return
+	 */
+	public long getTime() {
+		return millis;
+	}
+
+	/**
+	 * 获取时区
+	 *
+	 * @return 时区的副本
+	 */
+	public TimeZone getTimeZone() {
+		return (TimeZone) getZone().clone();
+	}
+
+	/**
+	 * 返回时间戳相同, 时区为zone的对象
+	 *
+	 * @param zone
+	 *            为null时为系统默认时区
+	 * @return
+	 */
+	public ImmutableDateTime withTimeZone(TimeZone zone) {
+		return new ImmutableDateTime(millis, DateTime.normalize(zone));
+	}
+
+	/**
+	 * 转换为 java.util.Date 对象
+	 *
+	 * @return
+	 */
+	public Date getDate() {
+		return new Date(millis);
+	}
+
+	/**
+	 * 获取年份
+	 *
+	 * @return
+	 */
+	public int getYear() {
+		return DateTime.get(millis, getZone(), Calendar.YEAR);
+	}
+
+	/**
+	 * 获取月份 (1月为1)
+	 *
+	 * @return
+	 */
+	public int getMonth() {
+		return DateTime.get(millis, getZone(), Calendar.MONTH);
+	}
+
+	/**
+	 * 获取天
+	 *
+	 * @return
+	 */
+	public int getDay() {
+		return DateTime.get(millis, getZone(), Calendar.DAY_OF_MONTH);
+	}
+
+	/**
+	 * 获取小时
+	 *
+	 * @return
+	 */
+	public int getHour() {
+		return DateTime.get(millis, getZone(), Calendar.HOUR_OF_DAY);
+	}
+
+	/**
+	 * 获取分钟
+	 *
+	 * @return
+	 */
+	public int getMinute() {
+		return DateTime.get(millis, getZone(), Calendar.MINUTE);
+	}
+
+	/**
+	 * 获取秒
+	 *
+	 * @return
+	 */
+	public int getSecond() {
+		return DateTime.get(millis, getZone(), Calendar.SECOND);
+	}
+
+	/**
+	 * 获取毫秒
+	 *
+	 * @return
+	 */
+	public int getMilliSecond() {
+		return DateTime.get(millis, getZone(), Calendar.MILLISECOND);
+	}
+
+	/**
+	 * 获取是一个星期中的第几天
+	 *
+	 * @return
+	 */
+	public int getDayOfWeek() {
+		return DateTime.get(millis, getZone(), Calendar.DAY_OF_WEEK);
+	}
+
+	/**
+	 * 获取是一年中的第几天
+	 *
+	 * @return
+	 */
+	public int getDayOfYear() {
+		return DateTime.get(millis, getZone(), Calendar.DAY_OF_YEAR);
+	}
+
+	/**
+	 * 获得是星期几
+	 *
+	 * @return
+	 */
+	public Weekday getWeekday() {
+		return WEEKDAYS[getDayOfWeek() - 1];
+	}
+
+	/**
+	 * 设置年份, 返回新的对象
+	 *
+	 * @param year
+	 * @return
+	 */
+	public ImmutableDateTime withYear(int year) {
+		return with(Calendar.YEAR, year);
+	}
+
+	/**
+	 * 设置月份, 返回新的对象
+	 *
+	 * @param month
+	 *            月份 (1月为1)
+	 * @return
+	 */
+	public ImmutableDateTime withMonth(int month) {
+		return with(Calendar.MONTH, month - 1);
+	}
+
+	/**
+	 * 设置天, 返回新的对象
+	 *
+	 * @param day
+	 * @return
+	 */
+	public ImmutableDateTime withDay(int day) {
+		return with(Calendar.DATE, day);
+	}
+
+	/**
+	 * 设置小时, 返回新的对象
+	 *
+	 * @param hour
+	 * @return
+	 */
+	public ImmutableDateTime withHour(int hour) {
+		return with(Calendar.HOUR_OF_DAY, hour);
+	}
+
+	/**
+	 * 设置分钟, 返回新的对象
+	 *
+	 * @param minute
+	 * @return
+	 */
+	public ImmutableDateTime withMinute(int minute) {
+		return with(Calendar.MINUTE, minute);
+	}
+
+	/**
+	 * 设置秒, 返回新的对象
+	 *
+	 * @param second
+	 * @return
+	 */
+	public ImmutableDateTime withSecond(int second) {
+		return with(Calendar.SECOND, second);
+	}
+
+	/**
+	 * 设置毫秒, 返回新的对象
+	 *
+	 * @param milliSecond
+	 * @return
+	 */
+	public ImmutableDateTime withMilliSecond(int milliSecond) {
+		return with(Calendar.MILLISECOND, milliSecond);
+	}
+
+	/**
+	 * 加上 years 年, 返回新的对象
+	 *
+	 * @param years
+	 * @return
+	 */
+	public ImmutableDateTime plusYears(int years) {
+		return plus(Calendar.YEAR, years);
+	}
+
+	/**
+	 * 加上 months 月, 返回新的对象
+	 *
+	 * @param months
+	 * @return
+	 */
+	public ImmutableDateTime plusMonths(int months) {
+		return plus(Calendar.MONTH, months);
+	}
+
+	/**
+	 * 加上 days 天, 返回新的对象
+	 *
+	 * @param days
+	 * @return
+	 */
+	public ImmutableDateTime plusDays(int days) {
+		return plus(Calendar.DAY_OF_MONTH, days);
+	}
+
+	/**
+	 * 加上 hours 小时, 返回新的对象
+	 *
+	 * @param hours
+	 * @return
+	 */
+	public ImmutableDateTime plusHours(int hours) {
+		return plus(Calendar.HOUR, hours);
+	}
+
+	/**
+	 * 加上 minutes 分, 返回新的对象
+	 *
+	 * @param minutes
+	 * @return
+	 */
+	public ImmutableDateTime plusMinutes(int minutes) {
+		return plus(Calendar.MINUTE, minutes);
+	}
+
+	/**
+	 * 加上 seconds 秒, 返回新的对象
+	 *
+	 * @param seconds
+	 * @return
+	 */
+	public ImmutableDateTime plusSeconds(int seconds) {
+		return plus(Calendar.SECOND, seconds);
+	}
+
+	/**
+	 * 加上 milliseconds 毫秒, 返回新的对象
+	 *
+	 * @param milliseconds
+	 * @return
+	 */
+	public ImmutableDateTime plusMilliseconds(int milliseconds) {
+		return plus(Calendar.MILLISECOND, milliseconds);
+	}
+
+	/**
+	 * 获取之后的第几个星期几的时间, 与DateTime.addWeekdays相同
+	 *
+	 * @param weekday
+	 * @param span
+	 * @return
+	 */
+	public ImmutableDateTime plusWeekdays(Weekday weekday, int span) {
+		int diff = weekday.getNo() - getWeekday().getNo();
+		return plusDays(diff + 7 * span);
+	}
+
+	/**
+	 * 按时间单位截断日期 (当地时间), 星期以星期日开始
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public ImmutableDateTime truncateTo(Unit unit) {
+		return truncateTo(unit, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时间单位截断日期 (当地时间)
+	 *
+	 * @param unit
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public ImmutableDateTime truncateTo(Unit unit, Weekday firstDayOfWeek) {
+		return withTime(DateTime.floor(millis, unit, firstDayOfWeek, getZone()));
+	}
+
+	/**
+	 * 判断是否在other之前
+	 *
+	 * @param other
+	 * @return 相等时返回false
+	 */
+	public boolean before(ImmutableDateTime other) {
+		return millis < other.millis;
+	}
+
+	/**
+	 * 判断是否在other之后
+	 *
+	 * @param other
+	 * @return 相等时返回false
+	 */
+	public boolean after(ImmutableDateTime other) {
+		return millis > other.millis;
+	}
+
+	/**
+	 * 计算2个时间之间的毫秒差
+	 *
+	 * @param other
+	 * @return
+	 */
+	public long diff(ImmutableDateTime other) {
+		return millis - other.millis;
+	}
+
+	public int compareTo(ImmutableDateTime other) {
+		return DateTime.compare(millis, other.millis);
+	}
+
+	/**
+	 * 只由时间戳计算, 与DateTime.hashCode相同
+	 */
+	@Override
+	public int hashCode() {
+		return (int) (millis ^ (millis >>> 32));
+	}
+
+	/**
+	 * 时间戳和时区都相同时相等 (未指定时区时为系统默认时区)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ImmutableDateTime))
+			return false;
+		ImmutableDateTime other = (ImmutableDateTime) obj;
+		return millis == other.millis
+				&& (zone == other.zone || getZone().equals(other.getZone()));
+	}
+
+	@Override
+	public String toString() {
+		return toString(DateTime.DEFAULT_DATETIME_FORMAT);
+	}
+
+	/**
+	 * 根据指定格式格式化时间
+	 *
+	 * @param format
+	 * @return
+	 */
+	public String toString(String format) {
+		return DateTimePattern.compile(format).format(millis, getZone());
+	}
+
+	/**
+	 * 根据指定格式格式化时间, 按指定时区的当地时间
+	 *
+	 * @param format
+	 * @param zone
+	 * @return
+	 */
+	public String toString(String format, TimeZone zone) {
+		return DateTimePattern.compile(format).format(millis, zone);
+	}
+
+	private ImmutableDateTime with(int field, int value) {
+		return withTime(DateTime.setField(millis, getZone(), field, value));
+	}
+
+	private ImmutableDateTime plus(int field, int amount) {
+		return withTime(DateTime.addField(millis, getZone(), field, amount));
+	}
+
+	private ImmutableDateTime withTime(long timestamp) {
+		return timestamp == millis ? this : new ImmutableDateTime(timestamp,
+				zone);
+	}
+
+	private TimeZone getZone() {
+		return zone;
+	}
+
+	/**
+	 * 序列化为Ser, 只写入时间戳和时区ID
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return new Ser(Ser.IMMUTABLE_DATE_TIME, millis, zone);
+	}
+
+}
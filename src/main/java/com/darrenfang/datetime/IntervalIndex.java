@@ -0,0 +1,453 @@
+package com.darrenfang.datetime;
+
+import java.util.Arrays;
+
+/**
+ * 大量时间段[start, end)的索引, 查询包含某个时间点或与某个时间段重叠的区间。不可变, 线程安全<br>
+ * 区间按开始时间排序后存放在基本类型数组中, 数组本身按中序排列成一棵隐式的平衡二叉树,
+ * 每个节点记录子树中最大的结束时间 (增强区间树), 查询为O(log n + 结果个数)。<br>
+ * 区间的编号为加入Builder的顺序 (从0开始)。修改时用toBuilder()复制后重新构建 (已按开始时间排序时不再排序),
+ * 再替换volatile字段或AtomicReference中的索引, 正在查询的线程不受影响。
+ */
+public final class IntervalIndex {
+
+	/**
+	 * 子树的层数不超过此值时直接顺序扫描
+	 */
+	private static final int SCAN_LEVEL = 3;
+
+	private static final IntervalIndex EMPTY = new IntervalIndex(new long[0],
+			new long[0], new int[0]);
+
+	/**
+	 * 按开始时间排序
+	 */
+	private final long[] starts;
+
+	private final long[] ends;
+
+	/**
+	 * 子树中最大的结束时间
+	 */
+	private final long[] maxEnds;
+
+	/**
+	 * 排序后的位置对应的区间编号
+	 */
+	private final int[] ids;
+
+	/**
+	 * 区间编号对应的排序后的位置
+	 */
+	private final int[] positions;
+
+	/**
+	 * 根节点的层数, 没有区间时为-1
+	 */
+	private final int maxLevel;
+
+	private IntervalIndex(long[] starts, long[] ends, int[] ids) {
+		int n = starts.length;
+		this.starts = starts;
+		this.ends = ends;
+		this.ids = ids;
+		this.positions = new int[n];
+		for (int i = 0; i < n; i++) {
+			positions[ids[i]] = i;
+		}
+		this.maxEnds = new long[n];
+		this.maxLevel = prepare();
+	}
+
+	/**
+	 * 创建Builder
+	 *
+	 * @return
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * 创建包含当前所有区间的Builder, 编号不变, 用于修改后重新构建
+	 *
+	 * @return
+	 */
+	public Builder toBuilder() {
+		Builder builder = new Builder(Math.max(size(), 16));
+		for (int id = 0; id < size(); id++) {
+			builder.add(getStart(id), getEnd(id));
+		}
+		return builder;
+	}
+
+	/**
+	 * 区间个数
+	 *
+	 * @return
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * 获取区间的开始时间
+	 *
+	 * @param id
+	 *            区间编号
+	 * @return
+	 */
+	public long getStart(int id) {
+		return starts[positions[id]];
+	}
+
+	/**
+	 * 获取区间的结束时间 (不包含)
+	 *
+	 * @param id
+	 *            区间编号
+	 * @return
+	 */
+	public long getEnd(int id) {
+		return ends[positions[id]];
+	}
+
+	/**
+	 * 是否有区间包含timestamp
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public boolean contains(long timestamp) {
+		return timestamp != Long.MAX_VALUE
+				&& search(timestamp, timestamp + 1, null, 1) > 0;
+	}
+
+	/**
+	 * 是否有区间包含dateTime
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public boolean contains(DateTime dateTime) {
+		return contains(dateTime.getTime());
+	}
+
+	/**
+	 * 获取包含timestamp的区间编号, 按开始时间排序
+	 *
+	 * @param timestamp
+	 * @return
+	 */
+	public int[] containing(long timestamp) {
+		if (timestamp == Long.MAX_VALUE) {
+			return new int[0];
+		}
+		return overlapping(timestamp, timestamp + 1);
+	}
+
+	/**
+	 * 获取包含dateTime的区间编号, 按开始时间排序
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public int[] containing(DateTime dateTime) {
+		return containing(dateTime.getTime());
+	}
+
+	/**
+	 * 是否有区间与[start, end)重叠, 首尾相接不算重叠
+	 *
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public boolean overlaps(long start, long end) {
+		return search(start, end, null, 1) > 0;
+	}
+
+	/**
+	 * 与[start, end)重叠的区间个数
+	 *
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public int countOverlapping(long start, long end) {
+		return search(start, end, null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 获取与[start, end)重叠的区间编号, 按开始时间排序
+	 *
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public int[] overlapping(long start, long end) {
+		int[] result = new int[search(start, end, null, Integer.MAX_VALUE)];
+		if (result.length > 0) {
+			search(start, end, result, result.length);
+		}
+		return result;
+	}
+
+	/**
+	 * 获取与range重叠的区间编号, 按开始时间排序
+	 *
+	 * @param range
+	 * @return
+	 */
+	public int[] overlapping(DateTimeRange range) {
+		return overlapping(range.getStart(), range.getEnd());
+	}
+
+	/**
+	 * 获取第一个开始时间不早于timestamp的区间
+	 *
+	 * @param timestamp
+	 * @return 区间编号, 没有时返回-1
+	 */
+	public int next(long timestamp) {
+		int lo = 0;
+		int hi = starts.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (starts[mid] < timestamp) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo < starts.length ? ids[lo] : -1;
+	}
+
+	/**
+	 * 计算每个节点子树中最大的结束时间<br>
+	 * 第k层的节点下标的低k + 1位为0111..1 (k个1), 叶子为偶数下标; 下标超出n的节点不存在,
+	 * 取最后一个存在的节点的值。
+	 *
+	 * @return 根节点的层数
+	 */
+	private int prepare() {
+		int n = starts.length;
+		if (n == 0) {
+			return -1;
+		}
+		long lastIndex = 0;
+		long last = 0;
+		for (int i = 0; i < n; i += 2) {
+			lastIndex = i;
+			last = maxEnds[i] = ends[i];
+		}
+		int k;
+		for (k = 1; 1L << k <= n; k++) {
+			long x = 1L << (k - 1);
+			long step = x << 2;
+			for (long i = (x << 1) - 1; i < n; i += step) {
+				long left = maxEnds[(int) (i - x)];
+				long right = i + x < n ? maxEnds[(int) (i + x)] : last;
+				maxEnds[(int) i] = Math.max(ends[(int) i],
+						Math.max(left, right));
+			}
+			lastIndex = (lastIndex >> k & 1) != 0 ? lastIndex - x
+					: lastIndex + x;
+			if (lastIndex < n && maxEnds[(int) lastIndex] > last) {
+				last = maxEnds[(int) lastIndex];
+			}
+		}
+		return k - 1;
+	}
+
+	/**
+	 * 查找与[from, to)重叠的区间
+	 *
+	 * @param dest
+	 *            不为null时依次写入区间编号
+	 * @param limit
+	 *            找到limit个后停止
+	 * @return 找到的个数
+	 */
+	private int search(long from, long to, int[] dest, int limit) {
+		if (maxLevel < 0) {
+			return 0;
+		}
+		int n = starts.length;
+		int count = 0;
+		// 栈中每项为: 节点下标 << 8 | 层数 << 1 | 左子树是否已处理
+		long[] stack = new long[2 * (maxLevel + 2)];
+		int top = 0;
+		stack[top++] = ((1L << maxLevel) - 1) << 8 | maxLevel << 1;
+		while (top > 0) {
+			long entry = stack[--top];
+			long x = entry >>> 8;
+			int k = (int) (entry >> 1) & 0x7F;
+			if (k <= SCAN_LEVEL) {
+				long i0 = x >> k << k;
+				long i1 = Math.min(i0 + (1L << (k + 1)) - 1, n);
+				for (int i = (int) i0; i < i1 && starts[i] < to; i++) {
+					if (from < ends[i]) {
+						if (dest != null) {
+							dest[count] = ids[i];
+						}
+						if (++count >= limit) {
+							return count;
+						}
+					}
+				}
+			} else if ((entry & 1) == 0) {
+				// 先处理左子树, 之后再处理节点本身和右子树
+				stack[top++] = entry | 1;
+				long left = x - (1L << (k - 1));
+				if (left >= n || maxEnds[(int) left] > from) {
+					stack[top++] = left << 8 | (k - 1) << 1;
+				}
+			} else if (x < n && starts[(int) x] < to) {
+				if (from < ends[(int) x]) {
+					if (dest != null) {
+						dest[count] = ids[(int) x];
+					}
+					if (++count >= limit) {
+						return count;
+					}
+				}
+				stack[top++] = (x + (1L << (k - 1))) << 8 | (k - 1) << 1;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 收集区间后构建IntervalIndex, 非线程安全
+	 */
+	public static final class Builder {
+
+		private long[] starts;
+
+		private long[] ends;
+
+		private int size;
+
+		Builder() {
+			this(16);
+		}
+
+		Builder(int capacity) {
+			starts = new long[capacity];
+			ends = new long[capacity];
+		}
+
+		/**
+		 * 加入区间[start, end), 编号为加入前的区间个数
+		 *
+		 * @param start
+		 * @param end
+		 *            不早于start
+		 * @return this
+		 */
+		public Builder add(long start, long end) {
+			if (end < start) {
+				throw new IllegalArgumentException("end " + end
+						+ " is before start " + start);
+			}
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+			starts[size] = start;
+			ends[size++] = end;
+			return this;
+		}
+
+		/**
+		 * 加入区间[start, end)
+		 *
+		 * @param start
+		 * @param end
+		 * @return this
+		 */
+		public Builder add(DateTime start, DateTime end) {
+			return add(start.getTime(), end.getTime());
+		}
+
+		/**
+		 * 加入range
+		 *
+		 * @param range
+		 * @return this
+		 */
+		public Builder add(DateTimeRange range) {
+			return add(range.getStart(), range.getEnd());
+		}
+
+		/**
+		 * 已加入的区间个数
+		 *
+		 * @return
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * 按开始时间排序后构建, 之后Builder可以继续使用
+		 *
+		 * @return
+		 */
+		public IntervalIndex build() {
+			if (size == 0) {
+				return EMPTY;
+			}
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			if (!sorted()) {
+				mergeSort(order, new int[size], 0, size);
+			}
+			long[] sortedStarts = new long[size];
+			long[] sortedEnds = new long[size];
+			for (int i = 0; i < size; i++) {
+				sortedStarts[i] = starts[order[i]];
+				sortedEnds[i] = ends[order[i]];
+			}
+			return new IntervalIndex(sortedStarts, sortedEnds, order);
+		}
+
+		private boolean sorted() {
+			for (int i = 1; i < size; i++) {
+				if (starts[i - 1] > starts[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 按开始时间对编号稳定排序
+		 */
+		private void mergeSort(int[] order, int[] temp, int from, int to) {
+			if (to - from < 2) {
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			mergeSort(order, temp, from, mid);
+			mergeSort(order, temp, mid, to);
+			if (starts[order[mid - 1]] <= starts[order[mid]]) {
+				return;
+			}
+			System.arraycopy(order, from, temp, from, to - from);
+			int i = from;
+			int j = mid;
+			for (int k = from; k < to; k++) {
+				if (j >= to || i < mid && starts[temp[i]] <= starts[temp[j]]) {
+					order[k] = temp[i++];
+				} else {
+					order[k] = temp[j++];
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.darrenfang.datetime;
+
+/**
+ * 时间戳的迭代器, 直接返回long, 不装箱
+ */
+public interface LongIterator {
+
+	/**
+	 * 是否还有下一个元素
+	 *
+	 * @return
+	 */
+	boolean hasNext();
+
+	/**
+	 * 获取下一个元素
+	 *
+	 * @return
+	 * @throws java.util.NoSuchElementException
+	 *             没有下一个元素时
+	 */
+	long next();
+
+}
@@ -0,0 +1,90 @@
+package com.darrenfang.datetime;
+
+/**
+ * 解析结果, 可重复使用<br>
+ * 解析失败时不抛出异常, 通过状态和错误位置说明原因。非线程安全, 每个线程使用自己的实例。
+ */
+public final class ParseResult {
+
+	public enum Status {
+		/**
+		 * 解析成功
+		 */
+		OK,
+		/**
+		 * 文本与格式不匹配 (缺少数字或分隔符不一致)
+		 */
+		MISMATCH,
+		/**
+		 * 字段超出范围 (如13月, 2月30日, 24时)
+		 */
+		OUT_OF_RANGE,
+		/**
+		 * 格式匹配完成后仍有多余的字符
+		 */
+		TRAILING_TEXT
+	}
+
+	private Status status = Status.OK;
+
+	private int errorIndex = -1;
+
+	private long time;
+
+	/**
+	 * 是否解析成功
+	 *
+	 * @return
+	 */
+	public boolean isSuccess() {
+		return status == Status.OK;
+	}
+
+	/**
+	 * 获取解析状态
+	 *
+	 * @return
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * 获取出错的位置 (在原文本中的下标), 成功时为-1
+	 *
+	 * @return
+	 */
+	public int getErrorIndex() {
+		return errorIndex;
+	}
+
+	/**
+	 * 获取解析得到的时间戳, 仅在成功时有效
+	 *
+	 * @return
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	boolean succeed(long time) {
+		this.status = Status.OK;
+		this.errorIndex = -1;
+		this.time = time;
+		return true;
+	}
+
+	boolean fail(Status status, int errorIndex) {
+		this.status = status;
+		this.errorIndex = errorIndex;
+		this.time = 0;
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return isSuccess() ? status + ": " + time : status + " at "
+				+ errorIndex;
+	}
+
+}
@@ -0,0 +1,671 @@
+package com.darrenfang.datetime;
+
+import java.util.NoSuchElementException;
+import java.util.TimeZone;
+
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 周期任务的执行时间, 由cron表达式或重复规则编译为各字段的位集合。不可变, 线程安全<br>
+ * 查找下一次(或上一次)执行时间时按年, 月, 日, 时, 分, 秒依次在位集合中找下一个取值,
+ * 不匹配的字段整体跳过, 不逐分钟试探。时间为时区的当地时间, 夏令时开始时跳过的当地时间
+ * 与DateTime构造方法一样顺延, 结束时重复的当地时间只执行一次。<br>
+ * cron表达式为"分 时 日 月 星期"5个字段, 或在前面加上秒的6个字段, 每个字段支持:
+ *
+ * <pre>
+ * *  ?           任意值
+ * 5              单个值, 月份可用JAN-DEC, 星期可用SUN-SAT, 星期0和7都表示星期日
+ * 1-5            范围
+ * *&#47;15  1-30/2    步长
+ * 1,15,L         列表; 日的L表示每月最后一天
+ * TUE#2          星期: 每月第2个星期二
+ * </pre>
+ *
+ * 日和星期都不以*开头时, 满足其中一个即可, 否则需要同时满足 (与Vixie cron相同)。
+ */
+public final class Schedule {
+
+	/**
+	 * 没有下一次(或上一次)执行时间
+	 */
+	public static final long NONE = Long.MIN_VALUE;
+
+	/**
+	 * 最多向前或向后查找的年数 (如2月30日永远不会执行)
+	 */
+	private static final int MAX_YEARS = 400;
+
+	private static final String[] MONTH_NAMES = { "JAN", "FEB", "MAR", "APR",
+			"MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+
+	private static final String[] WEEKDAY_NAMES = { "SUN", "MON", "TUE",
+			"WED", "THU", "FRI", "SAT" };
+
+	/**
+	 * 每7天一位, 共5周
+	 */
+	private static final long WEEKLY = 1L | 1L << 7 | 1L << 14 | 1L << 21
+			| 1L << 28;
+
+	private final String expression;
+
+	private final long seconds;
+
+	private final long minutes;
+
+	private final long hours;
+
+	/**
+	 * 第1位到第31位
+	 */
+	private final long daysOfMonth;
+
+	/**
+	 * 第1位到第12位
+	 */
+	private final long months;
+
+	/**
+	 * 第0位(星期日)到第6位
+	 */
+	private final long daysOfWeek;
+
+	/**
+	 * 每个星期几在一个月中的第几次 (第1位到第5位), 用于TUE#2
+	 */
+	private final int[] nthWeekdays;
+
+	private final boolean lastDayOfMonth;
+
+	private final boolean anyDayOfMonth;
+
+	private final boolean anyDayOfWeek;
+
+	/**
+	 * 时区, 不为null; 系统默认时区在创建时确定
+	 */
+	private final TimeZone zone;
+
+	private Schedule(String expression, long seconds, long minutes,
+			long hours, long daysOfMonth, long months, long daysOfWeek,
+			int[] nthWeekdays, boolean lastDayOfMonth, boolean anyDayOfMonth,
+			boolean anyDayOfWeek, TimeZone zone) {
+		this.expression = expression;
+		this.seconds = seconds;
+		this.minutes = minutes;
+		this.hours = hours;
+		this.daysOfMonth = daysOfMonth;
+		this.months = months;
+		this.daysOfWeek = daysOfWeek;
+		this.nthWeekdays = nthWeekdays;
+		this.lastDayOfMonth = lastDayOfMonth;
+		this.anyDayOfMonth = anyDayOfMonth;
+		this.anyDayOfWeek = anyDayOfWeek;
+		this.zone = zone;
+	}
+
+	/**
+	 * 按系统默认时区编译cron表达式
+	 *
+	 * @param expression
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             表达式无效时
+	 */
+	public static Schedule parse(String expression) {
+		return parse(expression, null);
+	}
+
+	/**
+	 * 编译cron表达式
+	 *
+	 * @param expression
+	 * @param zone
+	 *            为null时为系统默认时区
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             表达式无效时
+	 */
+	public static Schedule parse(String expression, TimeZone zone) {
+		String[] fields = expression.trim().split("\\s+");
+		if (fields.length != 5 && fields.length != 6) {
+			throw new IllegalArgumentException(
+					"cron expression must have 5 or 6 fields: " + expression);
+		}
+		int i = 0;
+		long seconds = fields.length == 6 ? parseField(fields[i++], 0, 59,
+				null, expression) : 1L;
+		long minutes = parseField(fields[i++], 0, 59, null, expression);
+		long hours = parseField(fields[i++], 0, 23, null, expression);
+		String dayOfMonth = fields[i++];
+		long months = parseField(fields[i++], 1, 12, MONTH_NAMES, expression);
+		String dayOfWeek = fields[i];
+
+		boolean anyDayOfMonth = isAnyDay(dayOfMonth);
+		boolean lastDayOfMonth = false;
+		long daysOfMonth = 0;
+		StringBuilder rest = new StringBuilder();
+		for (String item : dayOfMonth.split(",")) {
+			if (item.equalsIgnoreCase("L")) {
+				lastDayOfMonth = true;
+			} else {
+				rest.append(rest.length() == 0 ? "" : ",").append(item);
+			}
+		}
+		if (rest.length() > 0) {
+			daysOfMonth = parseField(rest.toString(), 1, 31, null, expression);
+		}
+
+		boolean anyDayOfWeek = isAnyDay(dayOfWeek);
+		int[] nthWeekdays = new int[7];
+		long daysOfWeek = 0;
+		rest.setLength(0);
+		for (String item : dayOfWeek.split(",")) {
+			int hash = item.indexOf('#');
+			if (hash >= 0) {
+				int weekday = value(item.substring(0, hash), 0, 7,
+						WEEKDAY_NAMES, expression) % 7;
+				int nth = value(item.substring(hash + 1), 1, 5, null,
+						expression);
+				nthWeekdays[weekday] |= 1 << nth;
+			} else {
+				rest.append(rest.length() == 0 ? "" : ",").append(item);
+			}
+		}
+		if (rest.length() > 0) {
+			daysOfWeek = parseField(rest.toString(), 0, 7, WEEKDAY_NAMES,
+					expression);
+			// 7也表示星期日
+			daysOfWeek = (daysOfWeek | daysOfWeek >>> 7) & 0x7F;
+		}
+		return new Schedule(expression, seconds, minutes, hours, daysOfMonth,
+				months, daysOfWeek, nthWeekdays, lastDayOfMonth,
+				anyDayOfMonth, anyDayOfWeek, DateTime.normalize(zone));
+	}
+
+	/**
+	 * 每天hour:minute执行 (系统默认时区)
+	 *
+	 * @param hour
+	 * @param minute
+	 * @return
+	 */
+	public static Schedule daily(int hour, int minute) {
+		return parse(minute + " " + hour + " * * *");
+	}
+
+	/**
+	 * 每星期的weekdays的hour:minute执行 (系统默认时区), 如工作日9:30为weekly(9, 30,
+	 * MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY)
+	 *
+	 * @param hour
+	 * @param minute
+	 * @param weekdays
+	 * @return
+	 */
+	public static Schedule weekly(int hour, int minute, Weekday... weekdays) {
+		if (weekdays.length == 0) {
+			throw new IllegalArgumentException("no weekday");
+		}
+		StringBuilder days = new StringBuilder();
+		for (Weekday weekday : weekdays) {
+			days.append(days.length() == 0 ? "" : ",").append(weekday.getNo());
+		}
+		return parse(minute + " " + hour + " * * " + days);
+	}
+
+	/**
+	 * 每月第nth个weekday的hour:minute执行 (系统默认时区), 如每月第2个星期二
+	 *
+	 * @param nth
+	 *            1到5, 当月没有第5个时不执行
+	 * @param weekday
+	 * @param hour
+	 * @param minute
+	 * @return
+	 */
+	public static Schedule monthly(int nth, Weekday weekday, int hour,
+			int minute) {
+		return parse(minute + " " + hour + " * * " + weekday.getNo() + "#"
+				+ nth);
+	}
+
+	/**
+	 * 获取使用zone的相同规则
+	 *
+	 * @param zone
+	 *            为null时为系统默认时区
+	 * @return
+	 */
+	public Schedule withTimeZone(TimeZone zone) {
+		return new Schedule(expression, seconds, minutes, hours, daysOfMonth,
+				months, daysOfWeek, nthWeekdays, lastDayOfMonth,
+				anyDayOfMonth, anyDayOfWeek, DateTime.normalize(zone));
+	}
+
+	/**
+	 * 获取时区的副本
+	 *
+	 * @return
+	 */
+	public TimeZone getTimeZone() {
+		return (TimeZone) getZone().clone();
+	}
+
+	/**
+	 * 获取晚于after的下一次执行时间
+	 *
+	 * @param after
+	 * @return 没有时返回NONE
+	 */
+	public long next(long after) {
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		if (after == Long.MAX_VALUE) {
+			return NONE;
+		}
+		// 夏令时切换附近, 较小偏移下的当地时间之后的时间点也可能晚于after
+		long local = after + nearbyOffset(offsets, after, false);
+		// 从下一秒开始
+		local = local - Gregorian.floorMod(local, 1000) + 1000;
+		long epochDay = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		int secondOfDay = (int) ((local - epochDay
+				* DateTime.MILLISECONDS_PER_DAY) / 1000);
+		int y = Gregorian.year(epochDay);
+		int mo = Gregorian.month(epochDay);
+		int d = Gregorian.day(epochDay);
+		int h = secondOfDay / 3600;
+		int mi = secondOfDay / 60 % 60;
+		int s = secondOfDay % 60;
+		int maxYear = y + MAX_YEARS;
+		while (y <= maxYear) {
+			int next = nextBit(months, mo);
+			if (next < 0) {
+				y++;
+				mo = 1;
+				d = 1;
+				h = mi = s = 0;
+				continue;
+			}
+			if (next != mo) {
+				mo = next;
+				d = 1;
+				h = mi = s = 0;
+			}
+			next = nextBit(days(y, mo), d);
+			if (next < 0) {
+				if (++mo > 12) {
+					y++;
+					mo = 1;
+				}
+				d = 1;
+				h = mi = s = 0;
+				continue;
+			}
+			if (next != d) {
+				d = next;
+				h = mi = s = 0;
+			}
+			next = nextBit(hours, h);
+			if (next < 0) {
+				d++;
+				h = mi = s = 0;
+				continue;
+			}
+			if (next != h) {
+				h = next;
+				mi = s = 0;
+			}
+			next = nextBit(minutes, mi);
+			if (next < 0) {
+				h++;
+				mi = s = 0;
+				continue;
+			}
+			if (next != mi) {
+				mi = next;
+				s = 0;
+			}
+			next = nextBit(seconds, s);
+			if (next < 0) {
+				mi++;
+				s = 0;
+				continue;
+			}
+			s = next;
+			long instant = toInstant(y, mo, d, h, mi, s, zone, offsets);
+			if (instant > after) {
+				return instant;
+			}
+			// 夏令时结束时重复的当地时间
+			s++;
+		}
+		return NONE;
+	}
+
+	/**
+	 * 获取晚于after的下一次执行时间
+	 *
+	 * @param after
+	 * @return 没有时返回null
+	 */
+	public DateTime next(DateTime after) {
+		long next = next(after.getTime());
+		return next == NONE ? null : after.derive(next);
+	}
+
+	/**
+	 * 获取早于before的上一次执行时间
+	 *
+	 * @param before
+	 * @return 没有时返回NONE
+	 */
+	public long previous(long before) {
+		TimeZone zone = getZone();
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		if (before == Long.MIN_VALUE) {
+			return NONE;
+		}
+		long local = before - 1 + nearbyOffset(offsets, before - 1, true);
+		long epochDay = Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY);
+		int secondOfDay = (int) ((local - epochDay
+				* DateTime.MILLISECONDS_PER_DAY) / 1000);
+		int y = Gregorian.year(epochDay);
+		int mo = Gregorian.month(epochDay);
+		int d = Gregorian.day(epochDay);
+		int h = secondOfDay / 3600;
+		int mi = secondOfDay / 60 % 60;
+		int s = secondOfDay % 60;
+		int minYear = y - MAX_YEARS;
+		while (y >= minYear) {
+			int previous = previousBit(months, mo);
+			if (previous < 0) {
+				y--;
+				mo = 12;
+				d = 31;
+				h = 23;
+				mi = s = 59;
+				continue;
+			}
+			if (previous != mo) {
+				mo = previous;
+				d = 31;
+				h = 23;
+				mi = s = 59;
+			}
+			previous = previousBit(days(y, mo), d);
+			if (previous < 0) {
+				if (--mo < 1) {
+					y--;
+					mo = 12;
+				}
+				d = 31;
+				h = 23;
+				mi = s = 59;
+				continue;
+			}
+			if (previous != d) {
+				d = previous;
+				h = 23;
+				mi = s = 59;
+			}
+			previous = previousBit(hours, h);
+			if (previous < 0) {
+				d--;
+				h = 23;
+				mi = s = 59;
+				continue;
+			}
+			if (previous != h) {
+				h = previous;
+				mi = s = 59;
+			}
+			previous = previousBit(minutes, mi);
+			if (previous < 0) {
+				h--;
+				mi = s = 59;
+				continue;
+			}
+			if (previous != mi) {
+				mi = previous;
+				s = 59;
+			}
+			previous = previousBit(seconds, s);
+			if (previous < 0) {
+				mi--;
+				s = 59;
+				continue;
+			}
+			s = previous;
+			long instant = toInstant(y, mo, d, h, mi, s, zone, offsets);
+			if (instant < before) {
+				return instant;
+			}
+			s--;
+		}
+		return NONE;
+	}
+
+	/**
+	 * 获取早于before的上一次执行时间
+	 *
+	 * @param before
+	 * @return 没有时返回null
+	 */
+	public DateTime previous(DateTime before) {
+		long previous = previous(before.getTime());
+		return previous == NONE ? null : before.derive(previous);
+	}
+
+	/**
+	 * 依次获取晚于after的执行时间, 每次调用next()时才计算
+	 *
+	 * @param after
+	 * @return
+	 */
+	public LongIterator iterator(long after) {
+		return iterator(after, Long.MAX_VALUE);
+	}
+
+	/**
+	 * 依次获取range中的执行时间, 每次调用next()时才计算
+	 *
+	 * @param range
+	 * @return
+	 */
+	public LongIterator iterator(DateTimeRange range) {
+		return iterator(range.getStart() - 1, range.getEnd());
+	}
+
+	private LongIterator iterator(final long after, final long end) {
+		return new LongIterator() {
+			private long next = Schedule.this.next(after);
+
+			public boolean hasNext() {
+				return next != NONE && next < end;
+			}
+
+			public long next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				long result = next;
+				next = Schedule.this.next(result);
+				return result;
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	private TimeZone getZone() {
+		return zone;
+	}
+
+	/**
+	 * 计算某月中执行的日期, 第d位表示d日
+	 */
+	private long days(int year, int month) {
+		int length = Gregorian.lengthOfMonth(year, month);
+		long valid = (1L << (length + 1)) - 2;
+		long byDayOfMonth = daysOfMonth;
+		if (lastDayOfMonth) {
+			byDayOfMonth |= 1L << length;
+		}
+		// 1日是星期几 (星期日为0)
+		int first = Gregorian.dayOfWeek(Gregorian.toEpochDay(year, month, 1)) - 1;
+		long byDayOfWeek = 0;
+		for (int weekday = 0; weekday < 7; weekday++) {
+			// 当月第一个星期weekday的日期
+			int day = 1 + (weekday - first + 7) % 7;
+			if ((daysOfWeek & 1L << weekday) != 0) {
+				byDayOfWeek |= WEEKLY << day;
+			}
+			int nth = nthWeekdays[weekday];
+			for (int n = 1; nth >>> n != 0; n++) {
+				if ((nth & 1 << n) != 0) {
+					byDayOfWeek |= 1L << (day + 7 * (n - 1));
+				}
+			}
+		}
+		if (anyDayOfMonth || anyDayOfWeek) {
+			return byDayOfMonth & byDayOfWeek & valid;
+		}
+		return (byDayOfMonth | byDayOfWeek) & valid;
+	}
+
+	/**
+	 * millis前后一天内的最大或最小偏移<br>
+	 * 夏令时开始时跳过的当地时间顺延到切换后, 结束时重复的当地时间取后一次,
+	 * 所以与millis相邻的执行时间可能对应另一个偏移下的当地时间
+	 */
+	private static int nearbyOffset(ZoneOffsets offsets, long millis,
+			boolean max) {
+		long day = DateTime.MILLISECONDS_PER_DAY;
+		long earlier = millis < Long.MIN_VALUE + day ? millis : millis - day;
+		long later = millis > Long.MAX_VALUE - day ? millis : millis + day;
+		int offset = offsets.getOffset(millis);
+		int before = offsets.getOffset(earlier);
+		int after = offsets.getOffset(later);
+		if (max) {
+			return Math.max(offset, Math.max(before, after));
+		}
+		return Math.min(offset, Math.min(before, after));
+	}
+
+	private static long toInstant(int y, int mo, int d, int h, int mi, int s,
+			TimeZone zone, ZoneOffsets offsets) {
+		long local = Gregorian.toEpochDay(y, mo, d)
+				* DateTime.MILLISECONDS_PER_DAY + (h * 3600 + mi * 60 + s)
+				* 1000L;
+		if (offsets.covers(local)) {
+			return offsets.localToInstant(local);
+		}
+		return DateTime.localToInstant(local, zone);
+	}
+
+	/**
+	 * 不小于from的最小的位, 没有时返回-1
+	 */
+	private static int nextBit(long bits, int from) {
+		if (from >= 64) {
+			return -1;
+		}
+		long masked = bits & -1L << from;
+		return masked == 0 ? -1 : Long.numberOfTrailingZeros(masked);
+	}
+
+	/**
+	 * 不大于from的最大的位, 没有时返回-1
+	 */
+	private static int previousBit(long bits, int from) {
+		if (from < 0) {
+			return -1;
+		}
+		long masked = bits & -1L >>> (63 - from);
+		return masked == 0 ? -1 : 63 - Long.numberOfLeadingZeros(masked);
+	}
+
+	private static boolean isAny(String field) {
+		return field.equals("*") || field.equals("?");
+	}
+
+	/**
+	 * 日和星期字段以*开头时 (包括*&#47;2) 不限制日期
+	 */
+	private static boolean isAnyDay(String field) {
+		return field.startsWith("*") || field.equals("?");
+	}
+
+	/**
+	 * 解析一个字段, 返回取值的位集合
+	 */
+	private static long parseField(String field, int min, int max,
+			String[] names, String expression) {
+		long bits = 0;
+		for (String item : field.split(",")) {
+			int step = 1;
+			int slash = item.indexOf('/');
+			if (slash >= 0) {
+				step = value(item.substring(slash + 1), 1, max, null,
+						expression);
+				item = item.substring(0, slash);
+			}
+			int from;
+			int to;
+			if (isAny(item)) {
+				from = min;
+				to = max;
+			} else {
+				int dash = item.indexOf('-');
+				if (dash > 0) {
+					from = value(item.substring(0, dash), min, max, names,
+							expression);
+					to = value(item.substring(dash + 1), min, max, names,
+							expression);
+				} else {
+					from = value(item, min, max, names, expression);
+					// 5/15表示从5开始每15个
+					to = slash >= 0 ? max : from;
+				}
+				if (to < from) {
+					throw new IllegalArgumentException("invalid range " + item
+							+ " in cron expression: " + expression);
+				}
+			}
+			for (int i = from; i <= to; i += step) {
+				bits |= 1L << i;
+			}
+		}
+		return bits;
+	}
+
+	private static int value(String text, int min, int max, String[] names,
+			String expression) {
+		if (names != null) {
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equalsIgnoreCase(text)) {
+					// 月份从1开始
+					return names == MONTH_NAMES ? i + 1 : i;
+				}
+			}
+		}
+		int value;
+		try {
+			value = Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("invalid value " + text
+					+ " in cron expression: " + expression);
+		}
+		if (value < min || value > max) {
+			throw new IllegalArgumentException("value " + value
+					+ " out of range " + min + "-" + max
+					+ " in cron expression: " + expression);
+		}
+		return value;
+	}
+
+}
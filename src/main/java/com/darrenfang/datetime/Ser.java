@@ -0,0 +1,101 @@
+package com.darrenfang.datetime;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.TimeZone;
+
+/**
+ * DateTime和ImmutableDateTime的序列化形式, 只写入时间戳和时区<br>
+ * 格式: 类型(1字节), 时间戳(8字节), 时区标记(1字节), 时区ID或TimeZone对象。
+ * 未指定时区时不写入时区, 反序列化后为接收方的系统默认时区;
+ * 标准时区只写入ID, 修改过规则的时区写入整个TimeZone对象。
+ */
+final class Ser implements Externalizable {
+
+	private static final long serialVersionUID = 3197424783218914325L;
+
+	static final byte DATE_TIME = 1;
+
+	static final byte IMMUTABLE_DATE_TIME = 2;
+
+	private static final byte DEFAULT_ZONE = 0;
+
+	private static final byte ZONE_ID = 1;
+
+	private static final byte ZONE_OBJECT = 2;
+
+	private byte type;
+
+	private long millis;
+
+	private TimeZone zone;
+
+	/**
+	 * 反序列化使用
+	 */
+	public Ser() {
+	}
+
+	/**
+	 * @param type
+	 * @param millis
+	 * @param zone
+	 *            为null时表示系统默认时区
+	 */
+	Ser(byte type, long millis, TimeZone zone) {
+		this.type = type;
+		this.millis = millis;
+		this.zone = zone;
+	}
+
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(type);
+		out.writeLong(millis);
+		if (zone == null) {
+			out.writeByte(DEFAULT_ZONE);
+		} else if (zone.equals(TimeZone.getTimeZone(zone.getID()))) {
+			out.writeByte(ZONE_ID);
+			out.writeUTF(zone.getID());
+		} else {
+			out.writeByte(ZONE_OBJECT);
+			out.writeObject(zone);
+		}
+	}
+
+	public void readExternal(ObjectInput in) throws IOException,
+			ClassNotFoundException {
+		type = in.readByte();
+		millis = in.readLong();
+		byte zoneType = in.readByte();
+		switch (zoneType) {
+		case DEFAULT_ZONE:
+			zone = null;
+			break;
+		case ZONE_ID:
+			zone = TimeZone.getTimeZone(in.readUTF());
+			break;
+		case ZONE_OBJECT:
+			zone = (TimeZone) in.readObject();
+			break;
+		default:
+			throw new InvalidObjectException("unknown zone type: " + zoneType);
+		}
+	}
+
+	private Object readResolve() throws ObjectStreamException {
+		TimeZone normalized = DateTime.normalize(zone);
+		switch (type) {
+		case DATE_TIME:
+			return DateTime.create(millis, normalized);
+		case IMMUTABLE_DATE_TIME:
+			return new ImmutableDateTime(millis, normalized);
+		default:
+			throw new InvalidObjectException("unknown type: " + type);
+		}
+	}
+
+}
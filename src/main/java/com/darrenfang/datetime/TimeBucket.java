@@ -0,0 +1,242 @@
+package com.darrenfang.datetime;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+/**
+ * 把时间戳映射为时间桶的序号, 用于按分钟, 小时, 天等汇总<br>
+ * 固定长度的桶从1970-01-01 00:00:00 UTC开始对齐; 按时间单位的桶按指定时区的当地时间对齐,
+ * 与DateTime.truncateTo一致, 但夏令时结束时重复的当地时间落在同一个桶中
+ * (与truncate("yyyy-MM-dd HH:mm")先格式化再解析的结果相同)。月和年按公历计算。<br>
+ * 序号随时间递增, 相邻的桶相差1 (夏令时开始时跳过的当地时间没有对应的桶)。对象不可变, 线程安全。
+ */
+public final class TimeBucket {
+
+	/**
+	 * 1970-01-01是星期四, 加上偏移后星期的第一天为7的倍数
+	 */
+	private static final int EPOCH_WEEKDAY = Weekday.THURSDAY.getNo();
+
+	/**
+	 * 夏令时结束时重复的当地时间的最大长度
+	 */
+	private static final long MAX_OVERLAP = 3 * DateTime.MILLISECONDS_PER_HOUR;
+
+	/**
+	 * 按时间单位划分时不为null
+	 */
+	private final Unit unit;
+
+	/**
+	 * 桶的长度(毫秒), 按天以上的单位划分时不使用
+	 */
+	private final long width;
+
+	private final TimeZone zone;
+
+	private final ZoneOffsets offsets;
+
+	private final int weekShift;
+
+	private TimeBucket(Unit unit, long width, TimeZone zone,
+			Weekday firstDayOfWeek) {
+		this.unit = unit;
+		this.width = width;
+		this.zone = zone;
+		this.offsets = zone == null ? null : ZoneOffsets.of(zone);
+		this.weekShift = (int) Gregorian.floorMod(
+				EPOCH_WEEKDAY - firstDayOfWeek.getNo(), 7);
+	}
+
+	/**
+	 * 固定长度的桶, 从1970-01-01 00:00:00 UTC开始对齐
+	 *
+	 * @param width
+	 * @param timeUnit
+	 * @return
+	 */
+	public static TimeBucket of(long width, TimeUnit timeUnit) {
+		long millis = timeUnit.toMillis(width);
+		if (millis <= 0) {
+			throw new IllegalArgumentException("width: " + width + " "
+					+ timeUnit);
+		}
+		return new TimeBucket(null, millis, null, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按系统默认时区的时间单位划分, 星期以星期日开始
+	 *
+	 * @param unit
+	 * @return
+	 */
+	public static TimeBucket of(Unit unit) {
+		return of(unit, DateTime.defaultZone(), Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时区的时间单位划分, 星期以星期日开始
+	 *
+	 * @param unit
+	 * @param zone
+	 * @return
+	 */
+	public static TimeBucket of(Unit unit, TimeZone zone) {
+		return of(unit, zone, Weekday.SUNDAY);
+	}
+
+	/**
+	 * 按时区的时间单位划分
+	 *
+	 * @param unit
+	 * @param zone
+	 * @param firstDayOfWeek
+	 *            unit为WEEK时, 一个星期的第一天
+	 * @return
+	 */
+	public static TimeBucket of(Unit unit, TimeZone zone,
+			Weekday firstDayOfWeek) {
+		if (unit == null || zone == null || firstDayOfWeek == null) {
+			throw new NullPointerException();
+		}
+		return new TimeBucket(unit, unitMillis(unit),
+				(TimeZone) zone.clone(), firstDayOfWeek);
+	}
+
+	/**
+	 * 获取时间戳所在桶的序号
+	 *
+	 * @param millis
+	 * @return
+	 */
+	public long index(long millis) {
+		if (unit == null) {
+			return Gregorian.floorDiv(millis, width);
+		}
+		long local = millis + offsets.getOffset(millis);
+		switch (unit) {
+		case MILLISECOND:
+			return local;
+		case SECOND:
+		case MINUTE:
+		case HOUR:
+		case DAY:
+			return Gregorian.floorDiv(local, width);
+		case WEEK:
+			return Gregorian.floorDiv(
+					Gregorian.floorDiv(local, DateTime.MILLISECONDS_PER_DAY)
+							+ weekShift, 7);
+		case MONTH:
+			long epochDay = Gregorian.floorDiv(local,
+					DateTime.MILLISECONDS_PER_DAY);
+			return Gregorian.year(epochDay) * 12L
+					+ Gregorian.month(epochDay) - 1;
+		default:
+			return Gregorian.year(Gregorian.floorDiv(local,
+					DateTime.MILLISECONDS_PER_DAY));
+		}
+	}
+
+	/**
+	 * 获取dateTime所在桶的序号
+	 *
+	 * @param dateTime
+	 * @return
+	 */
+	public long index(DateTime dateTime) {
+		return index(dateTime.getTime());
+	}
+
+	/**
+	 * 获取桶开始的时间戳, 当地时间重复时为第一次出现的时刻
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long start(long index) {
+		if (unit == null) {
+			return index * width;
+		}
+		long local;
+		switch (unit) {
+		case WEEK:
+			local = (index * 7 - weekShift) * DateTime.MILLISECONDS_PER_DAY;
+			break;
+		case MONTH:
+			local = Gregorian.toEpochDay(
+					(int) Gregorian.floorDiv(index, 12),
+					(int) Gregorian.floorMod(index, 12) + 1, 1)
+					* DateTime.MILLISECONDS_PER_DAY;
+			break;
+		case YEAR:
+			local = Gregorian.toEpochDay((int) index, 1, 1)
+					* DateTime.MILLISECONDS_PER_DAY;
+			break;
+		default:
+			local = index * width;
+		}
+		long instant = DateTime.localToInstant(local, zone);
+		// 夏令时结束时重复的当地时间对应较晚的时刻, 桶从第一次出现时开始
+		long earlier = local - offsets.getOffset(instant - MAX_OVERLAP);
+		if (earlier < instant && earlier + offsets.getOffset(earlier) == local) {
+			return earlier;
+		}
+		return instant;
+	}
+
+	/**
+	 * 获取桶结束的时间戳 (不包含), 即下一个桶开始的时间戳<br>
+	 * 桶完全在夏令时结束时重复的当地时间内时分为两段, 这里返回的是第一段的结束
+	 *
+	 * @param index
+	 * @return
+	 */
+	public long end(long index) {
+		return start(index + 1);
+	}
+
+	/**
+	 * 按时间单位划分时返回时间单位, 固定长度时返回null
+	 *
+	 * @return
+	 */
+	public Unit getUnit() {
+		return unit;
+	}
+
+	/**
+	 * 按时间单位划分时返回时区, 固定长度时返回null
+	 *
+	 * @return
+	 */
+	public TimeZone getTimeZone() {
+		return zone == null ? null : (TimeZone) zone.clone();
+	}
+
+	private static long unitMillis(Unit unit) {
+		switch (unit) {
+		case MILLISECOND:
+			return 1;
+		case SECOND:
+			return DateTime.MILLISECONDS_PER_SECOND;
+		case MINUTE:
+			return DateTime.MILLISECONDS_PER_MINUTE;
+		case HOUR:
+			return DateTime.MILLISECONDS_PER_HOUR;
+		default:
+			return DateTime.MILLISECONDS_PER_DAY;
+		}
+	}
+
+	@Override
+	public String toString() {
+		if (unit == null) {
+			return "TimeBucket[" + width + "ms]";
+		}
+		return "TimeBucket[" + unit + ", " + zone.getID() + "]";
+	}
+
+}
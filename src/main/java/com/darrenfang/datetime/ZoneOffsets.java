@@ -0,0 +1,258 @@
+package com.darrenfang.datetime;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 时区偏移缓存, 线程安全<br>
+ * 预先计算1800年至2100年之间时区偏移变化的时刻, 时间戳与当地时间的换算只需二分查找加一次加减;
+ * 超出范围时交由TimeZone计算。当地时间不存在(夏令时开始)或重复(夏令时结束)时与GregorianCalendar一致:
+ * 不存在的时间按切换前的偏移计算 (向后推移), 重复的时间取切换后的偏移 (较晚的时刻)。<br>
+ * 偏移变化按12小时的步长探测, 12小时内变化两次且恢复原偏移时探测不到, 这段时间的偏移与TimeZone不一致。
+ * 缓存的时区数达到上限后, 新的时区不再预先计算, 每次查询直接交由TimeZone计算;
+ * 这类时区中最近使用的MAX_OVERFLOW_SIZE个按equals (ID与规则) 保存在LRU中, 不必每次重新创建。
+ */
+final class ZoneOffsets {
+
+	/**
+	 * 缓存的时区数量上限, 超过后新的时区不再预先计算
+	 */
+	static final int MAX_CACHE_SIZE = 1024;
+
+	/**
+	 * 缓存已满后, 保存最近使用的不预先计算的时区数量
+	 */
+	static final int MAX_OVERFLOW_SIZE = 64;
+
+	/**
+	 * 1800-01-01 00:00:00 GMT
+	 */
+	static final long MIN_MILLIS = -5364662400000L;
+
+	/**
+	 * 2100-01-01 00:00:00 GMT
+	 */
+	static final long MAX_MILLIS = 4102444800000L;
+
+	/**
+	 * 探测偏移变化的步长, 步长两端的偏移不同时二分查找变化的时刻; 两端相同时认为步长内没有变化
+	 */
+	private static final long STEP = 12 * DateTime.MILLISECONDS_PER_HOUR;
+
+	private static final ConcurrentHashMap<TimeZone, ZoneOffsets> CACHE = new ConcurrentHashMap<TimeZone, ZoneOffsets>();
+
+	/**
+	 * 缓存已满后的LRU, 按访问顺序淘汰, 访问时对其加锁
+	 */
+	private static final Map<TimeZone, ZoneOffsets> OVERFLOW = new LinkedHashMap<TimeZone, ZoneOffsets>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<TimeZone, ZoneOffsets> eldest) {
+			return size() > MAX_OVERFLOW_SIZE;
+		}
+	};
+
+	/**
+	 * 最近一次查询的时区, 按引用和原始偏移比较, 避免每次计算哈希
+	 */
+	private static volatile Entry last;
+
+	private final TimeZone zone;
+
+	/**
+	 * 是否预先计算了偏移变化, 为false时所有查询都交由zone计算
+	 */
+	private final boolean tabulated;
+
+	/**
+	 * 偏移变化的时刻 (新偏移开始生效的第一毫秒), 递增
+	 */
+	private final long[] transitions;
+
+	/**
+	 * offsets[i]为transitions[i - 1]至transitions[i]之间的偏移, 比transitions多一个元素
+	 */
+	private final int[] offsets;
+
+	/**
+	 * 偏移变化时刻的当地时间 (按新的偏移), 严格递增时才能用于当地时间的换算
+	 */
+	private final long[] localTransitions;
+
+	private final boolean localSorted;
+
+	private ZoneOffsets(TimeZone zone, boolean tabulated) {
+		this.zone = zone;
+		this.tabulated = tabulated;
+		if (!tabulated) {
+			this.transitions = new long[0];
+			this.offsets = new int[1];
+			this.localTransitions = new long[0];
+			this.localSorted = false;
+			return;
+		}
+		long[] transitions = new long[16];
+		int[] offsets = new int[17];
+		int count = 0;
+		int current = zone.getOffset(MIN_MILLIS);
+		offsets[0] = current;
+		long from = MIN_MILLIS;
+		while (from < MAX_MILLIS) {
+			long to = Math.min(from + STEP, MAX_MILLIS);
+			if (zone.getOffset(to) == current) {
+				from = to;
+				continue;
+			}
+			// 二分查找新偏移生效的第一毫秒
+			long low = from;
+			long high = to;
+			while (high - low > 1) {
+				long mid = low + (high - low) / 2;
+				if (zone.getOffset(mid) == current) {
+					low = mid;
+				} else {
+					high = mid;
+				}
+			}
+			current = zone.getOffset(high);
+			if (count == transitions.length) {
+				transitions = Arrays.copyOf(transitions, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2 + 1);
+			}
+			transitions[count] = high;
+			offsets[++count] = current;
+			from = high;
+		}
+		this.transitions = Arrays.copyOf(transitions, count);
+		this.offsets = Arrays.copyOf(offsets, count + 1);
+
+		this.localTransitions = new long[count];
+		boolean sorted = true;
+		for (int i = 0; i < count; i++) {
+			localTransitions[i] = transitions[i] + offsets[i + 1];
+			if (i > 0 && localTransitions[i] <= localTransitions[i - 1]) {
+				sorted = false;
+			}
+		}
+		this.localSorted = sorted;
+	}
+
+	/**
+	 * 获取时区的偏移缓存, 同一时区只计算一次
+	 *
+	 * @param zone
+	 *            缓存保存副本, 之后修改zone不影响已获取的ZoneOffsets
+	 * @return
+	 */
+	static ZoneOffsets of(TimeZone zone) {
+		Entry entry = last;
+		if (entry != null && entry.zone == zone
+				&& entry.rawOffset == zone.getRawOffset()) {
+			return entry.offsets;
+		}
+
+		ZoneOffsets offsets = CACHE.get(zone);
+		if (offsets == null) {
+			if (CACHE.size() < MAX_CACHE_SIZE) {
+				offsets = new ZoneOffsets((TimeZone) zone.clone(), true);
+				ZoneOffsets existing = CACHE.putIfAbsent(offsets.zone, offsets);
+				if (existing != null) {
+					offsets = existing;
+				}
+			} else {
+				// 缓存已满, 不预先计算, 避免每次查询都探测300年的偏移变化
+				offsets = overflow(zone);
+			}
+		}
+		if (!(zone instanceof SimpleTimeZone)) {
+			// SimpleTimeZone可以修改夏令时规则, 只按equals查找
+			last = new Entry(zone, offsets);
+		}
+		return offsets;
+	}
+
+	/**
+	 * 从LRU获取不预先计算的ZoneOffsets, 没有时创建
+	 */
+	static ZoneOffsets overflow(TimeZone zone) {
+		synchronized (OVERFLOW) {
+			ZoneOffsets offsets = OVERFLOW.get(zone);
+			if (offsets == null) {
+				offsets = uncached(zone);
+				OVERFLOW.put(offsets.zone, offsets);
+			}
+			return offsets;
+		}
+	}
+
+	/**
+	 * 不预先计算的ZoneOffsets, 所有查询都交由TimeZone计算
+	 */
+	static ZoneOffsets uncached(TimeZone zone) {
+		return new ZoneOffsets((TimeZone) zone.clone(), false);
+	}
+
+	/**
+	 * 获取时间戳对应的时区偏移, 与TimeZone.getOffset相同
+	 *
+	 * @param millis
+	 * @return
+	 */
+	int getOffset(long millis) {
+		if (!tabulated || millis < MIN_MILLIS || millis >= MAX_MILLIS) {
+			return zone.getOffset(millis);
+		}
+		int i = Arrays.binarySearch(transitions, millis);
+		return offsets[i >= 0 ? i + 1 : -i - 1];
+	}
+
+	/**
+	 * 当地时间是否在缓存范围内, 范围外由调用者交给Calendar计算
+	 *
+	 * @param local
+	 * @return
+	 */
+	boolean covers(long local) {
+		return localSorted && local >= MIN_MILLIS + DateTime.MILLISECONDS_PER_DAY
+				&& local < MAX_MILLIS - DateTime.MILLISECONDS_PER_DAY;
+	}
+
+	/**
+	 * 计算当地时间对应的时间戳, 调用前需确认covers(local)
+	 *
+	 * @param local
+	 *            当地时间 (时间戳加上时区偏移)
+	 * @return
+	 */
+	long localToInstant(long local) {
+		// 最后一个不晚于local的变化时刻之后的偏移
+		int i = Arrays.binarySearch(localTransitions, local);
+		int index = i >= 0 ? i + 1 : -i - 1;
+		return local - offsets[index];
+	}
+
+	/**
+	 * 按引用记录最近查询的时区, 同时记录原始偏移以发现setRawOffset
+	 */
+	private static final class Entry {
+		final TimeZone zone;
+
+		final int rawOffset;
+
+		final ZoneOffsets offsets;
+
+		Entry(TimeZone zone, ZoneOffsets offsets) {
+			this.zone = zone;
+			this.rawOffset = offsets.zone.getRawOffset();
+			this.offsets = offsets;
+		}
+	}
+
+}
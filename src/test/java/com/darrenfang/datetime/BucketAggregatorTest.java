@@ -0,0 +1,106 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Unit;
+
+public class BucketAggregatorTest {
+	@Test
+	public void howToUse() {
+		TimeBucket minutes = TimeBucket.of(Unit.MINUTE,
+				TimeZone.getTimeZone("Asia/Shanghai"));
+		BucketAggregator aggregator = new BucketAggregator(minutes, 60);
+		aggregator.record(new DateTime(2013, 1, 2, 3, 4, 5, 0), 10);
+		aggregator.record(new DateTime(2013, 1, 2, 3, 4, 59, 999), 20);
+		aggregator.record(new DateTime(2013, 1, 2, 3, 5, 0, 0).getTime());
+		aggregator.record(new DateTime(2013, 1, 2, 3, 4, 30, 0).getTime());
+
+		long index = minutes.index(new DateTime(2013, 1, 2, 3, 4, 0, 0));
+		assertEquals(3, aggregator.getCount(index));
+		assertEquals(30, aggregator.getSum(index));
+		assertEquals(1, aggregator.getCount(index + 1));
+		assertEquals(index + 1, aggregator.getLatest());
+		assertEquals(0, aggregator.getCount(index + 2));
+	}
+
+	@Test
+	public void testRing() {
+		BucketAggregator aggregator = new BucketAggregator(TimeBucket.of(1,
+				TimeUnit.SECONDS), 3, 4);
+		assertEquals(Long.MIN_VALUE, aggregator.getLatest());
+		for (int second = 0; second < 3; second++) {
+			assertTrue(aggregator.record(second * 1000L, second));
+		}
+		assertEquals(1, aggregator.getCount(0));
+		// 第3秒替换第0秒
+		assertTrue(aggregator.record(3500, 7));
+		assertEquals(0, aggregator.getCount(0));
+		assertEquals(7, aggregator.getSum(3));
+		assertFalse(aggregator.record(0, 1));
+		assertEquals(0, aggregator.getCount(0));
+		// 仍在保留范围内的旧桶可以记录
+		assertTrue(aggregator.record(1999, 1));
+		assertEquals(2, aggregator.getCount(1));
+		assertEquals(2, aggregator.getSum(1));
+		// 跳过多个桶
+		assertTrue(aggregator.record(-1000000 + 100000000L, 1));
+		assertEquals(99000, aggregator.getLatest());
+		assertEquals(0, aggregator.getCount(3));
+		assertFalse(aggregator.record(98997 * 1000L, 1));
+		assertTrue(aggregator.record(98998 * 1000L, 1));
+	}
+
+	@Test
+	public void testConcurrent() throws InterruptedException {
+		final BucketAggregator aggregator = new BucketAggregator(
+				TimeBucket.of(1, TimeUnit.SECONDS), 16, 8);
+		final int threads = 8;
+		final int perThread = 200000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicLong dropped = new AtomicLong();
+		Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			workers[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < perThread; i++) {
+						// 每1000次进入下一秒, 共200个桶, 只保留最后16个
+						if (!aggregator.record(i / 1000 * 1000L, i % 10)) {
+							dropped.incrementAndGet();
+						}
+					}
+				}
+			};
+			workers[t].start();
+		}
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		assertEquals(perThread / 1000 - 1, aggregator.getLatest());
+		// 最后的桶不会被替换, 计数准确
+		assertEquals(threads * 1000L, aggregator.getCount(199));
+		assertEquals(threads * 4500L, aggregator.getSum(199));
+		assertEquals(0, aggregator.getCount(199 - 16));
+		assertTrue(dropped.get() < threads * perThread);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseWindows() {
+		new BucketAggregator(TimeBucket.of(1, TimeUnit.SECONDS), 0);
+	}
+}
@@ -0,0 +1,146 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class BusinessCalendarTest {
+	@Test
+	public void howToUse() {
+		// 2013年国庆节: 10月1日至7日放假, 9月29日(星期日)和10月12日(星期六)上班
+		BusinessCalendar calendar = BusinessCalendar.builder()
+				.holiday(2013, 10, 1).holiday(2013, 10, 2)
+				.holiday(2013, 10, 3).holiday(2013, 10, 4)
+				.holiday(2013, 10, 7).workday(2013, 9, 29)
+				.workday(2013, 10, 12).build();
+		assertTrue(calendar.isBusinessDay(2013, 9, 29));
+		assertFalse(calendar.isBusinessDay(new DateTime(2013, 10, 7)));
+
+		DateTime friday = new DateTime(2013, 9, 27, 15, 30, 0, 0);
+		assertEquals(new DateTime(2013, 9, 29, 15, 30, 0, 0),
+				calendar.addBusinessDays(friday, 1));
+		assertEquals(new DateTime(2013, 10, 8, 15, 30, 0, 0),
+				calendar.addBusinessDays(friday, 3));
+		assertEquals(new DateTime(2013, 9, 27, 15, 30, 0, 0),
+				calendar.addBusinessDays(new DateTime(2013, 10, 8, 15, 30, 0,
+						0), -3));
+		assertEquals(friday, calendar.addBusinessDays(friday, 0));
+		// 9月27日, 29日, 30日, 10月8日
+		assertEquals(4, calendar.businessDaysBetween(friday, new DateTime(
+				2013, 10, 9)));
+		assertEquals(-4, calendar.businessDaysBetween(2013, 10, 9, 2013, 9, 27));
+	}
+
+	@Test
+	public void testWeekend() {
+		BusinessCalendar calendar = BusinessCalendar.builder().build();
+		// 2013-01-05为星期六
+		DateTime saturday = new DateTime(2013, 1, 5, 10, 0, 0, 0);
+		assertFalse(calendar.isBusinessDay(saturday));
+		assertEquals(new DateTime(2013, 1, 7, 10, 0, 0, 0),
+				calendar.addBusinessDays(saturday, 1));
+		assertEquals(new DateTime(2013, 1, 4, 10, 0, 0, 0),
+				calendar.addBusinessDays(saturday, -1));
+		assertEquals(new DateTime(2013, 1, 11, 10, 0, 0, 0),
+				calendar.addBusinessDays(new DateTime(2013, 1, 4, 10, 0, 0, 0),
+						5));
+
+		BusinessCalendar middleEast = BusinessCalendar.builder()
+				.weekend(Weekday.FRIDAY, Weekday.SATURDAY).build();
+		assertTrue(middleEast.isBusinessDay(2013, 1, 6));
+		assertFalse(middleEast.isBusinessDay(2013, 1, 4));
+	}
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(42);
+		Set<Long> holidays = new HashSet<Long>();
+		Set<Long> workdays = new HashSet<Long>();
+		BusinessCalendar.Builder builder = BusinessCalendar.builder().range(
+				2000, 2030);
+		long first = Gregorian.toEpochDay(2000, 1, 1);
+		long last = Gregorian.toEpochDay(2031, 1, 1);
+		for (int i = 0; i < 2000; i++) {
+			long day = first + random.nextInt((int) (last - first));
+			if (random.nextBoolean()) {
+				holidays.add(day);
+				builder.holiday(Gregorian.year(day), Gregorian.month(day),
+						Gregorian.day(day));
+			} else {
+				workdays.add(day);
+				builder.workday(Gregorian.year(day), Gregorian.month(day),
+						Gregorian.day(day));
+			}
+		}
+		// 一个月的长假
+		for (int d = 0; d < 40; d++) {
+			holidays.add(Gregorian.toEpochDay(2015, 3, 1) + d);
+			builder.holiday(new DateTime(2015, 3, 1).addDays(d));
+		}
+		BusinessCalendar calendar = builder.build();
+		boolean[] business = new boolean[(int) (last - first)];
+		for (int i = 0; i < business.length; i++) {
+			long day = first + i;
+			int weekday = Gregorian.dayOfWeek(day);
+			business[i] = workdays.contains(day) || !holidays.contains(day)
+					&& weekday != 1 && weekday != 7;
+		}
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		for (int q = 0; q < 3000; q++) {
+			int i = 100 + random.nextInt(business.length - 200);
+			int j = 100 + random.nextInt(business.length - 200);
+			DateTime a = dateTime(first + i, zone);
+			DateTime b = dateTime(first + j, zone);
+			assertEquals(business[i], calendar.isBusinessDay(a));
+			int expected = 0;
+			for (int k = Math.min(i, j); k < Math.max(i, j); k++) {
+				expected += business[k] ? 1 : 0;
+			}
+			assertEquals(i <= j ? expected : -expected,
+					calendar.businessDaysBetween(a, b));
+
+			int n = random.nextInt(41) - 20;
+			int k = i;
+			for (int step = 0; step < Math.abs(n); step++) {
+				do {
+					k += n > 0 ? 1 : -1;
+				} while (!business[k]);
+			}
+			DateTime result = calendar.addBusinessDays(a, n);
+			assertEquals(dateTime(first + k, zone), result);
+			assertEquals(zone, result.getTimeZone());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseOutOfRange() {
+		BusinessCalendar.builder().range(2000, 2010).build()
+				.isBusinessDay(2011, 1, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseResultOutOfRange() {
+		BusinessCalendar.builder().range(2000, 2010).build()
+				.addBusinessDays(new DateTime(2010, 12, 30), 5);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseHolidayOutOfRange() {
+		BusinessCalendar.builder().range(2000, 2010).holiday(1999, 12, 31)
+				.build();
+	}
+
+	private static DateTime dateTime(long epochDay, TimeZone zone) {
+		return new DateTime(Gregorian.year(epochDay), Gregorian.month(epochDay),
+				Gregorian.day(epochDay), 9, 30, 0, 0, zone);
+	}
+}
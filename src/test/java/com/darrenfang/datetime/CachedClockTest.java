@@ -0,0 +1,140 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class CachedClockTest {
+	/**
+	 * 模拟时间, 由测试推进
+	 */
+	private static class ManualClock extends Clock {
+		final AtomicLong millis = new AtomicLong();
+
+		/**
+		 * 不为null时nowMillis()抛出该异常
+		 */
+		volatile RuntimeException failure;
+
+		@Override
+		public long nowMillis() {
+			RuntimeException e = failure;
+			if (e != null) {
+				throw e;
+			}
+			return millis.get();
+		}
+	}
+
+	@Test
+	public void howToUse() {
+		Clock clock = Clock.fixed(new DateTime(2013, 1, 2).getTime());
+		assertEquals(new DateTime(2013, 1, 2), DateTime.now(clock));
+		assertEquals(new ImmutableDateTime(2013, 1, 2),
+				ImmutableDateTime.now(clock));
+		DateTime reuse = new DateTime(0);
+		assertSame(reuse, clock.now(reuse));
+		assertEquals(new DateTime(2013, 1, 2), reuse);
+
+		CachedClock cached = new CachedClock(10, TimeUnit.MILLISECONDS);
+		try {
+			long before = System.currentTimeMillis();
+			long now = cached.nowMillis();
+			assertTrue(Math.abs(now - before) < 1000);
+			assertEquals(10, cached.getResolution(TimeUnit.MILLISECONDS));
+		} finally {
+			cached.close();
+		}
+	}
+
+	@Test
+	public void testTick() {
+		ManualClock source = new ManualClock();
+		source.millis.set(1000);
+		// 间隔足够长, 只由测试调用tick
+		CachedClock clock = new CachedClock(source, 1, TimeUnit.HOURS);
+		try {
+			assertEquals(1000, clock.nowMillis());
+			ImmutableDateTime first = clock.nowImmutable();
+			assertEquals(1000, first.getTime());
+
+			source.millis.set(2000);
+			assertEquals(1000, clock.nowMillis());
+			clock.tick();
+			assertEquals(2000, clock.nowMillis());
+			ImmutableDateTime second = ImmutableDateTime.now(clock);
+			assertNotSame(first, second);
+			clock.tick();
+			assertSame(second, clock.nowImmutable());
+			assertEquals(new DateTime(2000), clock.now());
+		} finally {
+			clock.close();
+		}
+	}
+
+	@Test
+	public void testTicker() throws InterruptedException {
+		ManualClock source = new ManualClock();
+		CachedClock clock = new CachedClock(source, 1, TimeUnit.MILLISECONDS);
+		try {
+			source.millis.set(5000);
+			long deadline = System.currentTimeMillis() + 10000;
+			while (clock.nowMillis() != 5000
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertEquals(5000, clock.nowMillis());
+		} finally {
+			clock.close();
+		}
+	}
+
+	@Test
+	public void misuseSourceThrows() throws InterruptedException {
+		ManualClock source = new ManualClock();
+		source.millis.set(1000);
+		CachedClock clock = new CachedClock(source, 1, TimeUnit.MILLISECONDS);
+		try {
+			// 时间来源抛出异常后直接读取时间来源, 异常抛给调用者而不是一直返回旧的时间
+			IllegalStateException failure = new IllegalStateException();
+			source.failure = failure;
+			long deadline = System.currentTimeMillis() + 10000;
+			RuntimeException thrown = null;
+			while (thrown == null && System.currentTimeMillis() < deadline) {
+				try {
+					clock.nowMillis();
+					Thread.sleep(1);
+				} catch (RuntimeException e) {
+					thrown = e;
+				}
+			}
+			assertSame(failure, thrown);
+
+			// 时间来源恢复后立即返回新的时间, 后台线程继续更新
+			source.failure = null;
+			source.millis.set(3000);
+			assertEquals(3000, clock.nowMillis());
+			assertEquals(3000, clock.nowImmutable().getTime());
+			source.millis.set(4000);
+			deadline = System.currentTimeMillis() + 10000;
+			while (clock.nowMillis() != 4000
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(1);
+			}
+			assertEquals(4000, clock.nowMillis());
+		} finally {
+			clock.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseResolution() {
+		new CachedClock(0, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,144 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class DateTimeArrayTest {
+	private static final TimeZone[] ZONES = { null,
+			TimeZone.getTimeZone("America/New_York"),
+			TimeZone.getTimeZone("Australia/Lord_Howe") };
+
+	@Test
+	public void howToUse() {
+		DateTimeArray array = new DateTimeArray();
+		array.add(new DateTime(2013, 1, 31, 3, 4, 5, 6)).add(
+				new DateTime(2012, 2, 29).getTime());
+		assertEquals(2, array.size());
+		assertEquals(new DateTime(2012, 2, 29), array.get(1));
+
+		assertArrayEquals(new int[] { 2013, 2012 }, array.getYear(null));
+		assertArrayEquals(new int[] { 1, 2 }, array.getMonth(null));
+		assertArrayEquals(new int[] { 31, 29 }, array.getDay(null));
+		assertArrayEquals(new int[] { 3, 0 }, array.getHour(null));
+		assertArrayEquals(new int[] { Weekday.THURSDAY.getNo(),
+				Weekday.WEDNESDAY.getNo() }, array.getWeekday(null));
+
+		array.addMonths(1);
+		assertEquals("[2013-02-28 03:04:05, 2012-03-29 00:00:00]",
+				array.toString());
+		array.addYears(1).addDays(-1);
+		assertEquals("[2014-02-27 03:04:05, 2013-03-28 00:00:00]",
+				array.toString());
+		array.truncateTo(Unit.MONTH);
+		assertEquals("[2014-02-01 00:00:00, 2013-03-01 00:00:00]",
+				array.toString());
+
+		array.sort();
+		assertEquals(0, array.binarySearch(new DateTime(2013, 3, 1)));
+		assertEquals(-2, array.binarySearch(new DateTime(2013, 3, 2)));
+	}
+
+	@Test
+	public void testWrap() {
+		long[] timestamps = { 3, 1, 2 };
+		DateTimeArray.wrap(timestamps).sort();
+		assertArrayEquals(new long[] { 1, 2, 3 }, timestamps);
+
+		DateTimeArray copy = new DateTimeArray(timestamps);
+		copy.setTime(0, 5);
+		assertEquals(1, timestamps[0]);
+		assertArrayEquals(new long[] { 5, 2, 3 }, copy.toArray());
+
+		DateTimeArray array = new DateTimeArray(0);
+		for (int i = 0; i < 100; i++) {
+			array.add(i);
+		}
+		assertEquals(100, array.size());
+		assertEquals(99, array.getTime(99));
+		array.clear();
+		assertEquals(0, array.size());
+	}
+
+	@Test
+	public void testMatchesDateTime() {
+		long step = 37 * DateTime.MILLISECONDS_PER_DAY + 3723007;
+		long start = new DateTime(1500, 1, 1).getTime();
+		long end = new DateTime(2100, 1, 1).getTime();
+		long[] timestamps = new long[(int) ((end - start) / step) + 1];
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = start + i * step;
+		}
+
+		for (TimeZone zone : ZONES) {
+			DateTimeArray array = new DateTimeArray(timestamps.clone(),
+					timestamps.length, DateTime.normalize(zone));
+			int[] years = array.getYear(null);
+			int[] months = array.getMonth(null);
+			int[] days = array.getDay(null);
+			int[] hours = array.getHour(null);
+			int[] weekdays = array.getWeekday(null);
+			for (int i = 0; i < timestamps.length; i++) {
+				DateTime dateTime = new DateTime(timestamps[i], zone);
+				assertEquals(dateTime.getYear(), years[i]);
+				assertEquals(dateTime.getMonth(), months[i]);
+				assertEquals(dateTime.getDay(), days[i]);
+				assertEquals(dateTime.getHour(), hours[i]);
+				assertEquals(dateTime.getWeekday().getNo(), weekdays[i]);
+			}
+
+			for (int amount : new int[] { 1, -1, 30, -400 }) {
+				DateTimeArray added = new DateTimeArray(timestamps.clone(),
+						timestamps.length, DateTime.normalize(zone)).addDays(amount);
+				for (int i = 0; i < timestamps.length; i++) {
+					assertEquals(new DateTime(timestamps[i], zone).addDays(
+							amount).getTime(), added.getTime(i));
+				}
+				added = new DateTimeArray(timestamps.clone(),
+						timestamps.length, DateTime.normalize(zone)).addMonths(amount);
+				for (int i = 0; i < timestamps.length; i++) {
+					assertEquals(new DateTime(timestamps[i], zone).addMonths(
+							amount).getTime(), added.getTime(i));
+				}
+			}
+
+			DateTimeArray truncated = new DateTimeArray(timestamps.clone(),
+					timestamps.length, DateTime.normalize(zone)).truncateTo(Unit.WEEK,
+					Weekday.MONDAY);
+			for (int i = 0; i < timestamps.length; i++) {
+				assertEquals(new DateTime(timestamps[i], zone).truncateTo(
+						Unit.WEEK, Weekday.MONDAY).getTime(),
+						truncated.getTime(i));
+			}
+		}
+	}
+
+	@Test
+	public void testSort() {
+		long[] timestamps = { 5, -3, 9, 0, 5, Long.MIN_VALUE };
+		DateTimeArray array = new DateTimeArray(timestamps).sort();
+		Arrays.sort(timestamps);
+		assertArrayEquals(timestamps, array.toArray());
+		for (int i = 0; i < timestamps.length; i++) {
+			assertTrue(array.binarySearch(timestamps[i]) >= 0);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void misuseIndex() {
+		new DateTimeArray(10).add(1).getTime(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseDest() {
+		new DateTimeArray(new long[3]).getYear(new int[2]);
+	}
+}
@@ -0,0 +1,181 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DateTimeEncoderTest {
+	@Test
+	public void howToUse() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DateTimeEncoder encoder = new DateTimeEncoder(out);
+		long start = new DateTime(2013, 1, 2).getTime();
+		for (int i = 0; i < 1000; i++) {
+			encoder.add(start + i * 1000L);
+		}
+		encoder.add(new DateTime(2013, 1, 3)).close();
+		// 块头约11字节, 间隔固定的时间戳每个1字节, 最后一个3字节
+		assertTrue(out.size() < 1020);
+
+		DateTimeDecoder decoder = new DateTimeDecoder(new ByteArrayInputStream(
+				out.toByteArray()));
+		DateTime reuse = new DateTime(0);
+		assertEquals(new DateTime(2013, 1, 2), decoder.next(reuse));
+		assertEquals(start + 1000, decoder.next());
+		long[] dest = new long[2000];
+		assertEquals(999, decoder.read(dest, 0, dest.length));
+		assertEquals(new DateTime(2013, 1, 3).getTime(), dest[998]);
+		assertFalse(decoder.hasNext());
+		assertEquals(-1, decoder.read(dest, 0, 1));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Random random = new Random(42);
+		long[][] inputs = { {}, { Long.MIN_VALUE }, regular(5000, 60000),
+				jittered(random, 5000), randomValues(random, 3000),
+				{ Long.MAX_VALUE, Long.MIN_VALUE, 0, Long.MAX_VALUE, -1 } };
+		int[] blockSizes = { 1, 7, 1024 };
+		for (long[] input : inputs) {
+			for (int blockSize : blockSizes) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				DateTimeEncoder encoder = new DateTimeEncoder(out, blockSize);
+				encoder.add(input, 0, input.length / 2);
+				encoder.add(
+						DateTimeArray.iterator(input, input.length / 2,
+								input.length - input.length / 2)).flush();
+				byte[] bytes = out.toByteArray();
+				assertArrayEquals(input, decodeAll(new DateTimeDecoder(
+						new ByteArrayInputStream(bytes)), input.length));
+
+				ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 8)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				buffer.position(3);
+				new DateTimeEncoder(buffer, blockSize).add(input, 0,
+						input.length).flush();
+				assertEquals(3 + bytes.length, buffer.position());
+				buffer.flip().position(3);
+				assertArrayEquals(input, decodeAll(new DateTimeDecoder(buffer),
+						input.length));
+				assertEquals(3, buffer.position());
+			}
+		}
+	}
+
+	@Test
+	public void testSize() throws IOException {
+		long[] regular = regular(100000, 1000);
+		assertTrue(encode(regular, 1024).length < 1.02 * regular.length);
+		long[] jittered = jittered(new Random(1), 100000);
+		assertTrue(encode(jittered, 1024).length < 2.02 * jittered.length);
+	}
+
+	@Test
+	public void testSeek() throws IOException {
+		long[] input = jittered(new Random(7), 10000);
+		Arrays.sort(input);
+		ByteBuffer buffer = ByteBuffer.wrap(encode(input, 100));
+		DateTimeDecoder decoder = new DateTimeDecoder(buffer);
+		Random random = new Random(3);
+		for (int i = 0; i < 1000; i++) {
+			long target = input[0] - 10 + (long) (random.nextDouble()
+					* (input[input.length - 1] - input[0] + 20));
+			decoder.seek(target);
+			int index = lowerBound(input, target);
+			if (index == input.length) {
+				assertFalse(decoder.hasNext());
+			} else {
+				assertEquals(input[index], decoder.next());
+				if (index + 1 < input.length) {
+					assertEquals(input[index + 1], decoder.next());
+				}
+			}
+		}
+		decoder.seek(input[5000]);
+		assertEquals(5000, decoder.read(new long[6000], 0, 6000));
+	}
+
+	@Test(expected = EOFException.class)
+	public void misuseTruncated() throws IOException {
+		byte[] bytes = encode(regular(100, 1000), 1024);
+		DateTimeDecoder decoder = new DateTimeDecoder(ByteBuffer.wrap(bytes,
+				0, bytes.length - 1).slice());
+		while (decoder.hasNext()) {
+			decoder.next();
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void misuseSeekStream() throws IOException {
+		new DateTimeDecoder(new ByteArrayInputStream(new byte[0])).seek(0);
+	}
+
+	private static long[] decodeAll(DateTimeDecoder decoder, int expected)
+			throws IOException {
+		long[] values = new long[expected];
+		int n = 0;
+		while (decoder.hasNext()) {
+			values[n++] = decoder.next();
+		}
+		return values;
+	}
+
+	private static byte[] encode(long[] values, int blockSize)
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new DateTimeEncoder(out, blockSize).add(values, 0, values.length)
+				.close();
+		return out.toByteArray();
+	}
+
+	private static long[] regular(int count, long step) {
+		long[] values = new long[count];
+		long start = new DateTime(2013, 1, 1).getTime();
+		for (int i = 0; i < count; i++) {
+			values[i] = start + i * step;
+		}
+		return values;
+	}
+
+	/**
+	 * 每秒一个, 抖动在±5秒内
+	 */
+	private static long[] jittered(Random random, int count) {
+		long[] values = regular(count, 1000);
+		for (int i = 0; i < count; i++) {
+			values[i] += random.nextInt(5000);
+		}
+		return values;
+	}
+
+	private static long[] randomValues(Random random, int count) {
+		long[] values = new long[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = random.nextLong();
+		}
+		return values;
+	}
+
+	private static int lowerBound(long[] values, long target) {
+		int index = Arrays.binarySearch(values, target);
+		if (index < 0) {
+			return -index - 1;
+		}
+		while (index > 0 && values[index - 1] == target) {
+			index--;
+		}
+		return index;
+	}
+}
@@ -0,0 +1,132 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DateTimeFileTest {
+	private File path;
+
+	@Before
+	public void setUp() throws IOException {
+		path = File.createTempFile("datetime", ".dtc");
+	}
+
+	@After
+	public void tearDown() {
+		path.delete();
+	}
+
+	@Test
+	public void howToUse() throws IOException {
+		DateTimeFile file = DateTimeFile.open(path);
+		DateTime start = new DateTime(2013, 1, 1);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, file.append(start.getTime() + i
+					* DateTime.MILLISECONDS_PER_HOUR));
+		}
+		file.close();
+
+		// 重新打开后数据不变, 重复使用同一个DateTime对象读取
+		file = DateTimeFile.openReadOnly(path);
+		assertEquals(100, file.size());
+		DateTime reuse = new DateTime();
+		assertSame(reuse, file.get(25, reuse));
+		assertEquals("2013-01-02 01:00:00", reuse.toString());
+		assertEquals("2013-01-05 03:00:00", file.get(99, null).toString());
+
+		// 范围扫描 [2013-01-02, 2013-01-03)
+		long from = file.lowerBound(new DateTime(2013, 1, 2).getTime());
+		long to = file.lowerBound(new DateTime(2013, 1, 3).getTime());
+		assertEquals(24, from);
+		assertEquals(48, to);
+		assertEquals(0, file.lowerBound(Long.MIN_VALUE));
+		assertEquals(100, file.lowerBound(Long.MAX_VALUE));
+		assertEquals(25, file.lowerBound(start.getTime() + 24
+				* DateTime.MILLISECONDS_PER_HOUR + 1));
+		file.close();
+	}
+
+	@Test
+	public void testSegments() throws IOException {
+		// 每段64字节(8个时间戳)
+		DateTimeFile writer = DateTimeFile.open(path, false, 6);
+		DateTimeFile reader = DateTimeFile.open(path, true, 6);
+		for (int i = 0; i < 50; i++) {
+			writer.append(i * 10L);
+			assertEquals(i + 1, reader.size());
+			assertEquals(i * 10L, reader.getTime(i));
+		}
+		long[] dest = new long[60];
+		assertEquals(45, reader.read(5, dest, 1, 59));
+		for (int i = 0; i < 45; i++) {
+			assertEquals((i + 5) * 10L, dest[i + 1]);
+		}
+		assertEquals(17, reader.lowerBound(161));
+		writer.close();
+		reader.close();
+
+		writer = DateTimeFile.open(path, false, 6);
+		writer.append(500);
+		assertEquals(51, writer.size());
+		long[] tail = new long[2];
+		writer.read(49, tail, 0, 2);
+		assertArrayEquals(new long[] { 490, 500 }, tail);
+		writer.close();
+	}
+
+	@Test
+	public void testGetTimeAfterAppend() throws IOException {
+		// 不调用size(), getTime超出上次读取的个数时重新读取
+		DateTimeFile writer = DateTimeFile.open(path, false, 6);
+		DateTimeFile reader = DateTimeFile.open(path, true, 6);
+		for (int i = 0; i < 20; i++) {
+			writer.append(i * 10L);
+			assertEquals(i * 10L, reader.getTime(i));
+			assertEquals(0L, reader.getTime(0));
+		}
+		writer.close();
+		reader.close();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void misuseIndex() throws IOException {
+		DateTimeFile file = DateTimeFile.open(path);
+		try {
+			file.append(1);
+			file.getTime(1);
+		} finally {
+			file.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void misuseReadOnly() throws IOException {
+		DateTimeFile.open(path).close();
+		DateTimeFile file = DateTimeFile.openReadOnly(path);
+		try {
+			file.append(1);
+		} finally {
+			file.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void misuseFormat() throws IOException {
+		FileOutputStream out = new FileOutputStream(path);
+		try {
+			out.write(new byte[32]);
+		} finally {
+			out.close();
+		}
+		DateTimeFile.open(path);
+	}
+}
@@ -0,0 +1,125 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DateTimeParserTest {
+	private static final DateTimePattern PATTERN = DateTimePattern
+			.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void howToUse() throws InterruptedException, ParseException {
+		List<String> texts = Arrays.asList("2013-01-02 03:04:05",
+				"2013-02-30 00:00:00", null, "2013-12-31 23:59:59");
+		long[] dest = new long[4];
+		BitSet bad = new BitSet();
+		bad.set(3);
+		assertEquals(4, new DateTimeParser(PATTERN).parse(texts, dest, bad));
+		assertEquals(PATTERN.parse("2013-01-02 03:04:05"), dest[0]);
+		assertEquals(PATTERN.parse("2013-12-31 23:59:59"), dest[3]);
+		assertEquals(0, dest[1]);
+		assertEquals("{1, 2}", bad.toString());
+
+		String lines = "2013-01-02 03:04:05,login\r\n" + "bad line\n"
+				+ "2013-01-02 03:04:06\n" + "\n" + "2013-01-02 03:04:07 logout";
+		dest = new long[5];
+		assertEquals(5, new DateTimeParser(PATTERN).parseLines(lines, dest,
+				bad));
+		assertEquals(PATTERN.parse("2013-01-02 03:04:05"), dest[0]);
+		assertEquals(PATTERN.parse("2013-01-02 03:04:06"), dest[2]);
+		assertEquals(PATTERN.parse("2013-01-02 03:04:07"), dest[4]);
+		assertEquals("{1, 3}", bad.toString());
+
+		// 开头有空格时不在秒的中间截断
+		dest = new long[2];
+		bad.clear();
+		assertEquals(2, new DateTimeParser(PATTERN).parseLines(
+				" 2013-01-02 03:04:05,login\n2013-01-02 03:04:0512", dest, bad));
+		assertEquals(PATTERN.parse("2013-01-02 03:04:05"), dest[0]);
+		assertEquals("{1}", bad.toString());
+
+		dest = new long[5];
+		char[] chars = ("x\n" + lines + "\n").toCharArray();
+		assertEquals(5, new DateTimeParser(PATTERN).parseLines(chars, 2,
+				chars.length - 2, dest, bad));
+		assertEquals("{1, 3}", bad.toString());
+	}
+
+	@Test
+	public void testVariableWidth() throws InterruptedException {
+		DateTimePattern pattern = DateTimePattern.compile("yyyy-M-d H:m:s");
+		long[] dest = new long[3];
+		BitSet bad = new BitSet();
+		assertEquals(3, new DateTimeParser(pattern).parseLines(
+				"2013-1-2 3:4:5\n2013-12-31 23:59:59\n2013-1-2 3:4:5 x", dest,
+				bad));
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 5, 0).getTime(), dest[0]);
+		assertEquals(new DateTime(2013, 12, 31, 23, 59, 59, 0).getTime(),
+				dest[1]);
+		assertEquals("{2}", bad.toString());
+	}
+
+	@Test
+	public void testParallel() throws InterruptedException {
+		int count = 100000;
+		List<String> texts = new ArrayList<String>(count);
+		StringBuilder lines = new StringBuilder();
+		long start = new DateTime(2013, 1, 1).getTime();
+		for (int i = 0; i < count; i++) {
+			String text = i % 1000 == 7 ? "2013-01-0x 00:00:00" : PATTERN
+					.format(start + i * 997L * 1000);
+			texts.add(text);
+			lines.append(text).append(",").append(i).append('\n');
+		}
+
+		long[] expected = new long[count];
+		BitSet expectedBad = new BitSet();
+		new DateTimeParser(PATTERN).parse(texts, expected, expectedBad);
+		assertEquals(count / 1000, expectedBad.cardinality());
+
+		DateTimeParser parallel = new DateTimeParser(PATTERN, executor);
+		long[] dest = new long[count];
+		BitSet bad = new BitSet();
+		assertEquals(count, parallel.parse(texts, dest, bad));
+		assertTrue(Arrays.equals(expected, dest));
+		assertEquals(expectedBad, bad);
+
+		dest = new long[count];
+		bad = new BitSet();
+		assertEquals(count, parallel.parseLines(lines, dest, bad));
+		assertTrue(Arrays.equals(expected, dest));
+		assertEquals(expectedBad, bad);
+		assertFalse(bad.get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseDest() throws InterruptedException {
+		new DateTimeParser(PATTERN).parseLines("a\nb\nc", new long[2],
+				new BitSet());
+	}
+}
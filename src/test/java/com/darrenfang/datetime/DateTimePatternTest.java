@@ -0,0 +1,377 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.junit.Test;
+
+public class DateTimePatternTest {
+	private static final String[] PATTERNS = { DateTime.DEFAULT_DATETIME_FORMAT,
+			"yyyy-MM-dd", "yy-MM-dd", "yyyyMMddHHmmssSSS", "y-M-d H:m:s.S",
+			"yyyy-MM-dd'T'HH:mm:ss.SSS", "'at' HH 'o''clock'", "DDD",
+			"yyyy-MM-dd EEE", "MMM d, yyyy", "yyyy-MM-dd HH:mm:ss Z" };
+
+	@Test
+	public void testFormatMatchesFastDateFormat() {
+		TimeZone[] zones = { TimeZone.getDefault(),
+				TimeZone.getTimeZone("America/New_York"),
+				TimeZone.getTimeZone("UTC") };
+		long step = 37 * DateTime.MILLISECONDS_PER_DAY + 3723007;
+		for (String pattern : PATTERNS) {
+			DateTimePattern compiled = DateTimePattern.compile(pattern);
+			for (TimeZone zone : zones) {
+				FastDateFormat expected = FastDateFormat.getInstance(pattern,
+						zone);
+				long start = new DateTime(1900, 1, 1).getTime();
+				long end = new DateTime(2100, 1, 1).getTime();
+				for (long t = start; t < end; t += step) {
+					assertEquals(expected.format(t), compiled.format(t, zone));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFormatBeforeCutover() {
+		DateTime dateTime = new DateTime(1000, 3, 4, 5, 6, 7, 8);
+		assertEquals("1000-03-04 05:06:07", dateTime.toString());
+	}
+
+	@Test
+	public void testCompileCached() {
+		assertSame(DateTimePattern.compile("yyyy-MM-dd"),
+				DateTimePattern.compile("yyyy-MM-dd"));
+		assertEquals("yyyy-MM-dd", DateTimePattern.compile("yyyy-MM-dd")
+				.getPattern());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseCompile() {
+		DateTimePattern.compile("yyyy-MM-dd bb");
+	}
+
+	@Test
+	public void testAppendTo() throws IOException {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+		StringBuilder buffer = new StringBuilder("time: ");
+		assertSame(buffer, dateTime.appendTo(buffer, "yyyy-MM-dd"));
+		assertEquals("time: 2013-01-02", buffer.toString());
+
+		StringWriter writer = new StringWriter();
+		dateTime.appendTo(writer, DateTime.DEFAULT_DATETIME_FORMAT);
+		assertEquals("2013-01-02 03:04:05", writer.toString());
+	}
+
+	@Test
+	public void testParseMatchesDateUtils() throws ParseException {
+		String[] patterns = { DateTime.DEFAULT_DATETIME_FORMAT, "yyyy-MM-dd",
+				"yyyyMMddHHmmssSSS", "yyyy-M-d H:m:s.S",
+				"yyyy-MM-dd'T'HH:mm:ss.SSS" };
+		long step = 37 * DateTime.MILLISECONDS_PER_DAY + 3723007;
+		long start = new DateTime(1900, 1, 1).getTime();
+		long end = new DateTime(2100, 1, 1).getTime();
+		for (String pattern : patterns) {
+			DateTimePattern compiled = DateTimePattern.compile(pattern);
+			for (long t = start; t < end; t += step) {
+				String text = compiled.format(t);
+				assertEquals(text, DateUtils.parseDate(text, pattern)
+						.getTime(), compiled.parse(text));
+			}
+		}
+	}
+
+	@Test
+	public void testParseFallback() throws ParseException {
+		assertEquals(new DateTime(2013, 1, 2).getTime(), DateTimePattern
+				.compile("yy-MM-dd").parse("13-01-02"));
+		assertEquals(new DateTime(2013, 1, 2).getTime(), DateTimePattern
+				.compile("yyyy-DDD").parse("2013-002"));
+	}
+
+	@Test
+	public void testBytes() throws ParseException, IOException {
+		String[] patterns = { DateTime.DEFAULT_DATETIME_FORMAT, "yyyy-MM-dd",
+				"yy-MM-dd", "yyyyMMddHHmmssSSS", "y-M-d H:m:s.S",
+				"yyyy-MM-dd'T'HH:mm:ss.SSS", "DDD" };
+		TimeZone zone = TimeZone.getDefault();
+		byte[] bytes = new byte[64];
+		ByteBuffer direct = ByteBuffer.allocateDirect(64);
+		ByteBuffer sliced = ByteBuffer.allocate(80);
+		sliced.position(16);
+		sliced = sliced.slice();
+		ParseResult result = new ParseResult();
+		long step = 37 * DateTime.MILLISECONDS_PER_DAY + 3723007;
+		long start = new DateTime(1000, 1, 1).getTime();
+		long end = new DateTime(2100, 1, 1).getTime();
+		for (String pattern : patterns) {
+			DateTimePattern compiled = DateTimePattern.compile(pattern);
+			for (long t = start; t < end; t += step * 11) {
+				String text = compiled.format(t, zone);
+				int length = text.length();
+				assertEquals(3 + length, compiled.format(t, zone, bytes, 3));
+				assertEquals(text, new String(bytes, 3, length, "US-ASCII"));
+				assertEquals(5 + length, compiled.format(t, zone, direct, 5));
+				assertEquals(0, direct.position());
+				assertEquals(length, compiled.format(t, zone, sliced, 0));
+				for (int i = 0; i < length; i++) {
+					assertEquals(bytes[3 + i], direct.get(5 + i));
+					assertEquals(bytes[3 + i], sliced.get(i));
+				}
+
+				long expected = compiled.parse(text);
+				assertTrue(compiled.parse(bytes, 3, 3 + length, result));
+				assertEquals(expected, result.getTime());
+				assertTrue(compiled.parse(direct, 5, 5 + length, result));
+				assertEquals(expected, result.getTime());
+				assertTrue(compiled.parse(sliced, 0, length, result));
+				assertEquals(expected, result.getTime());
+			}
+		}
+	}
+
+	@Test
+	public void testParseLenient() throws UnsupportedEncodingException {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		long expected = new DateTime(2013, 1, 5, 3, 4, 5, 0).getTime();
+		ParseResult result = new ParseResult();
+		for (String text : new String[] { "2013-1-5 3:4:5",
+				" 2013-01-05 03:04:05", "2013-01-05  03:04:05" }) {
+			assertTrue(text, pattern.parse(text, result));
+			assertEquals(expected, result.getTime());
+
+			byte[] bytes = ("x" + text).getBytes("US-ASCII");
+			assertTrue(text, pattern.parse(bytes, 1, bytes.length, result));
+			assertEquals(expected, result.getTime());
+			ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+			direct.put(bytes);
+			assertTrue(text, pattern.parse(direct, 1, bytes.length, result));
+			assertEquals(expected, result.getTime());
+		}
+
+		// 不匹配时, 错误位置为在原文本中的下标
+		byte[] bytes = "xx2013-1-5/3:4:5".getBytes("US-ASCII");
+		assertFalse(pattern.parse(bytes, 2, bytes.length, result));
+		assertEquals(ParseResult.Status.MISMATCH, result.getStatus());
+		assertEquals(10, result.getErrorIndex());
+	}
+
+	@Test
+	public void misuseParseUnpadded() throws UnsupportedEncodingException {
+		// 省略前面的0时同样校验范围和月份的天数
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		String[] texts = { "2013-1-32 03:04:05", "2013-02-30 3:04:05",
+				"2013-2-30 03:04:05", " 2013-13-1 3:4:5", "2013-1-5 24:4:5" };
+		int[] offsets = { 7, 8, 7, 6, 9 };
+		ParseResult result = new ParseResult();
+		for (int i = 0; i < texts.length; i++) {
+			assertFalse(texts[i], pattern.parse(texts[i], result));
+			assertEquals(texts[i], ParseResult.Status.OUT_OF_RANGE,
+					result.getStatus());
+			assertEquals(texts[i], offsets[i], result.getErrorIndex());
+			byte[] bytes = texts[i].getBytes("US-ASCII");
+			assertFalse(texts[i], pattern.parse(bytes, 0, bytes.length, result));
+			assertEquals(texts[i], offsets[i], result.getErrorIndex());
+		}
+		assertNull(DateTime.tryParse("2013-2-30 03:04:05", null));
+		assertNull(DateTime.tryParse("2013-1-32 03:04:05", null));
+
+		// 紧跟其它字段的字段必须补齐位数
+		pattern = DateTimePattern.compile("yyyyMMdd HH:mm");
+		assertFalse(pattern.parse("20131 03:04", result));
+		assertEquals(ParseResult.Status.MISMATCH, result.getStatus());
+		assertEquals(5, result.getErrorIndex());
+		assertTrue(pattern.parse("20130105 3:4", result));
+	}
+
+	@Test
+	public void misuseBytes() throws UnsupportedEncodingException {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		byte[] bytes = "xx2013-02-29 03:04:05".getBytes("US-ASCII");
+		ParseResult result = new ParseResult();
+		assertFalse(pattern.parse(bytes, 2, bytes.length, result));
+		assertEquals(ParseResult.Status.OUT_OF_RANGE, result.getStatus());
+		assertEquals(10, result.getErrorIndex());
+
+		ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4);
+		buffer.position(4);
+		buffer = buffer.slice();
+		buffer.put(bytes);
+		assertFalse(pattern.parse(buffer, 2, bytes.length, result));
+		assertEquals(10, result.getErrorIndex());
+		assertFalse(pattern.parse(buffer, 1, bytes.length, result));
+		assertEquals(ParseResult.Status.MISMATCH, result.getStatus());
+		assertEquals(1, result.getErrorIndex());
+
+		try {
+			DateTimePattern.compile("yyyy年MM月").format(0,
+					TimeZone.getDefault(), new byte[16], 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// 非ASCII字符
+		}
+	}
+
+	@Test
+	public void misuseBufferBounds() throws UnsupportedEncodingException {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		TimeZone zone = TimeZone.getDefault();
+		long millis = new DateTime(2013, 1, 2, 3, 4, 5, 0).getTime();
+		byte[] array = new byte[64];
+		Arrays.fill(array, (byte) '#');
+		// 共享数组, arrayOffset为8, limit为19 (正好一个结果)
+		ByteBuffer slice = ByteBuffer.wrap(array, 8, 19).slice();
+		assertEquals(19, pattern.format(millis, zone, slice, 0));
+		assertEquals("########2013-01-02 03:04:05#####", new String(array, 0,
+				32, "US-ASCII"));
+		ParseResult result = new ParseResult();
+		assertTrue(pattern.parse(slice, 0, 19, result));
+		assertEquals(millis, result.getTime());
+
+		// 写入或读取超出limit时抛出异常, 不访问limit之后的数组元素
+		int[] indexes = { 1, 19, 20, -1 };
+		for (int index : indexes) {
+			try {
+				pattern.format(millis, zone, slice, index);
+				fail("format " + index);
+			} catch (IndexOutOfBoundsException e) {
+				assertEquals('#', array[27]);
+			}
+		}
+		int[][] ranges = { { 0, 20 }, { -1, 19 }, { 5, 4 } };
+		for (int[] range : ranges) {
+			try {
+				pattern.parse(slice, range[0], range[1], result);
+				fail("parse " + range[0] + ", " + range[1]);
+			} catch (IndexOutOfBoundsException e) {
+				// 与ByteBuffer的绝对位置读写一致
+			}
+		}
+	}
+
+	@Test
+	public void misuseParse() {
+		DateTimePattern pattern = DateTimePattern
+				.compile(DateTime.DEFAULT_DATETIME_FORMAT);
+		String[] texts = { "2013-13-02 03:04:05", "2013-02-29 03:04:05",
+				"2013-01-02 24:04:05", "2013-01-02 03:60:05",
+				"2013-01-02 03:04:60", "2013-01-02 03:04:05 ",
+				"2013-01-02T03:04:05", "2013-01-02" };
+		int[] offsets = { 5, 8, 11, 14, 17, 19, 10, 10 };
+		for (int i = 0; i < texts.length; i++) {
+			try {
+				pattern.parse(texts[i]);
+				fail(texts[i]);
+			} catch (ParseException e) {
+				assertEquals(texts[i], offsets[i], e.getErrorOffset());
+			}
+		}
+	}
+
+	@Test
+	public void testRecentSeconds() throws UnsupportedEncodingException {
+		String[] patterns = { DateTime.DEFAULT_DATETIME_FORMAT,
+				"yyyy-MM-dd HH:mm:ss.SSS", "SSSS ss.SSS", "yyyy年MM月dd日 HH:mm:ss",
+				"y-M-d H:m:s.S" };
+		TimeZone[] zones = { TimeZone.getDefault(),
+				TimeZone.getTimeZone("America/New_York") };
+		byte[] bytes = new byte[64];
+		ByteBuffer direct = ByteBuffer.allocateDirect(64);
+		for (String pattern : patterns) {
+			DateTimePattern compiled = DateTimePattern.compile(pattern);
+			long start = new DateTime(1969, 12, 31, 23, 59, 58, 0).getTime();
+			// 顺序时间戳, 交替使用两个时区, 跨过1970年之前的负数时间戳
+			for (long t = start; t < start + 5000; t += 7) {
+				for (TimeZone zone : zones) {
+					String expected = FastDateFormat
+							.getInstance(pattern, zone).format(t);
+					assertEquals(expected, compiled.format(t, zone));
+					assertEquals(expected,
+							compiled.format(t, zone, new StringBuilder())
+									.toString());
+					if (expected.length() == expected.getBytes("UTF-8").length) {
+						int end = compiled.format(t, zone, bytes, 3);
+						assertEquals(expected, new String(bytes, 3, end - 3,
+								"US-ASCII"));
+						end = compiled.format(t, zone, direct, 1);
+						byte[] copy = new byte[end - 1];
+						for (int i = 0; i < copy.length; i++) {
+							copy[i] = direct.get(i + 1);
+						}
+						assertEquals(expected, new String(copy, "US-ASCII"));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRecentSecondsMiss() throws UnsupportedEncodingException {
+		// 只追加到StringBuilder和写入byte[]时不经过缓存, 结果相同
+		String pattern = "HH:mm:ss.SSS yyyy/MM/dd";
+		DateTimePattern compiled = DateTimePattern.compile(pattern);
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		FastDateFormat format = FastDateFormat.getInstance(pattern, zone);
+		byte[] bytes = new byte[64];
+		long start = new DateTime(2013, 3, 10, 1, 59, 58, 0).getTime();
+		for (long t = start; t < start + 60000; t += 1001) {
+			String expected = format.format(t);
+			assertEquals(expected, compiled.format(t, zone, new StringBuilder())
+					.toString());
+			int end = compiled.format(t, zone, bytes, 0);
+			assertEquals(expected, new String(bytes, 0, end, "US-ASCII"));
+			assertEquals(expected, compiled.format(t, zone));
+		}
+	}
+
+	@Test
+	public void testRecentSecondsConcurrent() throws InterruptedException {
+		final DateTimePattern pattern = DateTimePattern
+				.compile("yyyy-MM-dd HH:mm:ss.SSS");
+		final FastDateFormat expected = FastDateFormat
+				.getInstance("yyyy-MM-dd HH:mm:ss.SSS");
+		final long start = new DateTime(2013, 1, 1).getTime();
+		final AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			final int seed = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					Random random = new Random(seed);
+					for (int j = 0; j < 200000; j++) {
+						long t = start + random.nextInt(10000);
+						if (!expected.format(t).equals(pattern.format(t))) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, failures.get());
+	}
+}
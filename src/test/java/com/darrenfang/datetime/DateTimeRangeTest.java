@@ -0,0 +1,226 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class DateTimeRangeTest {
+	@Test
+	public void howToUse() {
+		DateTimeRange range = new DateTimeRange(new DateTime(2013, 1, 1),
+				new DateTime(2013, 1, 4));
+		LongIterator days = range.iterator(Unit.DAY);
+		DateTime reuse = new DateTime(0);
+		for (int day = 1; day <= 3; day++) {
+			assertTrue(days.hasNext());
+			assertEquals(new DateTime(2013, 1, day), reuse.setTime(days.next()));
+		}
+		assertFalse(days.hasNext());
+		assertEquals(3 * DateTime.MILLISECONDS_PER_DAY, range.getDuration());
+		assertEquals("[2013-01-01 00:00:00, 2013-01-04 00:00:00)",
+				range.toString());
+	}
+
+	@Test
+	public void testOperations() {
+		DateTimeRange a = new DateTimeRange(10, 20);
+		DateTimeRange b = new DateTimeRange(15, 30);
+		DateTimeRange c = new DateTimeRange(20, 25);
+		DateTimeRange d = new DateTimeRange(40, 50);
+
+		assertTrue(a.contains(10));
+		assertFalse(a.contains(20));
+		assertTrue(a.contains(new DateTime(19)));
+		assertTrue(b.contains(c));
+		assertFalse(a.contains(b));
+		assertTrue(a.contains(new DateTimeRange(20, 20)));
+
+		assertTrue(a.overlaps(b));
+		assertFalse(a.overlaps(c));
+		assertTrue(a.abuts(c));
+		assertTrue(c.abuts(a));
+		assertFalse(a.abuts(b));
+
+		assertEquals(new DateTimeRange(15, 20), a.intersection(b));
+		assertNull(a.intersection(c));
+		assertNull(a.gap(b));
+		assertEquals(new DateTimeRange(20, 20), a.gap(c));
+		assertTrue(a.gap(c).isEmpty());
+		assertEquals(new DateTimeRange(25, 40), d.gap(c));
+		assertEquals(new DateTimeRange(10, 50), a.span(d));
+
+		assertFalse(a.equals(new DateTimeRange(10, 20, TimeZone
+				.getTimeZone("America/New_York"))));
+		assertEquals(a, new DateTimeRange(10, 20, TimeZone.getDefault()));
+		assertEquals(a.hashCode(), new DateTimeRange(10, 20).hashCode());
+	}
+
+	@Test
+	public void testIterator() {
+		String[] ids = { "Asia/Shanghai", "America/New_York",
+				"Australia/Lord_Howe", "UTC" };
+		Unit[] units = Unit.values();
+		int[] fields = { Calendar.MILLISECOND, Calendar.SECOND,
+				Calendar.MINUTE, Calendar.HOUR, Calendar.DAY_OF_MONTH,
+				Calendar.WEEK_OF_YEAR, Calendar.MONTH, Calendar.YEAR };
+		Random random = new Random(42);
+		for (String id : ids) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			GregorianCalendar calendar = new GregorianCalendar(zone);
+			for (int u = 0; u < units.length; u++) {
+				for (int i = 0; i < 20; i++) {
+					// 1950到2030年之间, 避开夏令时切换的时刻(当地时间10点到14点)
+					long day = -7305 + random.nextInt(29220);
+					int amount = 1 + random.nextInt(3);
+					long start = DateTime.localToInstant(day
+							* DateTime.MILLISECONDS_PER_DAY + 10
+							* DateTime.MILLISECONDS_PER_HOUR
+							+ random.nextInt(4 * 3600000), zone);
+					DateTimeRange range = new DateTimeRange(start,
+							Long.MAX_VALUE, zone);
+					LongIterator iterator = range.iterator(amount, units[u]);
+					for (int k = 0; k < 200; k++) {
+						calendar.setTimeInMillis(start);
+						calendar.add(fields[u], k * amount);
+						assertEquals(id + " " + units[u] + " " + start + " "
+								+ k, calendar.getTimeInMillis(),
+								iterator.next());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testIteratorEnd() {
+		DateTimeRange range = new DateTimeRange(0, 10);
+		LongIterator iterator = range.iterator(3, Unit.MILLISECOND);
+		assertEquals(0, iterator.next());
+		assertEquals(3, iterator.next());
+		assertEquals(6, iterator.next());
+		assertEquals(9, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		iterator = new DateTimeRange(Long.MAX_VALUE - 10, Long.MAX_VALUE)
+				.iterator(Unit.SECOND);
+		assertEquals(Long.MAX_VALUE - 10, iterator.next());
+		assertFalse(iterator.hasNext());
+		assertFalse(new DateTimeRange(5, 5).iterator(Unit.DAY).hasNext());
+	}
+
+	@Test
+	public void testMonthEnd() {
+		DateTimeRange range = new DateTimeRange(new DateTime(2013, 1, 31),
+				new DateTime(2013, 6, 1));
+		LongIterator months = range.iterator(Unit.MONTH);
+		assertEquals(new DateTime(2013, 1, 31).getTime(), months.next());
+		assertEquals(new DateTime(2013, 2, 28).getTime(), months.next());
+		assertEquals(new DateTime(2013, 3, 31).getTime(), months.next());
+		assertEquals(new DateTime(2013, 4, 30).getTime(), months.next());
+		assertEquals(new DateTime(2013, 5, 31).getTime(), months.next());
+		assertFalse(months.hasNext());
+	}
+
+	@Test
+	public void testDaylightSaving() {
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		DateTimeRange range = new DateTimeRange(new DateTime(2013, 3, 9, 2,
+				30, 0, 0, zone), new DateTime(2013, 3, 12, 0, 0, 0, 0, zone));
+		LongIterator days = range.iterator(Unit.DAY);
+		days.next();
+		// 2013-03-10 02:30不存在, 与DateTime.addDays相同取01:30
+		assertEquals(new DateTime(2013, 3, 10, 1, 30, 0, 0, zone).getTime(),
+				days.next());
+		assertEquals(new DateTime(2013, 3, 11, 2, 30, 0, 0, zone).getTime(),
+				days.next());
+
+		DateTime start = new DateTime(2013, 3, 3, 2, 0, 0, 0, zone);
+		range = new DateTimeRange(start, new DateTime(2013, 3, 20, 0, 0, 0, 0,
+				zone));
+		LongIterator weeks = range.iterator(Unit.WEEK);
+		weeks.next();
+		assertEquals(new DateTime(2013, 3, 10, 1, 0, 0, 0, zone).getTime(),
+				weeks.next());
+		assertEquals(new DateTime(2013, 3, 17, 2, 0, 0, 0, zone).getTime(),
+				weeks.next());
+
+		// 逐天与DateTime.addDays对比, 包括Lord Howe岛切换半小时的重复时间
+		for (String id : new String[] { "America/New_York",
+				"Australia/Lord_Howe", "Europe/London" }) {
+			TimeZone other = TimeZone.getTimeZone(id);
+			long from = new DateTime(2013, 1, 1, 0, 0, 0, 0, other).getTime();
+			for (int i = 0; i < 365 * 24 * 4; i++) {
+				long t = from + i * 15 * DateTime.MILLISECONDS_PER_MINUTE;
+				days = new DateTimeRange(t, t + 3 * DateTime.MILLISECONDS_PER_DAY,
+						other).iterator(Unit.DAY);
+				days.next();
+				for (int k = 1; k <= 2; k++) {
+					DateTime expected = new DateTime(t, other).addDays(k);
+					assertEquals(id + " " + new DateTime(t, other) + " +" + k,
+							expected.getTime(), days.next());
+				}
+			}
+		}
+
+		// 夏令时开始, 02:00不存在
+		range = new DateTimeRange(new DateTime(2013, 3, 10, 0, 0, 0, 0, zone),
+				new DateTime(2013, 3, 10, 5, 0, 0, 0, zone));
+		assertEquals(4, count(range.boundaries(Unit.HOUR)));
+		// 夏令时结束, 01:00重复, 只在第一次出现时
+		range = new DateTimeRange(new DateTime(2013, 11, 3, 0, 0, 0, 0, zone),
+				new DateTime(2013, 11, 3, 3, 0, 0, 0, zone));
+		assertEquals(4 * DateTime.MILLISECONDS_PER_HOUR, range.getDuration());
+		assertEquals(3, count(range.boundaries(Unit.HOUR)));
+	}
+
+	@Test
+	public void testBoundaries() {
+		DateTimeRange range = new DateTimeRange(new DateTime(2013, 1, 2, 12,
+				0, 0, 0), new DateTime(2013, 1, 28));
+		LongIterator weeks = range.boundaries(Unit.WEEK, Weekday.MONDAY);
+		assertEquals(new DateTime(2013, 1, 7).getTime(), weeks.next());
+		assertEquals(new DateTime(2013, 1, 14).getTime(), weeks.next());
+		assertEquals(new DateTime(2013, 1, 21).getTime(), weeks.next());
+		assertFalse(weeks.hasNext());
+
+		LongIterator days = new DateTimeRange(new DateTime(2013, 1, 1),
+				new DateTime(2013, 2, 1)).boundaries(Unit.DAY);
+		assertEquals(31, count(days));
+		assertEquals(12, count(new DateTimeRange(new DateTime(2013, 1, 1),
+				new DateTime(2014, 1, 1)).boundaries(Unit.MONTH)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseEndBeforeStart() {
+		new DateTimeRange(10, 9);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void misuseNext() {
+		new DateTimeRange(0, 0).iterator(Unit.DAY).next();
+	}
+
+	private static int count(LongIterator iterator) {
+		int count = 0;
+		long previous = Long.MIN_VALUE;
+		while (iterator.hasNext()) {
+			long next = iterator.next();
+			assertTrue(next > previous);
+			previous = next;
+			count++;
+		}
+		return count;
+	}
+}
@@ -7,12 +7,27 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
 
 import org.junit.Test;
 
+import com.darrenfang.datetime.DateTime.Unit;
 import com.darrenfang.datetime.DateTime.Weekday;
 
 public class DateTimeTest {
@@ -147,6 +162,32 @@ public class DateTimeTest {
 		assertEquals(2, dateTime.getDay());
 	}
 
+	@Test
+	public void testChainedSetMethods() {
+		// 连续设置的字段在读取时一起计算, 与Calendar相同
+		assertEquals(new DateTime(2013, 2, 15), new DateTime(2013, 1, 31)
+				.setMonth(2).setDay(15));
+		assertEquals(new DateTime(2012, 2, 29), new DateTime(2013, 2, 28)
+				.setDay(29).setYear(2012));
+		assertEquals(new DateTime(2013, 2, 15, 10, 0, 0, 0), new DateTime(
+				2013, 1, 31).set(2013, 2, 31).setDay(15).setHour(10));
+
+		// 超出范围的字段与Calendar一样顺延
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(2013, 0, 31);
+		calendar.set(Calendar.MONTH, 1);
+		DateTime dateTime = new DateTime(2013, 1, 31).setMonth(2);
+		assertEquals(calendar.getTimeInMillis(), dateTime.getTime());
+		assertEquals(3, dateTime.getDay());
+		// 读取之后再设置, 从已计算的日期开始
+		assertEquals(new DateTime(2013, 3, 15), dateTime.setDay(15));
+
+		// 增加之前先计算已设置的字段
+		assertEquals(new DateTime(2013, 2, 16), new DateTime(2013, 1, 31)
+				.setMonth(2).setDay(15).addDays(1));
+	}
+
 	@Test
 	public void testAddMethods() {
 		Calendar calendar = Calendar.getInstance();
@@ -215,6 +256,14 @@ public class DateTimeTest {
 		assertEquals(2013, dateTime.getYear());
 		assertEquals(1, dateTime.getMonth());
 		assertEquals(2, dateTime.getDay());
+
+		// 位数不足或有空格时与DateUtils.parseDate一样宽松解析
+		assertEquals(new DateTime(2013, 1, 5, 3, 4, 5, 0),
+				DateTime.parse("2013-1-5 3:4:5"));
+		assertEquals(new DateTime(2013, 1, 5, 3, 4, 5, 0),
+				DateTime.parse(" 2013-01-05 03:04:05"));
+		assertEquals(new DateTime(2013, 1, 5, 3, 4, 5, 0), DateTime.tryParse(
+				"2013-1-5 3:4:5", DateTime.STANDARD_GTM_TIME));
 	}
 
 	@Test(expected = ParseException.class)
@@ -379,4 +428,367 @@ public class DateTimeTest {
 		dateTime.addWeekdays(Weekday.MONDAY, -1);
 		assertEquals(new DateTime(2013, 12, 2), dateTime);
 	}
+
+	@Test
+	public void testSerialize() throws IOException, ClassNotFoundException {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(dateTime);
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes.toByteArray()));
+		DateTime copy = (DateTime) in.readObject();
+		in.close();
+
+		assertEquals(dateTime, copy);
+		assertEquals("2013-01-02 03:04:05", copy.toString());
+		assertEquals(6, copy.getMilliSecond());
+	}
+
+	@Test
+	public void testSerializeCompact() throws IOException,
+			ClassNotFoundException {
+		TimeZone custom = TimeZone.getTimeZone("America/New_York");
+		custom.setRawOffset(-3 * 3600000);
+		DateTime[] dateTimes = { new DateTime(2013, 1, 2, 3, 4, 5, 6),
+				new DateTime(2013, 1, 2, 3, 4, 5, 6,
+						TimeZone.getTimeZone("America/New_York")),
+				new DateTime(0, custom) };
+		for (DateTime dateTime : dateTimes) {
+			byte[] bytes = serialize(dateTime);
+			DateTime copy = (DateTime) deserialize(bytes);
+			assertEquals(dateTime, copy);
+			assertEquals(dateTime.toString(), copy.toString());
+			assertEquals(dateTime.getTimeZone(), copy.getTimeZone());
+		}
+		// 早期版本写入整个GregorianCalendar, 约1.9KB
+		assertTrue(serialize(dateTimes[0]).length < 100);
+		assertTrue(serialize(dateTimes[1]).length < 120);
+	}
+
+	@Test
+	public void testDeserializeCalendarForm() throws IOException,
+			ClassNotFoundException {
+		// 早期版本写入的数据: 默认时区和America/New_York的2013-01-02 03:04:05.006
+		ObjectInputStream in = new ObjectInputStream(getClass()
+				.getResourceAsStream("datetime-calendar.ser"));
+		try {
+			DateTime dateTime = (DateTime) in.readObject();
+			assertEquals(new DateTime(2013, 1, 2, 3, 4, 5, 6), dateTime);
+
+			TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+			dateTime = (DateTime) in.readObject();
+			assertEquals(new DateTime(2013, 1, 2, 3, 4, 5, 6, newYork),
+					dateTime);
+			assertEquals("2013-01-02 03:04:05", dateTime.toString());
+		} finally {
+			in.close();
+		}
+	}
+
+	static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	static Object deserialize(byte[] bytes) throws IOException,
+			ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes));
+		try {
+			return in.readObject();
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testGetMethodsMatchCalendar() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(1900, 0, 1, 0, 0, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		long end = new DateTime(2101, 1, 1).getTime();
+
+		// 步长不是整小时, 以覆盖各个时刻
+		long step = 6 * DateTime.MILLISECONDS_PER_HOUR + 7
+				* DateTime.MILLISECONDS_PER_MINUTE + 11007;
+		for (long t = calendar.getTimeInMillis(); t < end; t += step) {
+			calendar.setTimeInMillis(t);
+			DateTime dateTime = new DateTime(t);
+			assertEquals(calendar.get(Calendar.YEAR), dateTime.getYear());
+			assertEquals(calendar.get(Calendar.MONTH) + 1, dateTime.getMonth());
+			assertEquals(calendar.get(Calendar.DAY_OF_MONTH), dateTime.getDay());
+			assertEquals(calendar.get(Calendar.HOUR_OF_DAY), dateTime.getHour());
+			assertEquals(calendar.get(Calendar.MINUTE), dateTime.getMinute());
+			assertEquals(calendar.get(Calendar.SECOND), dateTime.getSecond());
+			assertEquals(calendar.get(Calendar.MILLISECOND),
+					dateTime.getMilliSecond());
+			assertEquals(calendar.get(Calendar.DAY_OF_YEAR),
+					dateTime.getDayOfYear());
+			assertEquals(calendar.get(Calendar.DAY_OF_WEEK),
+					dateTime.getDayOfWeek());
+		}
+	}
+
+	@Test
+	public void testParseResult() {
+		ParseResult result = new ParseResult();
+
+		assertTrue(DateTime.parse("2013-01-02 03:04:05", null, result));
+		assertTrue(result.isSuccess());
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 5, 0).getTime(),
+				result.getTime());
+
+		assertFalse(DateTime.parse("2013-01-32 03:04:05", null, result));
+		assertEquals(ParseResult.Status.OUT_OF_RANGE, result.getStatus());
+		assertEquals(8, result.getErrorIndex());
+
+		assertFalse(DateTime.parse("2013/01/02", "yyyy-MM-dd", result));
+		assertEquals(ParseResult.Status.MISMATCH, result.getStatus());
+		assertEquals(4, result.getErrorIndex());
+
+		assertFalse(DateTime.parse("2013-01-02x", "yyyy-MM-dd", result));
+		assertEquals(ParseResult.Status.TRAILING_TEXT, result.getStatus());
+		assertEquals(10, result.getErrorIndex());
+
+		assertFalse(DateTime.parse("13x01-02", "yy-MM-dd", result));
+		assertEquals(ParseResult.Status.MISMATCH, result.getStatus());
+		assertEquals(2, result.getErrorIndex());
+
+		assertFalse(DateTime.parse(null, null, result));
+		assertFalse(result.isSuccess());
+
+		assertTrue(DateTime.parse("13-01-02", "yy-MM-dd", result));
+		assertEquals(new DateTime(2013, 1, 2).getTime(), result.getTime());
+		assertEquals(-1, result.getErrorIndex());
+	}
+
+	@Test
+	public void testCompareMillis() {
+		assertEquals(-1, DateTime.compare(Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(1, DateTime.compare(Long.MAX_VALUE, Long.MIN_VALUE));
+		assertEquals(0, DateTime.compare(5, 5));
+		assertEquals(-1, new DateTime(-1).compareTo(new DateTime(0)));
+	}
+
+	@Test
+	public void testHashKey() throws ParseException {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 0);
+		Calendar c = Calendar.getInstance();
+		c.setTimeInMillis(dateTime.getTime());
+		DateTime[] same = { DateTime.parse("2013-01-02 03:04:05"),
+				new DateTime(dateTime.getDate()), new DateTime(c),
+				new DateTime(2013, 1, 1, 3, 4, 5, 0).addDays(1) };
+
+		Map<DateTime, String> map = new HashMap<DateTime, String>();
+		map.put(dateTime, "value");
+		for (DateTime other : same) {
+			assertEquals(dateTime, other);
+			assertEquals(dateTime.hashCode(), other.hashCode());
+			assertEquals("value", map.get(other));
+		}
+
+		c.setTimeZone(TimeZone.getTimeZone("UTC"));
+		DateTime utc = new DateTime(c);
+		assertEquals(dateTime.getTime(), utc.getTime());
+		assertNotEquals(dateTime, utc);
+		assertEquals(utc, new DateTime(c));
+		assertNotEquals(dateTime, new DateTime(dateTime.getTime() + 1));
+		assertFalse(dateTime.equals(null));
+		assertFalse(dateTime.equals(dateTime.getDate()));
+	}
+
+	@Test
+	public void testSort() {
+		Random random = new Random(42);
+		int[] sizes = { 0, 1, 2, 15, 16, 17, 100, 5000 };
+		for (int size : sizes) {
+			for (int distinct : new int[] { 3, Integer.MAX_VALUE }) {
+				DateTime[] dateTimes = new DateTime[size];
+				long[] expected = new long[size];
+				for (int i = 0; i < size; i++) {
+					long t = random.nextInt(distinct);
+					dateTimes[i] = new DateTime(t);
+					expected[i] = t;
+				}
+				Arrays.sort(expected);
+
+				List<DateTime> list = new ArrayList<DateTime>(
+						Arrays.asList(dateTimes));
+				List<DateTime> linked = new LinkedList<DateTime>(list);
+				DateTime.sort(dateTimes);
+				DateTime.sort(list);
+				DateTime.sort(linked);
+				for (int i = 0; i < size; i++) {
+					assertEquals(expected[i], dateTimes[i].getTime());
+					assertEquals(expected[i], list.get(i).getTime());
+					assertEquals(expected[i], linked.get(i).getTime());
+				}
+
+				// 已排序和逆序的输入
+				DateTime.sort(dateTimes);
+				Collections.reverse(list);
+				DateTime.sort(list);
+				for (int i = 0; i < size; i++) {
+					assertEquals(expected[i], dateTimes[i].getTime());
+					assertEquals(expected[i], list.get(i).getTime());
+				}
+			}
+		}
+
+		DateTime[] dateTimes = { new DateTime(3), new DateTime(2),
+				new DateTime(1), new DateTime(0) };
+		DateTime.sort(dateTimes, 1, 3);
+		assertEquals(3, dateTimes[0].getTime());
+		assertEquals(1, dateTimes[1].getTime());
+		assertEquals(2, dateTimes[2].getTime());
+		assertEquals(0, dateTimes[3].getTime());
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void misuseSort() {
+		DateTime.sort(new DateTime[2], 1, 3);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void misuseStandardTime() {
+		DateTime.STANDARD_GTM_TIME.addDays(1);
+	}
+
+	@Test
+	public void testTruncateTo() {
+		// 2013-01-02 为星期三
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+		assertEquals(dateTime, dateTime.truncateTo(Unit.MILLISECOND));
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 5, 0),
+				dateTime.truncateTo(Unit.SECOND));
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 0, 0),
+				dateTime.truncateTo(Unit.MINUTE));
+		assertEquals(new DateTime(2013, 1, 2, 3, 0, 0, 0),
+				dateTime.truncateTo(Unit.HOUR));
+		assertEquals(new DateTime(2013, 1, 2), dateTime.truncateTo(Unit.DAY));
+		assertEquals(new DateTime(2012, 12, 30),
+				dateTime.truncateTo(Unit.WEEK));
+		assertEquals(new DateTime(2012, 12, 31),
+				dateTime.truncateTo(Unit.WEEK, Weekday.MONDAY));
+		assertEquals(new DateTime(2013, 1, 2),
+				dateTime.truncateTo(Unit.WEEK, Weekday.WEDNESDAY));
+		assertEquals(new DateTime(2013, 1, 1), dateTime.truncateTo(Unit.MONTH));
+		assertEquals(new DateTime(2013, 1, 1), dateTime.truncateTo(Unit.YEAR));
+		assertEquals("2013-01-02 03:04:05", dateTime.toString());
+
+		assertEquals(new DateTime(2013, 1, 2, 3, 0, 0, 0).getTime(),
+				DateTime.truncateTo(dateTime.getTime(), Unit.HOUR));
+		assertEquals(new DateTime(2012, 12, 31).getTime(), DateTime.truncateTo(
+				dateTime.getTime(), Unit.WEEK, Weekday.MONDAY));
+	}
+
+	@Test
+	public void testCeilTo() {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 6, 0),
+				dateTime.ceilTo(Unit.SECOND));
+		assertEquals(new DateTime(2013, 1, 2, 3, 5, 0, 0),
+				dateTime.ceilTo(Unit.MINUTE));
+		assertEquals(new DateTime(2013, 1, 2, 4, 0, 0, 0),
+				dateTime.ceilTo(Unit.HOUR));
+		assertEquals(new DateTime(2013, 1, 3), dateTime.ceilTo(Unit.DAY));
+		assertEquals(new DateTime(2013, 1, 6), dateTime.ceilTo(Unit.WEEK));
+		assertEquals(new DateTime(2013, 1, 7),
+				dateTime.ceilTo(Unit.WEEK, Weekday.MONDAY));
+		assertEquals(new DateTime(2013, 2, 1), dateTime.ceilTo(Unit.MONTH));
+		assertEquals(new DateTime(2014, 1, 1), dateTime.ceilTo(Unit.YEAR));
+
+		DateTime boundary = new DateTime(2013, 12, 1);
+		assertEquals(boundary, boundary.ceilTo(Unit.MONTH));
+		assertEquals(new DateTime(2014, 1, 1).getTime(), DateTime.ceilTo(
+				boundary.getTime() + 1, Unit.MONTH));
+	}
+
+	@Test
+	public void testRoundTo() {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 29, 999);
+		assertEquals(new DateTime(2013, 1, 2, 3, 4, 0, 0),
+				dateTime.roundTo(Unit.MINUTE));
+		dateTime = new DateTime(2013, 1, 2, 3, 4, 30, 0);
+		assertEquals(new DateTime(2013, 1, 2, 3, 5, 0, 0),
+				dateTime.roundTo(Unit.MINUTE));
+		dateTime = new DateTime(2013, 1, 2, 12, 0, 0, 0);
+		assertEquals(new DateTime(2013, 1, 3), dateTime.roundTo(Unit.DAY));
+		assertEquals(new DateTime(2013, 1, 1), dateTime.roundTo(Unit.MONTH));
+		assertEquals(new DateTime(2013, 1, 1).getTime(), DateTime.roundTo(
+				dateTime.getTime(), Unit.YEAR));
+	}
+
+	@Test
+	public void testTimeZone() throws ParseException {
+		TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6, newYork);
+		assertEquals(2013, dateTime.getYear());
+		assertEquals(3, dateTime.getHour());
+		assertEquals("2013-01-02 16:04:05", dateTime.toString(
+				DateTime.DEFAULT_DATETIME_FORMAT, "Asia/Shanghai"));
+		assertEquals("America/New_York", dateTime.getTimeZone().getID());
+		assertEquals(new DateTime(2013, 1, 2, 16, 4, 5, 6).getTime(),
+				dateTime.getTime());
+
+		dateTime.setTimeZone("Asia/Kathmandu");
+		assertEquals("2013-01-02 13:49:05", dateTime.toString());
+		assertEquals("2013-01-02 02:15:00", dateTime.truncateTo(Unit.DAY)
+				.setTimeZone((TimeZone) null).toString());
+
+		// 不存在的当地时间向后推移, 重复的当地时间取较晚的时刻
+		assertEquals("2013-03-10 03:30:00", new DateTime(2013, 3, 10, 2, 30,
+				0, 0, newYork).toString());
+		DateTime overlap = new DateTime(2013, 11, 3, 1, 30, 0, 0, newYork);
+		assertEquals("2013-11-03 06:30:00",
+				overlap.toString(DateTime.DEFAULT_DATETIME_FORMAT, "UTC"));
+		assertEquals(overlap, DateTime.parse("2013-11-03 01:30:00", null,
+				newYork));
+		assertEquals(new DateTime(2013, 11, 3, newYork), overlap
+				.truncateTo(Unit.DAY));
+
+		TimeZone zone = (TimeZone) newYork.clone();
+		DateTime copy = new DateTime(0, zone);
+		zone.setRawOffset(0);
+		assertEquals(19, copy.getHour());
+	}
+
+	@Test
+	public void testSetDefaultTimeZone() throws ParseException {
+		TimeZone original = TimeZone.getDefault();
+		DateTime epoch = new DateTime(0);
+		ImmutableDateTime immutable = new ImmutableDateTime(0);
+		assertEquals(1357016400000L - 13 * DateTime.MILLISECONDS_PER_HOUR,
+				new DateTime(2013, 1, 1).getTime());
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+			assertEquals(1357016400000L, new DateTime(2013, 1, 1).getTime());
+			// 与Calendar一样, 已创建的对象保持创建时的默认时区
+			assertEquals(8, epoch.getHour());
+			assertEquals("1970-01-01 08:00:00", epoch.toString());
+			assertEquals(19, new DateTime(0).getHour());
+			assertEquals("1969-12-31 19:00:00", new DateTime(0).toString());
+			assertEquals(8, immutable.getHour());
+			assertEquals(19, new ImmutableDateTime(0).getHour());
+			assertEquals(1357016400000L, DateTime.parse("2013-01-01",
+					"yyyy-MM-dd").getTime());
+			assertEquals(5 * DateTime.MILLISECONDS_PER_HOUR, DateTimePattern
+					.compile("yyyy-MM-dd").parse("1970-01-01"));
+		} finally {
+			TimeZone.setDefault(original);
+		}
+		assertEquals(8, epoch.getHour());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseZoneId() {
+		new DateTime().setTimeZone("Mars/Olympus_Mons");
+	}
 }
@@ -0,0 +1,109 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class DateTimeWriterTest {
+	@Test
+	public void howToUse() throws IOException {
+		long[] timestamps = { new DateTime(2013, 1, 2, 3, 4, 5, 6).getTime(),
+				new DateTime(2014, 12, 31).getTime(), 0 };
+		DateTimeWriter writer = new DateTimeWriter(
+				DateTimePattern.compile(DateTime.DEFAULT_DATETIME_FORMAT));
+
+		StringBuilder builder = new StringBuilder();
+		writer.write(timestamps, 0, 3, builder);
+		assertEquals("2013-01-02 03:04:05\n2014-12-31 00:00:00\n"
+				+ "1970-01-01 08:00:00", builder.toString());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(timestamps, 1, 2, out);
+		assertEquals("2014-12-31 00:00:00\n1970-01-01 08:00:00",
+				out.toString("US-ASCII"));
+
+		writer = new DateTimeWriter(DateTimePattern.compile("yyyy-MM-dd"),
+				TimeZone.getTimeZone("UTC"), ",");
+		StringWriter stringWriter = new StringWriter();
+		writer.write(new DateTimeArray(timestamps).iterator(), stringWriter);
+		assertEquals("2013-01-01,2014-12-30,1970-01-01",
+				stringWriter.toString());
+	}
+
+	@Test
+	public void testSinks() throws IOException {
+		String[] patterns = { DateTime.DEFAULT_DATETIME_FORMAT,
+				"yyyy-MM-dd'T'HH:mm:ss.SSS", "yyyy-MM-dd EEE", "y/M/d" };
+		int count = 20000;
+		long[] timestamps = new long[count];
+		long start = new DateTime(1500, 1, 1).getTime();
+		for (int i = 0; i < count; i++) {
+			timestamps[i] = start + i * 7919L * 3600000;
+		}
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(Locale.US);
+		try {
+			for (String pattern : patterns) {
+				DateTimePattern compiled = DateTimePattern.compile(pattern);
+				TimeZone zone = TimeZone.getDefault();
+				StringBuilder expected = new StringBuilder();
+				for (int i = 0; i < count; i++) {
+					if (i > 0) {
+						expected.append("\r\n");
+					}
+					expected.append(compiled.format(timestamps[i], zone));
+				}
+
+				DateTimeWriter writer = new DateTimeWriter(compiled, zone,
+						"\r\n");
+				StringBuilder builder = new StringBuilder();
+				writer.write(timestamps, 0, count, builder);
+				assertEquals(expected.toString(), builder.toString());
+
+				StringWriter stringWriter = new StringWriter();
+				writer.write(timestamps, 0, count, stringWriter);
+				assertEquals(expected.toString(), stringWriter.toString());
+
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				writer.write(timestamps, 0, count, out);
+				assertEquals(expected.toString(), out.toString("US-ASCII"));
+
+				out = new ByteArrayOutputStream();
+				writer.write(timestamps, 0, count, Channels.newChannel(out));
+				assertEquals(expected.toString(), out.toString("US-ASCII"));
+			}
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+
+	@Test
+	public void testNonAscii() throws IOException {
+		DateTimeWriter writer = new DateTimeWriter(
+				DateTimePattern.compile("yyyy年MM月dd日"),
+				TimeZone.getDefault(), "; ");
+		StringBuilder builder = new StringBuilder();
+		writer.write(new long[] { 0, 0 }, 0, 2, builder);
+		assertEquals("1970年01月01日; 1970年01月01日", builder.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseNonAscii() throws IOException {
+		DateTimeWriter writer = new DateTimeWriter(
+				DateTimePattern.compile("yyyy年MM月dd日"));
+		writer.write(new long[] { 0 }, 0, 1, new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void misuseRange() throws IOException {
+		new DateTimeWriter(DateTimePattern.compile("yyyy")).write(
+				new long[2], 1, 2, new StringBuilder());
+	}
+}
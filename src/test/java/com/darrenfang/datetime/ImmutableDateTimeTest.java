@@ -0,0 +1,103 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class ImmutableDateTimeTest {
+	@Test
+	public void howToUse() {
+		ImmutableDateTime dateTime = new ImmutableDateTime(2013, 1, 31, 3, 4,
+				5, 6);
+		assertEquals("2013-02-28 03:04:05", dateTime.plusMonths(1).toString());
+		assertEquals("2012-01-31 03:04:05", dateTime.plusYears(-1).toString());
+		assertEquals("2013-02-01 03:04:05", dateTime.plusDays(1).toString());
+		assertEquals("2013-01-31 15:04:05", dateTime.plusHours(12).toString());
+		assertEquals("2013-01-31 03:05:05", dateTime.plusMinutes(1).toString());
+		assertEquals("2013-01-31 03:04:06", dateTime.plusSeconds(1).toString());
+		assertEquals(7, dateTime.plusMilliseconds(1).getMilliSecond());
+
+		assertEquals("2014-06-15 10:30:00",
+				dateTime.withYear(2014).withDay(15).withMonth(6).withHour(10)
+						.withMinute(30).withSecond(0).toString());
+		assertEquals(0, dateTime.withMilliSecond(0).getMilliSecond());
+
+		// 原对象不变
+		assertEquals("2013-01-31 03:04:05", dateTime.toString());
+		assertEquals(6, dateTime.getMilliSecond());
+		assertEquals(Weekday.THURSDAY, dateTime.getWeekday());
+		assertEquals(31, dateTime.getDayOfYear());
+
+		assertSame(dateTime, dateTime.withDay(31));
+		assertNotSame(dateTime, dateTime.plusDays(1));
+		assertEquals("2013-02-04", dateTime.plusWeekdays(Weekday.MONDAY, 1)
+				.toString("yyyy-MM-dd"));
+	}
+
+	@Test
+	public void testConvert() {
+		DateTime dateTime = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+		ImmutableDateTime immutable = ImmutableDateTime.of(dateTime);
+		assertEquals(dateTime.getTime(), immutable.getTime());
+
+		dateTime.addDays(1);
+		assertEquals("2013-01-02 03:04:05", immutable.toString());
+
+		DateTime copy = immutable.toDateTime();
+		copy.addYears(1);
+		assertEquals("2014-01-02 03:04:05", copy.toString());
+		assertEquals("2013-01-02 03:04:05", immutable.toString());
+		assertEquals(immutable.getDate(), immutable.toDateTime().getDate());
+	}
+
+	@Test
+	public void testCompare() {
+		ImmutableDateTime a = new ImmutableDateTime(2013, 1, 2);
+		ImmutableDateTime b = new ImmutableDateTime(2013, 1, 3);
+		assertTrue(a.before(b));
+		assertTrue(b.after(a));
+		assertEquals(-DateTime.MILLISECONDS_PER_DAY, a.diff(b));
+		assertEquals(-1, a.compareTo(b));
+		assertEquals(0, a.compareTo(new ImmutableDateTime(a.getTime())));
+		assertEquals(a, new ImmutableDateTime(a.getTime()));
+		assertEquals(a.hashCode(), new ImmutableDateTime(a.getTime()).hashCode());
+		assertEquals(new ImmutableDateTime(0), ImmutableDateTime.STANDARD_GTM_TIME);
+	}
+
+	@Test
+	public void testTruncateTo() {
+		ImmutableDateTime dateTime = new ImmutableDateTime(2013, 1, 2, 3, 4, 5,
+				6);
+		assertEquals("2013-01-02 00:00:00", dateTime.truncateTo(Unit.DAY)
+				.toString());
+		assertEquals("2012-12-31 00:00:00",
+				dateTime.truncateTo(Unit.WEEK, Weekday.MONDAY).toString());
+		assertEquals("2013-01-01 00:00:00", dateTime.truncateTo(Unit.YEAR)
+				.toString());
+	}
+
+	@Test
+	public void testSerialize() throws IOException, ClassNotFoundException {
+		ImmutableDateTime[] values = {
+				new ImmutableDateTime(2013, 1, 2, 3, 4, 5, 6),
+				ImmutableDateTime.of(0,
+						TimeZone.getTimeZone("Australia/Lord_Howe")) };
+		for (ImmutableDateTime value : values) {
+			byte[] bytes = DateTimeTest.serialize(value);
+			assertTrue(bytes.length < 120);
+			ImmutableDateTime copy = (ImmutableDateTime) DateTimeTest
+					.deserialize(bytes);
+			assertEquals(value, copy);
+			assertEquals(value.toString(), copy.toString());
+		}
+	}
+}
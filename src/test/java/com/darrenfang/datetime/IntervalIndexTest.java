@@ -0,0 +1,133 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntervalIndexTest {
+	@Test
+	public void howToUse() {
+		IntervalIndex index = IntervalIndex
+				.builder()
+				.add(new DateTime(2013, 1, 1), new DateTime(2013, 1, 10))
+				.add(new DateTimeRange(new DateTime(2013, 1, 5), new DateTime(
+						2013, 1, 6))).add(new DateTime(2013, 2, 1),
+						new DateTime(2013, 3, 1)).build();
+		assertEquals(3, index.size());
+		assertArrayEquals(new int[] { 0, 1 },
+				index.containing(new DateTime(2013, 1, 5, 12, 0, 0, 0)));
+		assertTrue(index.contains(new DateTime(2013, 1, 1)));
+		assertFalse(index.contains(new DateTime(2013, 1, 10)));
+		assertEquals(2, index.next(new DateTime(2013, 1, 10).getTime()));
+		assertEquals(-1, index.next(new DateTime(2013, 3, 1).getTime()));
+		assertArrayEquals(new int[] { 2 }, index.overlapping(new DateTimeRange(
+				new DateTime(2013, 1, 10), new DateTime(2013, 2, 2))));
+		assertEquals(new DateTime(2013, 2, 1).getTime(), index.getStart(2));
+		assertEquals(new DateTime(2013, 1, 6).getTime(), index.getEnd(1));
+	}
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(42);
+		int[] sizes = { 0, 1, 2, 3, 7, 8, 9, 15, 16, 17, 100, 1000, 5000 };
+		for (int n : sizes) {
+			long[] starts = new long[n];
+			long[] ends = new long[n];
+			IntervalIndex.Builder builder = IntervalIndex.builder();
+			for (int i = 0; i < n; i++) {
+				starts[i] = random.nextInt(100000);
+				// 大多数较短, 少数很长
+				ends[i] = starts[i]
+						+ (random.nextInt(20) == 0 ? random.nextInt(50000)
+								: random.nextInt(100));
+				builder.add(starts[i], ends[i]);
+			}
+			IntervalIndex index = builder.build();
+			for (int q = 0; q < 500; q++) {
+				long from = random.nextInt(110000) - 5000;
+				long to = from + random.nextInt(q % 2 == 0 ? 2 : 500);
+				int[] expected = bruteForce(starts, ends, from, to);
+				int[] actual = index.overlapping(from, to);
+				assertArrayEquals(expected, sorted(actual));
+				assertEquals(expected.length, index.countOverlapping(from, to));
+				assertEquals(expected.length > 0, index.overlaps(from, to));
+				assertArrayEquals(bruteForce(starts, ends, from, from + 1),
+						sorted(index.containing(from)));
+				for (int i = 1; i < actual.length; i++) {
+					assertTrue(starts[actual[i - 1]] <= starts[actual[i]]);
+				}
+				int next = index.next(from);
+				long best = Long.MAX_VALUE;
+				for (int i = 0; i < n; i++) {
+					if (starts[i] >= from) {
+						best = Math.min(best, starts[i]);
+					}
+				}
+				if (best == Long.MAX_VALUE) {
+					assertEquals(-1, next);
+				} else {
+					assertEquals(best, starts[next]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testToBuilder() {
+		IntervalIndex index = IntervalIndex.builder().add(50, 60).add(10, 20)
+				.build();
+		IntervalIndex rebuilt = index.toBuilder().add(15, 55).build();
+		assertEquals(2, index.size());
+		assertEquals(3, rebuilt.size());
+		assertArrayEquals(new int[] { 1 }, index.containing(15));
+		assertArrayEquals(new int[] { 1, 2 }, rebuilt.containing(15));
+		assertEquals(50, rebuilt.getStart(0));
+		assertEquals(55, rebuilt.getEnd(2));
+	}
+
+	@Test
+	public void testEdges() {
+		IntervalIndex index = IntervalIndex.builder().add(5, 5)
+				.add(Long.MIN_VALUE, Long.MAX_VALUE).build();
+		assertArrayEquals(new int[] { 1 }, index.containing(5));
+		assertArrayEquals(new int[0], index.containing(Long.MAX_VALUE));
+		assertTrue(index.contains(Long.MIN_VALUE));
+		// 与DateTimeRange.overlaps相同, 空的时间段在区间内时也算重叠
+		assertEquals(1, index.countOverlapping(7, 7));
+		assertArrayEquals(new int[] { 1 }, index.overlapping(5, 5));
+		assertEquals(0, IntervalIndex.builder().build().countOverlapping(0, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseEndBeforeStart() {
+		IntervalIndex.builder().add(10, 9);
+	}
+
+	private static int[] bruteForce(long[] starts, long[] ends, long from,
+			long to) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < starts.length; i++) {
+			if (starts[i] < to && from < ends[i]) {
+				ids.add(i);
+			}
+		}
+		int[] result = new int[ids.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ids.get(i);
+		}
+		return result;
+	}
+
+	private static int[] sorted(int[] ids) {
+		int[] copy = ids.clone();
+		java.util.Arrays.sort(copy);
+		return copy;
+	}
+}
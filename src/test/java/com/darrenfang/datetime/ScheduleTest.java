@@ -0,0 +1,421 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class ScheduleTest {
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private static final TimeZone NEW_YORK = TimeZone
+			.getTimeZone("America/New_York");
+
+	@Test
+	public void howToUse() {
+		// 工作日9:30
+		Schedule schedule = Schedule.weekly(9, 30, Weekday.MONDAY,
+				Weekday.TUESDAY, Weekday.WEDNESDAY, Weekday.THURSDAY,
+				Weekday.FRIDAY);
+		// 2013-01-04为星期五
+		DateTime friday = new DateTime(2013, 1, 4, 10, 0, 0, 0);
+		assertEquals(new DateTime(2013, 1, 7, 9, 30, 0, 0),
+				schedule.next(friday));
+		assertEquals(new DateTime(2013, 1, 4, 9, 30, 0, 0),
+				schedule.previous(friday));
+
+		LongIterator it = schedule.iterator(friday.getTime());
+		assertEquals(new DateTime(2013, 1, 7, 9, 30, 0, 0).getTime(),
+				it.next());
+		assertEquals(new DateTime(2013, 1, 8, 9, 30, 0, 0).getTime(),
+				it.next());
+
+		// 每月第2个星期二
+		Schedule patchTuesday = Schedule.monthly(2, Weekday.TUESDAY, 10, 0);
+		assertEquals(new DateTime(2013, 1, 8, 10, 0, 0, 0),
+				patchTuesday.next(friday));
+		assertEquals(new DateTime(2013, 2, 12, 10, 0, 0, 0),
+				patchTuesday.next(new DateTime(2013, 1, 8, 10, 0, 0, 0)));
+		assertEquals("0 10 * * 2#2", patchTuesday.toString());
+	}
+
+	@Test
+	public void testParse() {
+		Schedule schedule = Schedule.parse("*/15 9-17 * JAN-MAR MON-FRI");
+		assertEquals(new DateTime(2013, 1, 4, 10, 15, 0, 0),
+				schedule.next(new DateTime(2013, 1, 4, 10, 0, 0, 0)));
+		assertEquals(new DateTime(2013, 1, 7, 9, 0, 0, 0),
+				schedule.next(new DateTime(2013, 1, 4, 17, 45, 0, 0)));
+		assertEquals(new DateTime(2013, 4, 1, 9, 0, 0, 0).getTime(),
+				Schedule.parse("0 9 * 4 *").next(
+						new DateTime(2013, 3, 31, 23, 59, 59, 999).getTime()));
+
+		// 6个字段, 第一个为秒
+		schedule = Schedule.parse("10,40 0 12 * * ?");
+		assertEquals(new DateTime(2013, 1, 4, 12, 0, 10, 0),
+				schedule.next(new DateTime(2013, 1, 4, 12, 0, 0, 0)));
+		assertEquals(new DateTime(2013, 1, 4, 12, 0, 40, 0),
+				schedule.next(new DateTime(2013, 1, 4, 12, 0, 10, 0)));
+		assertEquals(new DateTime(2013, 1, 5, 12, 0, 10, 0),
+				schedule.next(new DateTime(2013, 1, 4, 12, 0, 40, 0)));
+
+		// 星期日可以为0或7
+		assertEquals(new DateTime(2013, 1, 6, 0, 0, 0, 0),
+				Schedule.parse("0 0 * * 7").next(new DateTime(2013, 1, 4)));
+		assertEquals(new DateTime(2013, 1, 6, 0, 0, 0, 0),
+				Schedule.parse("0 0 * * sun").next(new DateTime(2013, 1, 4)));
+
+		// 从5开始每20分钟
+		schedule = Schedule.parse("5/20 * * * *");
+		assertEquals(new DateTime(2013, 1, 4, 10, 45, 0, 0),
+				schedule.next(new DateTime(2013, 1, 4, 10, 25, 0, 0)));
+	}
+
+	@Test
+	public void testInvalid() {
+		String[] expressions = { "* * * *", "* * * * * * *", "60 * * * *",
+				"* 24 * * *", "* * 0 * *", "* * 32 * *", "* * * 13 *",
+				"* * * * 8", "5-1 * * * *", "*/0 * * * *", "a * * * *",
+				"1,,2 * * * *", "* * * FOO *", "* * * * MON#6",
+				"* * * * L" };
+		for (String expression : expressions) {
+			try {
+				Schedule.parse(expression);
+				fail(expression);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+
+	@Test
+	public void testDayOfMonthOrDayOfWeek() {
+		// 日和星期都指定时满足一个即可: 每月13日和每个星期五
+		Schedule schedule = Schedule.parse("0 0 13 * 5", UTC);
+		long t = utc(2013, 9, 1);
+		LongIterator it = schedule.iterator(t);
+		assertEquals(utc(2013, 9, 6), it.next());
+		assertEquals(utc(2013, 9, 13), it.next());
+		assertEquals(utc(2013, 9, 20), it.next());
+		assertEquals(utc(2013, 9, 27), it.next());
+		assertEquals(utc(2013, 10, 4), it.next());
+		assertEquals(utc(2013, 10, 11), it.next());
+		assertEquals(utc(2013, 10, 13), it.next());
+
+		// 日以*开头时需要同时满足: 单数日的星期一
+		schedule = Schedule.parse("0 0 */2 * MON", UTC);
+		it = schedule.iterator(t);
+		assertEquals(utc(2013, 9, 9), it.next());
+		assertEquals(utc(2013, 9, 23), it.next());
+		assertEquals(utc(2013, 10, 7), it.next());
+	}
+
+	@Test
+	public void testLastDayOfMonth() {
+		Schedule schedule = Schedule.parse("0 0 L * *", UTC);
+		LongIterator it = schedule.iterator(utc(2012, 1, 1));
+		assertEquals(utc(2012, 1, 31), it.next());
+		assertEquals(utc(2012, 2, 29), it.next());
+		assertEquals(utc(2012, 3, 31), it.next());
+		assertEquals(utc(2012, 4, 30), it.next());
+		assertEquals(utc(2012, 2, 29), schedule.previous(utc(2012, 3, 31)));
+
+		// 31日只在大月执行
+		schedule = Schedule.parse("0 0 31 * *", UTC);
+		it = schedule.iterator(utc(2013, 1, 31));
+		assertEquals(utc(2013, 3, 31), it.next());
+		assertEquals(utc(2013, 5, 31), it.next());
+	}
+
+	@Test
+	public void testNthWeekday() {
+		// 每月第5个星期五, 没有第5个的月份跳过
+		Schedule schedule = Schedule.parse("0 0 * * FRI#5", UTC);
+		LongIterator it = schedule.iterator(utc(2013, 1, 1));
+		assertEquals(utc(2013, 3, 29), it.next());
+		assertEquals(utc(2013, 5, 31), it.next());
+		assertEquals(utc(2013, 8, 30), it.next());
+
+		// 每月第1个和第3个星期一
+		schedule = Schedule.parse("0 0 * * 1#1,1#3", UTC);
+		it = schedule.iterator(utc(2013, 9, 1));
+		assertEquals(utc(2013, 9, 2), it.next());
+		assertEquals(utc(2013, 9, 16), it.next());
+		assertEquals(utc(2013, 10, 7), it.next());
+		assertEquals(utc(2013, 10, 21), it.next());
+	}
+
+	@Test
+	public void testNever() {
+		Schedule schedule = Schedule.parse("0 0 30 2 *");
+		assertEquals(Schedule.NONE, schedule.next(0));
+		assertEquals(Schedule.NONE, schedule.previous(0));
+		assertNull(schedule.next(new DateTime(2013, 1, 1)));
+		assertFalse(schedule.iterator(0).hasNext());
+		assertEquals(Schedule.NONE, Schedule.daily(0, 0).next(Long.MAX_VALUE));
+
+		// 2月29日每4年一次
+		schedule = Schedule.parse("0 0 29 2 *", UTC);
+		assertEquals(utc(2016, 2, 29), schedule.next(utc(2012, 2, 29)));
+		assertEquals(utc(2008, 2, 29), schedule.previous(utc(2012, 2, 29)));
+	}
+
+	@Test
+	public void testRange() {
+		Schedule schedule = Schedule.parse("0 */6 * * *", UTC);
+		DateTimeRange range = new DateTimeRange(utc(2013, 1, 1),
+				utc(2013, 1, 2), UTC);
+		LongIterator it = schedule.iterator(range);
+		long hours = 0;
+		while (it.hasNext()) {
+			assertEquals(range.getStart() + hours
+					* DateTime.MILLISECONDS_PER_HOUR, it.next());
+			hours += 6;
+		}
+		assertEquals(24, hours);
+	}
+
+	@Test
+	public void testTimeZone() {
+		Schedule schedule = Schedule.daily(9, 0).withTimeZone(NEW_YORK);
+		DateTime after = new DateTime(2013, 1, 4, 0, 0, 0, 0, NEW_YORK);
+		assertEquals(new DateTime(2013, 1, 4, 9, 0, 0, 0, NEW_YORK),
+				schedule.next(after));
+		assertEquals(NEW_YORK, schedule.getTimeZone());
+	}
+
+	@Test
+	public void testDaylightSaving() {
+		// 2013-03-10 02:00-03:00当地时间不存在, 顺延到03:30
+		Schedule schedule = Schedule.daily(2, 30).withTimeZone(NEW_YORK);
+		long after = new DateTime(2013, 3, 9, 12, 0, 0, 0, NEW_YORK).getTime();
+		LongIterator it = schedule.iterator(after);
+		assertEquals(new DateTime(2013, 3, 10, 3, 30, 0, 0, NEW_YORK)
+				.getTime(), it.next());
+		assertEquals(new DateTime(2013, 3, 11, 2, 30, 0, 0, NEW_YORK)
+				.getTime(), it.next());
+
+		// 2013-11-03 01:00-02:00当地时间重复, 只执行一次
+		schedule = Schedule.daily(1, 30).withTimeZone(NEW_YORK);
+		after = new DateTime(2013, 11, 2, 12, 0, 0, 0, NEW_YORK).getTime();
+		it = schedule.iterator(after);
+		long first = it.next();
+		assertEquals(utc(2013, 11, 3) + 6 * DateTime.MILLISECONDS_PER_HOUR
+				+ 30 * DateTime.MILLISECONDS_PER_MINUTE, first);
+		assertEquals(first + 24 * DateTime.MILLISECONDS_PER_HOUR, it.next());
+
+		// 01:45 EDT之后还有01:30 EST
+		schedule = Schedule.parse("30 1 * * *", NEW_YORK);
+		after = utc(2013, 11, 3) + 5 * DateTime.MILLISECONDS_PER_HOUR + 45
+				* DateTime.MILLISECONDS_PER_MINUTE;
+		assertEquals(first, schedule.next(after));
+		assertEquals(first, schedule.previous(first + 1));
+
+		// 03:00 EDT之后还有顺延到03:30 EDT的02:30
+		schedule = Schedule.parse("30 2 * * *", NEW_YORK);
+		long gap = new DateTime(2013, 3, 10, 3, 30, 0, 0, NEW_YORK).getTime();
+		assertEquals(gap, schedule.next(new DateTime(2013, 3, 10, 3, 0, 0, 0,
+				NEW_YORK).getTime()));
+		assertEquals(gap, schedule.previous(gap + DateTime.MILLISECONDS_PER_MINUTE));
+		assertEquals(gap, schedule.next(schedule.previous(gap) + 1));
+
+		// 每分钟执行时与逐分钟检查的结果相同
+		checkAgainstScan("* * * * *", NEW_YORK,
+				new DateTime(2013, 3, 10, 0, 0, 0, 0, NEW_YORK).getTime(),
+				DateTime.MILLISECONDS_PER_DAY);
+		checkAgainstScan("* * * * *", NEW_YORK,
+				new DateTime(2013, 11, 3, 0, 0, 0, 0, NEW_YORK).getTime(),
+				DateTime.MILLISECONDS_PER_DAY);
+		// 逐分钟检查时不存在的02:30不执行, 与顺延到03:30不同, 3月不比较"30 2"
+		for (String expression : new String[] { "30 1 * * *", "0,30 1-3 * * *" }) {
+			checkAgainstScan(expression, NEW_YORK, new DateTime(2013, 3, 8, 0,
+					0, 0, 0, NEW_YORK).getTime(),
+					5 * DateTime.MILLISECONDS_PER_DAY);
+		}
+		for (String expression : new String[] { "30 1 * * *", "30 2 * * *",
+				"0,30 1-3 * * *" }) {
+			checkAgainstScan(expression, NEW_YORK, new DateTime(2013, 11, 1, 0,
+					0, 0, 0, NEW_YORK).getTime(),
+					5 * DateTime.MILLISECONDS_PER_DAY);
+		}
+	}
+
+	@Test
+	public void testAgainstScan() {
+		String[] expressions = { "0 9 * * 1-5", "*/7 3,15 1-10,L * *",
+				"30 */5 13 * FRI", "0 0 * FEB,AUG SAT#2", "15 10 L */3 ?",
+				"59 23 31 12 *" };
+		TimeZone[] zones = { UTC, TimeZone.getTimeZone("Asia/Shanghai"),
+				NEW_YORK };
+		for (String expression : expressions) {
+			for (TimeZone zone : zones) {
+				checkAgainstScan(expression, zone, new DateTime(2012, 12, 20,
+						0, 0, 0, 0, zone).getTime(),
+						400 * DateTime.MILLISECONDS_PER_DAY);
+			}
+		}
+		checkAgainstScan("*/10 * 8-9 * * *", UTC, utc(2013, 1, 1),
+				3 * DateTime.MILLISECONDS_PER_DAY);
+	}
+
+	/**
+	 * 逐分钟(或逐秒)检查当地时间, 与next和previous的结果比较
+	 */
+	private static void checkAgainstScan(String expression, TimeZone zone,
+			long start, long length) {
+		Schedule schedule = Schedule.parse(expression, zone);
+		boolean withSeconds = expression.trim().split("\\s+").length == 6;
+		long step = withSeconds ? DateTime.MILLISECONDS_PER_SECOND
+				: DateTime.MILLISECONDS_PER_MINUTE;
+		Matcher matcher = new Matcher(expression, withSeconds);
+		Calendar calendar = Calendar.getInstance(zone);
+		long expected = Schedule.NONE;
+		long previous = Schedule.NONE;
+		LongIterator it = schedule.iterator(start - 1);
+		List<Long> fired = new ArrayList<Long>();
+		for (long t = start; t < start + length; t += step) {
+			calendar.setTimeInMillis(t);
+			if (!matcher.matches(calendar) || repeated(t, step, zone)) {
+				continue;
+			}
+			expected = t;
+			assertTrue(expression, it.hasNext());
+			assertEquals(expression + " " + zone.getID(), expected, it.next());
+			if (previous != Schedule.NONE) {
+				assertEquals(expression, previous, schedule.previous(expected));
+			}
+			previous = expected;
+			fired.add(t);
+		}
+		assertTrue(expression, fired.size() > 0);
+
+		// 任意时间点 (包括两次执行之间) 的next和previous, 最多检查约20000个
+		long stride = Math.max(step / 2, length / 20000);
+		int index = 0;
+		for (long t = fired.get(0); t < fired.get(fired.size() - 1); t += stride) {
+			while (fired.get(index + 1) <= t) {
+				index++;
+			}
+			String message = expression + " " + zone.getID() + " "
+					+ new DateTime(t, zone);
+			assertEquals(message, (long) fired.get(index + 1), schedule.next(t));
+			long last = fired.get(index) < t ? fired.get(index)
+					: index > 0 ? fired.get(index - 1) : Schedule.NONE;
+			if (last != Schedule.NONE) {
+				assertEquals(message, last, schedule.previous(t));
+			}
+		}
+	}
+
+	/**
+	 * 夏令时结束时, 重复的当地时间只在第二次出现时执行
+	 */
+	private static boolean repeated(long t, long step, TimeZone zone) {
+		return zone.getOffset(t) != zone.getOffset(t
+				+ DateTime.MILLISECONDS_PER_HOUR)
+				&& zone.getOffset(t) > zone.getOffset(t
+						+ DateTime.MILLISECONDS_PER_HOUR);
+	}
+
+	private static long utc(int year, int month, int day) {
+		return new DateTime(year, month, day, 0, 0, 0, 0, UTC).getTime();
+	}
+
+	/**
+	 * 逐个字段检查Calendar, 只支持测试中用到的语法
+	 */
+	private static final class Matcher {
+		private final boolean[][] fields;
+
+		private final boolean last;
+
+		private final int nth;
+
+		private final boolean dayStar;
+
+		Matcher(String expression, boolean withSeconds) {
+			String[] parts = expression.trim().split("\\s+");
+			if (!withSeconds) {
+				String[] six = new String[6];
+				six[0] = "0";
+				System.arraycopy(parts, 0, six, 1, 5);
+				parts = six;
+			}
+			String[] names = { "", "JAN", "FEB", "MAR", "APR", "MAY", "JUN",
+					"JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+			String[] days = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+			for (int i = 1; i < names.length; i++) {
+				parts[4] = parts[4].replace(names[i], String.valueOf(i));
+			}
+			for (int i = 0; i < days.length; i++) {
+				parts[5] = parts[5].replace(days[i], String.valueOf(i));
+			}
+			last = parts[3].contains("L");
+			parts[3] = parts[3].replace(",L", "").replace("L", "");
+			int nth = 0;
+			if (parts[5].contains("#")) {
+				// 只有一项, 形如"6#2"
+				nth = Integer.parseInt(parts[5].substring(parts[5]
+						.indexOf('#') + 1));
+				parts[5] = parts[5].substring(0, parts[5].indexOf('#'));
+			}
+			this.nth = nth;
+			dayStar = parts[3].startsWith("*") || parts[3].equals("?")
+					|| parts[5].startsWith("*") || parts[5].equals("?");
+			fields = new boolean[6][];
+			int[] max = { 59, 59, 23, 31, 12, 6 };
+			for (int i = 0; i < 6; i++) {
+				fields[i] = new boolean[max[i] + 1];
+				if (parts[i].isEmpty()) {
+					continue;
+				}
+				for (String item : parts[i].split(",")) {
+					int step = 1;
+					if (item.contains("/")) {
+						step = Integer.parseInt(item.substring(item
+								.indexOf('/') + 1));
+						item = item.substring(0, item.indexOf('/'));
+					}
+					int from = i == 3 || i == 4 ? 1 : 0;
+					int to = max[i];
+					if (item.contains("-")) {
+						from = Integer.parseInt(item.substring(0,
+								item.indexOf('-')));
+						to = Integer.parseInt(item.substring(item.indexOf('-') + 1));
+					} else if (!item.equals("*") && !item.equals("?")) {
+						from = to = Integer.parseInt(item);
+					}
+					for (int v = from; v <= to; v += step) {
+						fields[i][v] = true;
+					}
+				}
+			}
+		}
+
+		boolean matches(Calendar calendar) {
+			if (!fields[0][calendar.get(Calendar.SECOND)]
+					|| !fields[1][calendar.get(Calendar.MINUTE)]
+					|| !fields[2][calendar.get(Calendar.HOUR_OF_DAY)]
+					|| !fields[4][calendar.get(Calendar.MONTH) + 1]) {
+				return false;
+			}
+			int day = calendar.get(Calendar.DAY_OF_MONTH);
+			int weekday = calendar.get(Calendar.DAY_OF_WEEK) - 1;
+			boolean byDay = fields[3][day] || last
+					&& day == calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+			boolean byWeekday = fields[5][weekday]
+					&& (nth == 0 || (day - 1) / 7 + 1 == nth);
+			return dayStar ? byDay && byWeekday : byDay || byWeekday;
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.darrenfang.datetime.DateTime.Unit;
+import com.darrenfang.datetime.DateTime.Weekday;
+
+public class TimeBucketTest {
+	@Test
+	public void howToUse() throws ParseException {
+		DateTime time = new DateTime(2013, 1, 2, 3, 4, 5, 6);
+		TimeBucket minutes = TimeBucket.of(Unit.MINUTE);
+		long index = minutes.index(time);
+		assertEquals(time.truncate("yyyy-MM-dd HH:mm").getTime(),
+				minutes.start(index));
+		assertEquals(new DateTime(2013, 1, 2, 3, 5, 0, 0).getTime(),
+				minutes.end(index));
+		assertEquals(index + 1, minutes.index(time.addMinutes(1)));
+
+		TimeBucket months = TimeBucket.of(Unit.MONTH,
+				TimeZone.getTimeZone("America/New_York"));
+		assertEquals(2013 * 12, months.index(new DateTime(2013, 1, 31, 12, 0, 0, 0,
+				TimeZone.getTimeZone("America/New_York"))));
+
+		TimeBucket fiveSeconds = TimeBucket.of(5, TimeUnit.SECONDS);
+		assertEquals(-1, fiveSeconds.index(-1));
+		assertEquals(2, fiveSeconds.index(10000));
+		assertEquals(15000, fiveSeconds.end(2));
+	}
+
+	@Test
+	public void testTruncate() {
+		String[] ids = { "Asia/Shanghai", "America/New_York", "Asia/Kathmandu",
+				"Australia/Lord_Howe", "America/Sao_Paulo", "UTC" };
+		Unit[] units = Unit.values();
+		Weekday[] weekdays = Weekday.values();
+		Random random = new Random(42);
+		for (String id : ids) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			for (Unit unit : units) {
+				Weekday first = weekdays[random.nextInt(7)];
+				TimeBucket bucket = TimeBucket.of(unit, zone, first);
+				for (int i = 0; i < 2000; i++) {
+					// 1900到2060年之间
+					long millis = -2208988800000L
+							+ (long) (random.nextDouble() * 5049216000000L);
+					long index = bucket.index(millis);
+					long start = bucket.start(index);
+					assertTrue(start <= millis);
+					assertEquals(index, bucket.index(start));
+					assertTrue(bucket.index(start - 1) < index);
+					long floor = DateTime.floor(millis, unit, first, zone);
+					if (floor == start) {
+						assertTrue(millis < bucket.end(index));
+					} else {
+						// 夏令时结束时重复的当地时间第二次出现, 桶从第一次出现时开始
+						assertTrue(unit.compareTo(Unit.HOUR) <= 0
+								&& floor > start);
+						assertEquals(index, bucket.index(floor));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testDaylightSaving() {
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		TimeBucket hours = TimeBucket.of(Unit.HOUR, zone);
+		// 2013-11-03 01:00当地时间重复两次, 构造时取较晚的一次
+		long standard = new DateTime(2013, 11, 3, 1, 30, 0, 0, zone).getTime();
+		long daylight = standard - DateTime.MILLISECONDS_PER_HOUR;
+		long index = hours.index(standard);
+		assertEquals(index, hours.index(daylight));
+		assertEquals(daylight - 30 * DateTime.MILLISECONDS_PER_MINUTE,
+				hours.start(index));
+		assertEquals(standard + 30 * DateTime.MILLISECONDS_PER_MINUTE,
+				hours.end(index));
+
+		TimeBucket days = TimeBucket.of(Unit.DAY, zone);
+		index = days.index(standard);
+		assertEquals(25 * DateTime.MILLISECONDS_PER_HOUR,
+				days.end(index) - days.start(index));
+	}
+
+	@Test
+	public void testDefaultTimeZone() {
+		TimeZone original = TimeZone.getDefault();
+		try {
+			TimeZone zone = TimeZone.getTimeZone("America/New_York");
+			TimeZone.setDefault(zone);
+			TimeBucket days = TimeBucket.of(Unit.DAY);
+			long index = days.index(0);
+			// 1970-01-01 00:00 UTC在纽约为1969-12-31 19:00
+			assertEquals(new DateTime(1969, 12, 31, 0, 0, 0, 0, zone).getTime(),
+					days.start(index));
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	@Test
+	public void testWeek() {
+		TimeBucket weeks = TimeBucket.of(Unit.WEEK,
+				TimeZone.getTimeZone("Asia/Shanghai"), Weekday.MONDAY);
+		// 2013-01-07为星期一
+		long index = weeks.index(new DateTime(2013, 1, 9));
+		assertEquals(new DateTime(2013, 1, 7).getTime(), weeks.start(index));
+		assertEquals(index, weeks.index(new DateTime(2013, 1, 13, 23, 59, 59, 999)));
+		assertEquals(index + 1, weeks.index(new DateTime(2013, 1, 14)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void misuseWidth() {
+		TimeBucket.of(0, TimeUnit.MINUTES);
+	}
+}
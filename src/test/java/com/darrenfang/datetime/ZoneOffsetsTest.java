@@ -0,0 +1,170 @@
+package com.darrenfang.datetime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class ZoneOffsetsTest {
+	private static final String[] ZONES = { "Asia/Shanghai",
+			"America/New_York", "Australia/Lord_Howe", "Europe/London",
+			"America/Sao_Paulo", "Pacific/Apia", "Asia/Kathmandu",
+			"Europe/Dublin", "UTC" };
+
+	private static final long HOUR = DateTime.MILLISECONDS_PER_HOUR;
+
+	private static final long DAY = DateTime.MILLISECONDS_PER_DAY;
+
+	@Test
+	public void testGetOffset() {
+		Random random = new Random(1);
+		for (String id : ZONES) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			ZoneOffsets offsets = ZoneOffsets.of(zone);
+			for (long t : transitions(zone)) {
+				for (long millis = t - 2; millis <= t + 2; millis++) {
+					assertEquals(id + " " + millis, zone.getOffset(millis),
+							offsets.getOffset(millis));
+				}
+			}
+			for (int i = 0; i < 100000; i++) {
+				// 覆盖缓存范围之外
+				long millis = (long) ((random.nextDouble() - 0.5) * 2e13);
+				assertEquals(id + " " + millis, zone.getOffset(millis),
+						offsets.getOffset(millis));
+			}
+		}
+	}
+
+	@Test
+	public void testLocalToInstant() {
+		GregorianCalendar c = new GregorianCalendar();
+		for (String id : ZONES) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			c.setTimeZone(zone);
+			for (long t : transitions(zone)) {
+				// 切换前后一天每15分钟, 前后3小时每分钟
+				long local = Gregorian.floorDiv(t, HOUR) * HOUR;
+				for (long l = local - DAY; l <= local + DAY; l += 15 * 60000) {
+					check(c, zone, l);
+				}
+				for (long l = local - 3 * HOUR; l <= local + 3 * HOUR; l += 60000) {
+					check(c, zone, l);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testLenient() {
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		GregorianCalendar c = new GregorianCalendar(zone);
+		c.clear();
+		c.set(2013, 12, 32, 25, 61, 61);
+		c.set(Calendar.MILLISECOND, 1001);
+		assertEquals(c.getTimeInMillis(),
+				DateTime.toInstant(2013, 13, 32, 25, 61, 61, 1001, zone));
+
+		c.clear();
+		c.set(1700, 0, 1);
+		assertEquals(c.getTimeInMillis(),
+				DateTime.toInstant(1700, 1, 1, 0, 0, 0, 0, zone));
+		c.clear();
+		c.set(2200, 6, 1, 12, 0, 0);
+		assertEquals(c.getTimeInMillis(),
+				DateTime.toInstant(2200, 7, 1, 12, 0, 0, 0, zone));
+	}
+
+	@Test
+	public void testCache() {
+		TimeZone zone = TimeZone.getTimeZone("Asia/Kathmandu");
+		ZoneOffsets offsets = ZoneOffsets.of(zone);
+		assertSame(offsets, ZoneOffsets.of(zone));
+		assertSame(offsets, ZoneOffsets.of((TimeZone) zone.clone()));
+
+		// 缓存保存的是副本, 之后修改zone不影响已缓存的结果
+		TimeZone custom = TimeZone.getTimeZone("GMT+03:00");
+		ZoneOffsets before = ZoneOffsets.of(custom);
+		custom.setRawOffset(4 * (int) HOUR);
+		assertEquals(3 * HOUR, before.getOffset(0));
+		assertEquals(4 * HOUR, ZoneOffsets.of(custom).getOffset(0));
+
+		SimpleTimeZone simple = new SimpleTimeZone(0, "custom");
+		assertEquals(0, ZoneOffsets.of(simple).getOffset(0));
+		simple.setStartRule(Calendar.JANUARY, 1, 0);
+		simple.setEndRule(Calendar.DECEMBER, 31, 0);
+		assertEquals(HOUR, ZoneOffsets.of(simple).getOffset(0));
+	}
+
+	@Test
+	public void testUncached() {
+		// 缓存已满时使用的ZoneOffsets, 结果与TimeZone相同
+		TimeZone zone = TimeZone.getTimeZone("America/New_York");
+		ZoneOffsets offsets = ZoneOffsets.uncached(zone);
+		for (long t : transitions(zone)) {
+			for (long millis = t - HOUR; millis <= t + HOUR; millis += 60000) {
+				assertEquals(zone.getOffset(millis), offsets.getOffset(millis));
+				assertFalse(offsets.covers(millis));
+			}
+		}
+	}
+
+	@Test
+	public void testOverflow() {
+		// 缓存已满后相同规则的时区复用同一个ZoneOffsets, 超过上限时淘汰最久未使用的
+		SimpleTimeZone first = new SimpleTimeZone(0, "overflow-first");
+		ZoneOffsets offsets = ZoneOffsets.overflow(first);
+		assertSame(offsets, ZoneOffsets.overflow((TimeZone) first.clone()));
+		assertSame(offsets, ZoneOffsets.overflow(new SimpleTimeZone(0,
+				"overflow-first")));
+		assertNotSame(offsets, ZoneOffsets.overflow(new SimpleTimeZone(
+				(int) HOUR, "overflow-first")));
+		for (int i = 0; i < ZoneOffsets.MAX_OVERFLOW_SIZE; i++) {
+			ZoneOffsets.overflow(new SimpleTimeZone(i, "overflow-" + i));
+		}
+		assertNotSame(offsets, ZoneOffsets.overflow(first));
+		assertEquals(0, ZoneOffsets.overflow(first).getOffset(0));
+	}
+
+	private static void check(GregorianCalendar c, TimeZone zone, long local) {
+		long epochDay = Gregorian.floorDiv(local, DAY);
+		int millisOfDay = (int) (local - epochDay * DAY);
+		int year = Gregorian.year(epochDay);
+		int month = Gregorian.month(epochDay);
+		int day = Gregorian.day(epochDay);
+		int hour = millisOfDay / (int) HOUR;
+		int minute = millisOfDay / 60000 % 60;
+		c.clear();
+		c.set(year, month - 1, day, hour, minute, 0);
+		assertEquals(zone.getID() + " " + year + "-" + month + "-" + day + " "
+				+ hour + ":" + minute, c.getTimeInMillis(),
+				DateTime.toInstant(year, month, day, hour, minute, 0, 0, zone));
+	}
+
+	/**
+	 * 逐小时扫描时区偏移变化的时刻 (精确到小时)
+	 */
+	private static List<Long> transitions(TimeZone zone) {
+		List<Long> transitions = new ArrayList<Long>();
+		long end = ZoneOffsets.MAX_MILLIS + 2 * DAY;
+		int offset = zone.getOffset(ZoneOffsets.MIN_MILLIS - 2 * DAY);
+		for (long t = ZoneOffsets.MIN_MILLIS - 2 * DAY; t < end; t += HOUR) {
+			int next = zone.getOffset(t);
+			if (next != offset) {
+				transitions.add(t);
+				offset = next;
+			}
+		}
+		return transitions;
+	}
+}